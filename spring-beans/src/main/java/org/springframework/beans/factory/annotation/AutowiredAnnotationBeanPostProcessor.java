@@ -22,12 +22,12 @@ import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -60,6 +60,7 @@ import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MemberAnnotations;
 import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.lang.Nullable;
@@ -473,7 +474,8 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 	}
 
 	private InjectionMetadata buildAutowiringMetadata(final Class<?> clazz) {
-		if (!AnnotationUtils.isCandidateClass(clazz, this.autowiredAnnotationTypes)) {
+		if (!AnnotationUtils.isCandidateClass(clazz, this.autowiredAnnotationTypes) ||
+				!MemberAnnotations.hasAnnotatedMembers(clazz, this.autowiredAnnotationTypes)) {
 			return InjectionMetadata.EMPTY;
 		}
 
@@ -482,9 +484,14 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 
 		do {
 			final List<InjectionMetadata.InjectedElement> currElements = new ArrayList<>();
+			final Set<Member> candidates =
+					InitDestroyAnnotationBeanPostProcessor.findAnnotatedMembers(targetClass, this.autowiredAnnotationTypes);
 
 			//提取filed上面的注解
 			ReflectionUtils.doWithLocalFields(targetClass, field -> {
+				if (candidates != null && !candidates.contains(field)) {
+					return;
+				}
 				MergedAnnotation<?> ann = findAutowiredAnnotation(field);
 				if (ann != null) {
 					if (Modifier.isStatic(field.getModifiers())) {
@@ -500,6 +507,9 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 
 			//提取方法上面的注解
 			ReflectionUtils.doWithLocalMethods(targetClass, method -> {
+				if (candidates != null && !method.isBridge() && !candidates.contains(method)) {
+					return;
+				}
 				Method bridgedMethod = BridgeMethodResolver.findBridgedMethod(method);
 				if (!BridgeMethodResolver.isVisibilityBridgeMethodPair(method, bridgedMethod)) {
 					return;
@@ -609,12 +619,20 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 
 	/**
 	 * Resolve the specified cached method argument or field value.
+	 * <p>A pre-resolved target bean which exists already is obtained directly,
+	 * without going through the full dependency resolution algorithm again:
+	 * this is the common case for prototype and scoped beans which get
+	 * injected with the same singletons over and over.
 	 */
 	@Nullable
 	private Object resolvedCachedArgument(@Nullable String beanName, @Nullable Object cachedArgument) {
 		if (cachedArgument instanceof DependencyDescriptor) {
 			DependencyDescriptor descriptor = (DependencyDescriptor) cachedArgument;
 			Assert.state(this.beanFactory != null, "No BeanFactory available");
+			if (descriptor instanceof ShortcutDependencyDescriptor &&
+					this.beanFactory.containsSingleton(((ShortcutDependencyDescriptor) descriptor).shortcut)) {
+				return descriptor.resolveShortcut(this.beanFactory);
+			}
 			return this.beanFactory.resolveDependency(descriptor, beanName, null, null);
 		}
 		else {
@@ -768,6 +786,7 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 			int argumentCount = method.getParameterCount();
 			Object[] arguments = new Object[argumentCount];
 			DependencyDescriptor[] descriptors = new DependencyDescriptor[argumentCount];
+			List<Set<String>> autowiredBeanNamesPerArgument = new ArrayList<>(argumentCount);
 			Set<String> autowiredBeans = new LinkedHashSet<>(argumentCount);
 			Assert.state(beanFactory != null, "No BeanFactory available");
 			TypeConverter typeConverter = beanFactory.getTypeConverter();
@@ -776,8 +795,11 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 				DependencyDescriptor currDesc = new DependencyDescriptor(methodParam, this.required);
 				currDesc.setContainingClass(bean.getClass());
 				descriptors[i] = currDesc;
+				Set<String> autowiredBeanNames = new LinkedHashSet<>(1);
+				autowiredBeanNamesPerArgument.add(autowiredBeanNames);
 				try {
-					Object arg = beanFactory.resolveDependency(currDesc, beanName, autowiredBeans, typeConverter);
+					Object arg = beanFactory.resolveDependency(currDesc, beanName, autowiredBeanNames, typeConverter);
+					autowiredBeans.addAll(autowiredBeanNames);
 					if (arg == null && !this.required) {
 						arguments = null;
 						break;
@@ -793,11 +815,13 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 					if (arguments != null) {
 						DependencyDescriptor[] cachedMethodArguments = Arrays.copyOf(descriptors, arguments.length);
 						registerDependentBeans(beanName, autowiredBeans);
-						if (autowiredBeans.size() == argumentCount) {
-							Iterator<String> it = autowiredBeans.iterator();
-							Class<?>[] paramTypes = method.getParameterTypes();
-							for (int i = 0; i < paramTypes.length; i++) {
-								String autowiredBeanName = it.next();
+						// Decide per argument, so that a collection argument or two arguments
+						// referring to the same bean do not prevent shortcuts for the others
+						Class<?>[] paramTypes = method.getParameterTypes();
+						for (int i = 0; i < paramTypes.length; i++) {
+							Set<String> autowiredBeanNames = autowiredBeanNamesPerArgument.get(i);
+							if (autowiredBeanNames.size() == 1) {
+								String autowiredBeanName = autowiredBeanNames.iterator().next();
 								if (beanFactory.containsBean(autowiredBeanName) &&
 										beanFactory.isTypeMatch(autowiredBeanName, paramTypes[i])) {
 									cachedMethodArguments[i] = new ShortcutDependencyDescriptor(
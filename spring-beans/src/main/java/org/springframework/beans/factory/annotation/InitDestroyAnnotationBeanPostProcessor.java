@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,12 +21,13 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,7 +44,9 @@ import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcess
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.annotation.AnnotationFilter;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MemberAnnotations;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
@@ -217,7 +220,15 @@ public class InitDestroyAnnotationBeanPostProcessor
 	}
 
 	private LifecycleMetadata buildLifecycleMetadata(final Class<?> clazz) {
-		if (!AnnotationUtils.isCandidateClass(clazz, Arrays.asList(this.initAnnotationType, this.destroyAnnotationType))) {
+		List<Class<? extends Annotation>> annotationTypes = new ArrayList<>(2);
+		if (this.initAnnotationType != null) {
+			annotationTypes.add(this.initAnnotationType);
+		}
+		if (this.destroyAnnotationType != null) {
+			annotationTypes.add(this.destroyAnnotationType);
+		}
+		if (annotationTypes.isEmpty() || !AnnotationUtils.isCandidateClass(clazz, annotationTypes) ||
+				!MemberAnnotations.hasAnnotatedMembers(clazz, annotationTypes)) {
 			return this.emptyLifecycleMetadata;
 		}
 
@@ -228,8 +239,12 @@ public class InitDestroyAnnotationBeanPostProcessor
 		do {
 			final List<LifecycleElement> currInitMethods = new ArrayList<>();
 			final List<LifecycleElement> currDestroyMethods = new ArrayList<>();
+			final Set<Member> candidates = findAnnotatedMembers(targetClass, annotationTypes);
 
 			ReflectionUtils.doWithLocalMethods(targetClass, method -> {
+				if (candidates != null && !candidates.contains(method)) {
+					return;
+				}
 				if (this.initAnnotationType != null && method.isAnnotationPresent(this.initAnnotationType)) {
 					LifecycleElement element = new LifecycleElement(method);
 					currInitMethods.add(element);
@@ -255,6 +270,32 @@ public class InitDestroyAnnotationBeanPostProcessor
 				new LifecycleMetadata(clazz, initMethods, destroyMethods));
 	}
 
+	/**
+	 * Determine the members declared by the given class which carry one of the
+	 * given annotation types, from the {@link MemberAnnotations} summary shared
+	 * by all annotation post-processors, in order to only check those members.
+	 * @param clazz the class to introspect
+	 * @param annotationTypes the annotation types to look for
+	 * @return the annotated members, or {@code null} if the summary does not cover
+	 * all of the given annotation types, in which case all members need to be checked
+	 * @since 5.3.7
+	 * @see MemberAnnotations#getAnnotatedMembers(Collection)
+	 */
+	@Nullable
+	protected static Set<Member> findAnnotatedMembers(
+			Class<?> clazz, Collection<Class<? extends Annotation>> annotationTypes) {
+
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			if (AnnotationFilter.PLAIN.matches(annotationType)) {
+				return null;
+			}
+		}
+		Set<Member> annotatedMembers = new HashSet<>();
+		MemberAnnotations.forClass(clazz).getAnnotatedMembers(annotationTypes).values()
+				.forEach(annotatedMembers::addAll);
+		return annotatedMembers;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Serialization support
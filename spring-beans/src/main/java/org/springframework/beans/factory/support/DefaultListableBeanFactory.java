@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,7 +24,11 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -172,6 +176,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Map of singleton-only bean names, keyed by dependency type. */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/** Map of singleton and non-singleton bean names, keyed by generic dependency type. */
+	private final Map<Type, String[]> allBeanNamesByGenericType = new ConcurrentHashMap<>(64);
+
+	/** Map of singleton-only bean names, keyed by generic dependency type. */
+	private final Map<Type, String[]> singletonBeanNamesByGenericType = new ConcurrentHashMap<>(64);
+
 	/** List of bean definition names, in registration order. */
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
 
@@ -526,9 +536,21 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (resolved != null && !type.hasGenerics()) {
 			return getBeanNamesForType(resolved, includeNonSingletons, allowEagerInit);
 		}
-		else {
+		Type genericType = type.getType();
+		if (!isConfigurationFrozen() || !allowEagerInit || !(genericType instanceof ParameterizedType)) {
 			return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit);
 		}
+		Map<Type, String[]> cache =
+				(includeNonSingletons ? this.allBeanNamesByGenericType : this.singletonBeanNamesByGenericType);
+		String[] resolvedBeanNames = cache.get(genericType);
+		if (resolvedBeanNames != null) {
+			return resolvedBeanNames;
+		}
+		resolvedBeanNames = doGetBeanNamesForType(type, includeNonSingletons, true);
+		if (isCacheSafe(genericType)) {
+			cache.put(genericType, resolvedBeanNames);
+		}
+		return resolvedBeanNames;
 	}
 
 	@Override
@@ -554,6 +576,41 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return resolvedBeanNames;
 	}
 
+	/**
+	 * Determine whether by-type results for the given generic type may be cached
+	 * with the type as key: this requires the type to be free of type variables,
+	 * which only resolve in the context of a specific {@link ResolvableType},
+	 * and all of its classes to be cache-safe for the bean ClassLoader.
+	 */
+	private boolean isCacheSafe(Type type) {
+		if (type instanceof Class) {
+			return ClassUtils.isCacheSafe((Class<?>) type, getBeanClassLoader());
+		}
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			Type ownerType = parameterizedType.getOwnerType();
+			return ((ownerType == null || isCacheSafe(ownerType)) && isCacheSafe(parameterizedType.getRawType()) &&
+					isCacheSafe(parameterizedType.getActualTypeArguments()));
+		}
+		if (type instanceof WildcardType) {
+			WildcardType wildcardType = (WildcardType) type;
+			return (isCacheSafe(wildcardType.getUpperBounds()) && isCacheSafe(wildcardType.getLowerBounds()));
+		}
+		if (type instanceof GenericArrayType) {
+			return isCacheSafe(((GenericArrayType) type).getGenericComponentType());
+		}
+		return false;
+	}
+
+	private boolean isCacheSafe(Type[] types) {
+		for (Type type : types) {
+			if (!isCacheSafe(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();
 
@@ -1142,7 +1199,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		super.registerSingleton(beanName, singletonObject);
 		updateManualSingletonNames(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
-		clearByTypeCache();
+		if (singletonObject instanceof FactoryBean || this.beanDefinitionMap.containsKey(beanName)) {
+			// Exposed type not determinable from the given instance alone
+			clearByTypeCache();
+		}
+		else {
+			addToByTypeCache(beanName, singletonObject);
+		}
 	}
 
 	@Override
@@ -1155,9 +1218,15 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	@Override
 	public void destroySingleton(String beanName) {
+		boolean manualSingleton = this.manualSingletonNames.contains(beanName);
 		super.destroySingleton(beanName);
 		removeManualSingletonName(beanName);
-		clearByTypeCache();
+		if (manualSingleton && !this.beanDefinitionMap.containsKey(beanName)) {
+			removeFromByTypeCache(beanName);
+		}
+		else {
+			clearByTypeCache();
+		}
 	}
 
 	private void removeManualSingletonName(String beanName) {
@@ -1195,6 +1264,41 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private void clearByTypeCache() {
 		this.allBeanNamesByType.clear();
 		this.singletonBeanNamesByType.clear();
+		this.allBeanNamesByGenericType.clear();
+		this.singletonBeanNamesByGenericType.clear();
+	}
+
+	/**
+	 * Add a newly registered manual singleton to the by-type mappings,
+	 * leaving the mappings for all non-matching types in place.
+	 * @param beanName the name of the singleton
+	 * @param singletonObject the singleton instance (not a {@code FactoryBean})
+	 */
+	private void addToByTypeCache(String beanName, Object singletonObject) {
+		// Manual singletons come last in by-type results, in registration order
+		this.allBeanNamesByType.replaceAll((type, beanNames) ->
+				(type.isInstance(singletonObject) ? StringUtils.addStringToArray(beanNames, beanName) : beanNames));
+		this.singletonBeanNamesByType.replaceAll((type, beanNames) ->
+				(type.isInstance(singletonObject) ? StringUtils.addStringToArray(beanNames, beanName) : beanNames));
+		this.allBeanNamesByGenericType.keySet().removeIf(type -> ResolvableType.forType(type).isInstance(singletonObject));
+		this.singletonBeanNamesByGenericType.keySet().removeIf(type -> ResolvableType.forType(type).isInstance(singletonObject));
+	}
+
+	/**
+	 * Remove a destroyed manual singleton from the by-type mappings,
+	 * leaving the mappings for all other types in place.
+	 * @param beanName the name of the singleton
+	 */
+	private void removeFromByTypeCache(String beanName) {
+		String factoryBeanName = FACTORY_BEAN_PREFIX + beanName;
+		for (Map<?, String[]> cache : Arrays.asList(this.allBeanNamesByType, this.singletonBeanNamesByType,
+				this.allBeanNamesByGenericType, this.singletonBeanNamesByGenericType)) {
+			cache.replaceAll((type, beanNames) ->
+					(ObjectUtils.containsElement(beanNames, beanName) ||
+							ObjectUtils.containsElement(beanNames, factoryBeanName) ?
+					Arrays.stream(beanNames).filter(name -> !name.equals(beanName) && !name.equals(factoryBeanName))
+							.toArray(String[]::new) : beanNames));
+		}
 	}
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import java.security.Principal;
 import java.security.PrivilegedAction;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -1912,6 +1913,42 @@ class DefaultListableBeanFactoryTests {
 		assertThat(beanNames[0]).isEqualTo("&factoryBean");
 	}
 
+	@Test
+	void getBeanNamesForTypeWithFrozenConfigurationAfterSingletonRegistration() {
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb");
+		assertThat(lbf.getBeanNamesForType(String.class)).isEmpty();
+
+		lbf.registerSingleton("tb2", new TestBean());
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb", "tb2");
+		assertThat(lbf.getBeanNamesForType(String.class)).isEmpty();
+
+		lbf.registerSingleton("string", "A");
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb", "tb2");
+		assertThat(lbf.getBeanNamesForType(String.class)).containsExactly("string");
+
+		lbf.destroySingleton("tb2");
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb");
+		assertThat(lbf.getBeanNamesForType(String.class)).containsExactly("string");
+	}
+
+	@Test
+	void getBeanNamesForGenericTypeWithFrozenConfiguration() {
+		ResolvableType stringListType = ResolvableType.forClassWithGenerics(List.class, String.class);
+		lbf.registerSingleton("strings", new StringList());
+		lbf.freezeConfiguration();
+		String[] beanNames = lbf.getBeanNamesForType(stringListType);
+		assertThat(beanNames).containsExactly("strings");
+		assertThat(lbf.getBeanNamesForType(stringListType)).isSameAs(beanNames);
+
+		lbf.registerSingleton("moreStrings", new StringList());
+		assertThat(lbf.getBeanNamesForType(stringListType)).containsExactly("strings", "moreStrings");
+
+		lbf.destroySingleton("strings");
+		assertThat(lbf.getBeanNamesForType(stringListType)).containsExactly("moreStrings");
+	}
+
 	/**
 	 * Verifies that a dependency on a {@link FactoryBean} can <strong>not</strong>
 	 * be autowired <em>by name</em>, as &amp; is an illegal character in
@@ -3168,4 +3205,9 @@ class DefaultListableBeanFactoryTests {
 		}
 	}
 
+
+	@SuppressWarnings("serial")
+	private static class StringList extends ArrayList<String> {
+	}
+
 }
@@ -134,6 +134,38 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 		assertThat(bean.getTestBean2()).isSameAs(tb);
 	}
 
+	@Test
+	public void testResourceInjectionWithPrototypeTarget() {
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		RootBeanDefinition tbd = new RootBeanDefinition(TestBean.class);
+		tbd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("testBean", tbd);
+
+		ResourceInjectionBean bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		ResourceInjectionBean anotherBean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		assertThat(anotherBean.getTestBean()).isNotNull().isNotSameAs(bean.getTestBean());
+		assertThat(anotherBean.getTestBean2()).isNotNull().isNotSameAs(bean.getTestBean2());
+	}
+
+	@Test
+	public void testResourceInjectionAfterTargetSingletonDestroyed() {
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		bf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+
+		ResourceInjectionBean bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		TestBean tb = (TestBean) bf.getBean("testBean");
+		assertThat(bean.getTestBean()).isSameAs(tb);
+
+		bf.destroySingleton("testBean");
+		bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		assertThat(bean.getTestBean()).isNotSameAs(tb).isSameAs(bf.getBean("testBean"));
+		assertThat(bean.getTestBean2()).isSameAs(bf.getBean("testBean"));
+	}
+
 	@Test
 	public void testExtendedResourceInjection() {
 		RootBeanDefinition bd = new RootBeanDefinition(TypedExtendedResourceInjectionBean.class);
@@ -1295,6 +1327,24 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 		assertThat(anotherBean.getTestBean()).isSameAs(bf.getBean("testBean"));
 	}
 
+	@Test
+	public void testMapMethodInjectionIntoPrototypeBean() {
+		RootBeanDefinition bd = new RootBeanDefinition(MapMethodInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		TestBean tb = new TestBean();
+		bf.registerSingleton("testBean", tb);
+
+		MapMethodInjectionBean bean = (MapMethodInjectionBean) bf.getBean("annotatedBean");
+		assertThat(bean.getTestBean()).isSameAs(tb);
+		assertThat(bean.getTestBeanMap()).containsOnlyKeys("testBean");
+
+		MapMethodInjectionBean anotherBean = (MapMethodInjectionBean) bf.getBean("annotatedBean");
+		assertThat(anotherBean).isNotSameAs(bean);
+		assertThat(anotherBean.getTestBean()).isSameAs(tb);
+		assertThat(anotherBean.getTestBeanMap()).containsOnlyKeys("testBean");
+	}
+
 	@Test
 	public void testObjectFactoryQualifierInjection() {
 		bf.registerBeanDefinition("annotatedBean", new RootBeanDefinition(ObjectFactoryQualifierInjectionBean.class));
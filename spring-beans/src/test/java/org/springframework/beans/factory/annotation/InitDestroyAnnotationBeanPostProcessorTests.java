@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link InitDestroyAnnotationBeanPostProcessor}.
+ */
+class InitDestroyAnnotationBeanPostProcessorTests {
+
+	private final InitDestroyAnnotationBeanPostProcessor bpp = new InitDestroyAnnotationBeanPostProcessor();
+
+
+	@Test
+	void initAndDestroyMethods() {
+		bpp.setInitAnnotationType(Init.class);
+		bpp.setDestroyAnnotationType(Destroy.class);
+		LifecycleBean bean = new LifecycleBean();
+		bpp.postProcessBeforeInitialization(bean, "bean");
+		assertThat(bean.initialized).isTrue();
+		assertThat(bpp.requiresDestruction(bean)).isTrue();
+		bpp.postProcessBeforeDestruction(bean, "bean");
+		assertThat(bean.destroyed).isTrue();
+	}
+
+	@Test
+	void initAnnotationTypeOnly() {
+		bpp.setInitAnnotationType(Init.class);
+		LifecycleBean bean = new LifecycleBean();
+		bpp.postProcessBeforeInitialization(bean, "bean");
+		assertThat(bean.initialized).isTrue();
+		assertThat(bpp.requiresDestruction(bean)).isFalse();
+	}
+
+	@Test
+	void destroyAnnotationTypeOnly() {
+		bpp.setDestroyAnnotationType(Destroy.class);
+		LifecycleBean bean = new LifecycleBean();
+		bpp.postProcessBeforeInitialization(bean, "bean");
+		assertThat(bean.initialized).isFalse();
+		bpp.postProcessBeforeDestruction(bean, "bean");
+		assertThat(bean.destroyed).isTrue();
+	}
+
+	@Test
+	void inheritedMethods() {
+		bpp.setInitAnnotationType(Init.class);
+		bpp.setDestroyAnnotationType(Destroy.class);
+		ExtendedLifecycleBean bean = new ExtendedLifecycleBean();
+		bpp.postProcessBeforeInitialization(bean, "bean");
+		assertThat(bean.initialized).isTrue();
+		assertThat(bean.extendedInitialized).isTrue();
+		bpp.postProcessBeforeDestruction(bean, "bean");
+		assertThat(bean.destroyed).isTrue();
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void plainJavaAnnotationType() {
+		bpp.setInitAnnotationType(Deprecated.class);
+		DeprecatedLifecycleBean bean = new DeprecatedLifecycleBean();
+		bpp.postProcessBeforeInitialization(bean, "bean");
+		assertThat(bean.initialized).isTrue();
+	}
+
+	@Test
+	void noAnnotationTypes() {
+		LifecycleBean bean = new LifecycleBean();
+		bpp.postProcessBeforeInitialization(bean, "bean");
+		assertThat(bean.initialized).isFalse();
+		assertThat(bpp.requiresDestruction(bean)).isFalse();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Init {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Destroy {
+	}
+
+
+	static class LifecycleBean {
+
+		boolean initialized;
+
+		boolean destroyed;
+
+		@Init
+		public void init() {
+			this.initialized = true;
+		}
+
+		@Destroy
+		public void destroy() {
+			this.destroyed = true;
+		}
+	}
+
+
+	static class ExtendedLifecycleBean extends LifecycleBean {
+
+		boolean extendedInitialized;
+
+		@Init
+		public void extendedInit() {
+			this.extendedInitialized = true;
+		}
+
+		public void plain() {
+		}
+	}
+
+
+	static class DeprecatedLifecycleBean {
+
+		boolean initialized;
+
+		@Deprecated
+		public void init() {
+			this.initialized = true;
+		}
+	}
+
+}
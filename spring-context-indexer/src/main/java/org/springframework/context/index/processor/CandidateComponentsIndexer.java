@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,10 @@ import javax.lang.model.element.TypeElement;
  * Annotation {@link Processor} that writes {@link CandidateComponentsMetadata}
  * file for spring components.
  *
+ * <p>Also writes an index of the annotations declared on the methods, fields
+ * and constructors of every class and interface, allowing annotation
+ * post-processors to skip types without relevant members at runtime.
+ *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
  * @since 5.0
@@ -57,6 +61,12 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private List<StereotypesProvider> stereotypesProviders;
 
+	private MemberAnnotationsProvider memberAnnotationsProvider;
+
+	private MetadataStore membersMetadataStore;
+
+	private MetadataCollector membersMetadataCollector;
+
 
 	@Override
 	public Set<String> getSupportedOptions() {
@@ -79,11 +89,15 @@ public class CandidateComponentsIndexer implements Processor {
 		this.typeHelper = new TypeHelper(env);
 		this.metadataStore = new MetadataStore(env);
 		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
+		this.memberAnnotationsProvider = new MemberAnnotationsProvider(this.typeHelper);
+		this.membersMetadataStore = new MetadataStore(env, MetadataStore.MEMBERS_METADATA_PATH);
+		this.membersMetadataCollector = new MetadataCollector(env, this.membersMetadataStore.readMetadata());
 	}
 
 	@Override
 	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
 		this.metadataCollector.processing(roundEnv);
+		this.membersMetadataCollector.processing(roundEnv);
 		roundEnv.getRootElements().forEach(this::processElement);
 		if (roundEnv.processingOver()) {
 			writeMetaData();
@@ -119,13 +133,23 @@ public class CandidateComponentsIndexer implements Processor {
 		if (!stereotypes.isEmpty()) {
 			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
 		}
+		if (TYPE_KINDS.contains(element.getKind())) {
+			// Index every type, so that the absence of annotated members can be relied upon.
+			this.membersMetadataCollector.add(new ItemMetadata(this.typeHelper.getType(element),
+					this.memberAnnotationsProvider.getMemberAnnotations(element)));
+		}
 	}
 
 	private void writeMetaData() {
-		CandidateComponentsMetadata metadata = this.metadataCollector.getMetadata();
+		writeMetaData(this.metadataStore, this.metadataCollector);
+		writeMetaData(this.membersMetadataStore, this.membersMetadataCollector);
+	}
+
+	private void writeMetaData(MetadataStore store, MetadataCollector collector) {
+		CandidateComponentsMetadata metadata = collector.getMetadata();
 		if (!metadata.getItems().isEmpty()) {
 			try {
-				this.metadataStore.writeMetadata(metadata);
+				store.writeMetadata(metadata);
 			}
 			catch (IOException ex) {
 				throw new IllegalStateException("Failed to write metadata", ex);
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+
+/**
+ * Extract the annotations declared on the methods, fields and constructors
+ * of a type, along with all of their meta-annotations.
+ *
+ * <p>Annotations in the {@code java.lang} package are not included.
+ *
+ * @since 5.3.7
+ */
+class MemberAnnotationsProvider {
+
+	private static final Set<ElementKind> MEMBER_KINDS = Collections.unmodifiableSet(
+			EnumSet.of(ElementKind.METHOD, ElementKind.FIELD, ElementKind.CONSTRUCTOR));
+
+	private final TypeHelper typeHelper;
+
+
+	MemberAnnotationsProvider(TypeHelper typeHelper) {
+		this.typeHelper = typeHelper;
+	}
+
+
+	/**
+	 * Return the names of the annotation types present on the members
+	 * declared by the given type, including meta-annotations.
+	 */
+	public Set<String> getMemberAnnotations(Element element) {
+		Set<String> annotations = new LinkedHashSet<>();
+		for (Element member : element.getEnclosedElements()) {
+			if (MEMBER_KINDS.contains(member.getKind())) {
+				collectAnnotations(annotations, member);
+			}
+		}
+		return annotations;
+	}
+
+	private void collectAnnotations(Set<String> annotations, Element element) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			String type = this.typeHelper.getType(annotation);
+			if (!type.startsWith("java.lang") && annotations.add(type)) {
+				collectAnnotations(annotations, annotation.getAnnotationType().asElement());
+			}
+		}
+	}
+
+}
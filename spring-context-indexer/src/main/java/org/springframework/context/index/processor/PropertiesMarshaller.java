@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,7 @@ abstract class PropertiesMarshaller {
 		props.load(in);
 		props.forEach((type, value) -> {
 			Set<String> candidates = new HashSet<>(Arrays.asList(((String) value).split(",")));
+			candidates.remove("");
 			result.add(new ItemMetadata((String) type, candidates));
 		});
 		return result;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,8 +33,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
+import org.springframework.context.index.sample.MetaEventListener;
+import org.springframework.context.index.sample.SampleAnnotatedMembers;
 import org.springframework.context.index.sample.SampleComponent;
 import org.springframework.context.index.sample.SampleController;
 import org.springframework.context.index.sample.SampleEmbedded;
@@ -44,6 +49,7 @@ import org.springframework.context.index.sample.SampleNonStaticEmbedded;
 import org.springframework.context.index.sample.SampleNone;
 import org.springframework.context.index.sample.SampleRepository;
 import org.springframework.context.index.sample.SampleService;
+import org.springframework.context.index.sample.Scope;
 import org.springframework.context.index.sample.cdi.SampleManagedBean;
 import org.springframework.context.index.sample.cdi.SampleNamed;
 import org.springframework.context.index.sample.cdi.SampleTransactional;
@@ -218,6 +224,21 @@ class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems()).hasSize(0);
 	}
 
+	@Test
+	void memberAnnotationsAreIndexed() {
+		CandidateComponentsMetadata metadata = compileMembers(SampleAnnotatedMembers.class);
+		assertThat(metadata).has(Metadata.of(SampleAnnotatedMembers.class, Autowired.class, EventListener.class,
+				MetaEventListener.class, Bean.class, Scope.class));
+		assertThat(metadata.getItems()).hasSize(1);
+	}
+
+	@Test
+	void typeWithoutMemberAnnotationsIsIndexed() {
+		CandidateComponentsMetadata metadata = compileMembers(SampleNone.class);
+		assertThat(metadata).has(Metadata.of(SampleNone.class));
+		assertThat(metadata.getItems()).hasSize(1);
+	}
+
 	private void testComponent(Class<?>... classes) {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -244,8 +265,18 @@ class CandidateComponentsIndexerTests {
 		return readGeneratedMetadata(this.compiler.getOutputLocation());
 	}
 
+	private CandidateComponentsMetadata compileMembers(Class<?>... types) {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(types).call(processor);
+		return readGeneratedMetadata(this.compiler.getOutputLocation(), MetadataStore.MEMBERS_METADATA_PATH);
+	}
+
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
-		File metadataFile = new File(outputLocation, MetadataStore.METADATA_PATH);
+		return readGeneratedMetadata(outputLocation, MetadataStore.METADATA_PATH);
+	}
+
+	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation, String metadataPath) {
+		File metadataFile = new File(outputLocation, metadataPath);
 		if (metadataFile.isFile()) {
 			try (FileInputStream fileInputStream = new FileInputStream(metadataFile)) {
 				CandidateComponentsMetadata metadata = PropertiesMarshaller.read(fileInputStream);
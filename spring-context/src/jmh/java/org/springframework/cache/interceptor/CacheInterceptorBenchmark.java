@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Benchmark for the cache hit path of a {@code @Cacheable} method call.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class CacheInterceptorBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public AnnotationConfigApplicationContext context;
+
+		public CachedService service;
+
+		@Param({"defaultKey", "expressionKey", "conditionalKey"})
+		public String operation;
+
+		@Setup
+		public void setup() {
+			this.context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+			this.service = this.context.getBean(CachedService.class);
+			this.service.defaultKey(42L);
+			this.service.expressionKey(42L);
+			this.service.conditionalKey(42L);
+		}
+
+		@TearDown
+		public void tearDown() {
+			this.context.close();
+		}
+	}
+
+	@Benchmark
+	public Object cacheHit(BenchmarkState state) {
+		switch (state.operation) {
+			case "defaultKey":
+				return state.service.defaultKey(42L);
+			case "expressionKey":
+				return state.service.expressionKey(42L);
+			default:
+				return state.service.conditionalKey(42L);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class BenchmarkConfig {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager();
+		}
+
+		@Bean
+		public CachedService cachedService() {
+			return new CachedService();
+		}
+	}
+
+
+	public static class CachedService {
+
+		@Cacheable("default")
+		public String defaultKey(Long id) {
+			return "value" + id;
+		}
+
+		@Cacheable(cacheNames = "expression", key = "#p0")
+		public String expressionKey(Long id) {
+			return "value" + id;
+		}
+
+		@Cacheable(cacheNames = "conditional", key = "#p0", condition = "#p0 > 0")
+		public String conditionalKey(Long id) {
+			return "value" + id;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,11 @@
 
 package org.springframework.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.lang.Nullable;
 
@@ -100,6 +104,48 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the value to which this cache maps the specified key, retrieved
+	 * asynchronously where supported by the native cache.
+	 * <p>The returned future completes with {@code null} if the cache contains
+	 * no mapping for this key, and with a {@link ValueWrapper} otherwise, which
+	 * may also hold a cached {@code null} value, just like {@link #get(Object)}.
+	 * <p>The default implementation delegates to {@link #get(Object)} and returns
+	 * an already completed future.
+	 * @param key the key whose associated value is to be returned
+	 * @return a future for the value wrapper, or for {@code null} if the cache
+	 * contains no mapping for this key
+	 * @since 5.3.7
+	 * @see #get(Object)
+	 */
+	default CompletableFuture<ValueWrapper> retrieve(Object key) {
+		return CompletableFuture.completedFuture(get(key));
+	}
+
+	/**
+	 * Return the values to which this cache maps the specified keys, in a
+	 * single bulk operation where supported by the native cache.
+	 * <p>Keys without a mapping in this cache are not contained in the
+	 * returned map, whereas keys mapped to a {@code null} value are, with a
+	 * {@link ValueWrapper} holding {@code null}.
+	 * <p>The default implementation delegates to {@link #get(Object)} for
+	 * each key.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a map from each key found to its value wrapper (never {@code null})
+	 * @since 5.3.7
+	 * @see #get(Object)
+	 */
+	default Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size() * 2);
+		for (Object key : keys) {
+			ValueWrapper value = get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -114,6 +160,39 @@ public interface Cache {
 	 */
 	void put(Object key, @Nullable Object value);
 
+	/**
+	 * Associate the specified value with the specified key in this cache,
+	 * asynchronously where supported by the native cache.
+	 * <p>Same semantics as {@link #put(Object, Object)}, with the returned future
+	 * completing once the native cache has accepted the value.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)}
+	 * and returns an already completed future.
+	 * @param key the key with which the specified value is to be associated
+	 * @param value the value to be associated with the specified key
+	 * @return a future completing once the value has been stored
+	 * @since 5.3.7
+	 * @see #put(Object, Object)
+	 */
+	default CompletableFuture<Void> store(Object key, @Nullable Object value) {
+		put(key, value);
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Associate all given values with their keys in this cache, in a single
+	 * bulk operation where supported by the native cache.
+	 * <p>Same semantics as {@link #put(Object, Object)} for each entry,
+	 * including potentially deferred registration.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)}
+	 * for each entry.
+	 * @param entries the key-value pairs to store
+	 * @since 5.3.7
+	 * @see #put(Object, Object)
+	 */
+	default void putAll(Map<?, ?> entries) {
+		entries.forEach(this::put);
+	}
+
 	/**
 	 * Atomically associate the specified value with the specified key in this cache
 	 * if it is not set already.
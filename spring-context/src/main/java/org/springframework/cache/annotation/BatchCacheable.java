@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.core.annotation.AliasFor;
+
+/**
+ * Annotation indicating that the result of a method taking a collection of
+ * identifiers can be cached per element of that collection.
+ *
+ * <p>The first {@link java.util.Collection} parameter of the method determines
+ * the cache keys: each element is used as-is as the key of a separate cache
+ * entry. On invocation, all keys are looked up at once through
+ * {@link org.springframework.cache.Cache#getAll}, and the target method is
+ * only invoked with the elements that were not found in the cache. The values
+ * it returns are stored through {@link org.springframework.cache.Cache#putAll}
+ * and merged with the cached ones, in the order of the requested elements.
+ *
+ * <p>The method must either return a {@link java.util.Map} keyed by element,
+ * in which case elements without a corresponding entry are neither cached nor
+ * part of the result, or a {@link java.util.Collection} holding exactly one
+ * value per requested element, in the same order, with {@code null} for an
+ * absent value.
+ *
+ * <p>The target method is invoked with a copy of the original arguments that
+ * holds the missing elements instead. This is only supported by the default
+ * proxy-based caching infrastructure; other modes, such as AspectJ weaving,
+ * reject such methods on invocation. The operation uses a single cache and
+ * cannot be combined with other cache operations on the same method.
+ *
+ * <p>This annotation may be used as a <em>meta-annotation</em> to create custom
+ * <em>composed annotations</em> with attribute overrides.
+ *
+ * @since 5.3.7
+ * @see Cacheable
+ * @see CacheConfig
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BatchCacheable {
+
+	/**
+	 * Alias for {@link #cacheNames}.
+	 */
+	@AliasFor("cacheNames")
+	String[] value() default {};
+
+	/**
+	 * Name of the cache in which the values are stored.
+	 * @see #value
+	 * @see CacheConfig#cacheNames
+	 */
+	@AliasFor("value")
+	String[] cacheNames() default {};
+
+	/**
+	 * The bean name of the custom {@link org.springframework.cache.CacheManager} to use to
+	 * create a default {@link org.springframework.cache.interceptor.CacheResolver} if none
+	 * is set already.
+	 * <p>Mutually exclusive with the {@link #cacheResolver} attribute.
+	 * @see CacheConfig#cacheManager
+	 */
+	String cacheManager() default "";
+
+	/**
+	 * The bean name of the custom {@link org.springframework.cache.interceptor.CacheResolver}
+	 * to use.
+	 * @see CacheConfig#cacheResolver
+	 */
+	String cacheResolver() default "";
+
+	/**
+	 * Spring Expression Language (SpEL) expression used for making the method
+	 * caching conditional.
+	 * <p>Default is {@code ""}, meaning the method result is always cached.
+	 * <p>The expression evaluates against the same context as {@link Cacheable#condition()}.
+	 */
+	String condition() default "";
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.springframework.cache.interceptor.BatchCacheableOperation;
 import org.springframework.cache.interceptor.CacheEvictOperation;
 import org.springframework.cache.interceptor.CacheOperation;
 import org.springframework.cache.interceptor.CachePutOperation;
@@ -36,7 +37,7 @@ import org.springframework.util.StringUtils;
 
 /**
  * Strategy implementation for parsing Spring's {@link Caching}, {@link Cacheable},
- * {@link CacheEvict}, and {@link CachePut} annotations.
+ * {@link BatchCacheable}, {@link CacheEvict}, and {@link CachePut} annotations.
  *
  * @author Costin Leau
  * @author Juergen Hoeller
@@ -53,6 +54,7 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 
 	static {
 		CACHE_OPERATION_ANNOTATIONS.add(Cacheable.class);
+		CACHE_OPERATION_ANNOTATIONS.add(BatchCacheable.class);
 		CACHE_OPERATION_ANNOTATIONS.add(CacheEvict.class);
 		CACHE_OPERATION_ANNOTATIONS.add(CachePut.class);
 		CACHE_OPERATION_ANNOTATIONS.add(Caching.class);
@@ -85,9 +87,13 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 			// More than one operation found -> local declarations override interface-declared ones...
 			Collection<CacheOperation> localOps = parseCacheAnnotations(cachingConfig, ae, true);
 			if (localOps != null) {
-				return localOps;
+				ops = localOps;
 			}
 		}
+		if (ops != null && ops.size() > 1 && ops.stream().anyMatch(op -> op instanceof BatchCacheableOperation)) {
+			throw new IllegalStateException("Invalid cache annotation configuration on '" +
+					ae.toString() + "'. @BatchCacheable cannot be combined with other cache operations.");
+		}
 		return ops;
 	}
 
@@ -105,6 +111,8 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		final Collection<CacheOperation> ops = new ArrayList<>(1);
 		anns.stream().filter(ann -> ann instanceof Cacheable).forEach(
 				ann -> ops.add(parseCacheableAnnotation(ae, cachingConfig, (Cacheable) ann)));
+		anns.stream().filter(ann -> ann instanceof BatchCacheable).forEach(
+				ann -> ops.add(parseBatchCacheableAnnotation(ae, cachingConfig, (BatchCacheable) ann)));
 		anns.stream().filter(ann -> ann instanceof CacheEvict).forEach(
 				ann -> ops.add(parseEvictAnnotation(ae, cachingConfig, (CacheEvict) ann)));
 		anns.stream().filter(ann -> ann instanceof CachePut).forEach(
@@ -136,6 +144,24 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		return op;
 	}
 
+	private BatchCacheableOperation parseBatchCacheableAnnotation(
+			AnnotatedElement ae, DefaultCacheConfig defaultConfig, BatchCacheable batchCacheable) {
+
+		BatchCacheableOperation.Builder builder = new BatchCacheableOperation.Builder();
+
+		builder.setName(ae.toString());
+		builder.setCacheNames(batchCacheable.cacheNames());
+		builder.setCondition(batchCacheable.condition());
+		builder.setCacheManager(batchCacheable.cacheManager());
+		builder.setCacheResolver(batchCacheable.cacheResolver());
+
+		defaultConfig.applyDefault(builder);
+		BatchCacheableOperation op = builder.build();
+		validateCacheOperation(ae, op);
+
+		return op;
+	}
+
 	private CacheEvictOperation parseEvictAnnotation(
 			AnnotatedElement ae, DefaultCacheConfig defaultConfig, CacheEvict cacheEvict) {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,12 @@
 
 package org.springframework.cache.interceptor;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.springframework.cache.Cache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.function.SingletonSupplier;
@@ -78,6 +84,50 @@ public abstract class AbstractCacheInvoker {
 		}
 	}
 
+	/**
+	 * Execute {@link Cache#retrieve(Object)} on the specified {@link Cache} and
+	 * invoke the error handler if an exception occurs, be it right away or through
+	 * the returned future. The future completes with {@code null} if the handler
+	 * does not throw any exception, which simulates a cache miss in case of error.
+	 * @since 5.3.7
+	 * @see Cache#retrieve(Object)
+	 */
+	protected CompletableFuture<Cache.ValueWrapper> doRetrieve(Cache cache, Object key) {
+		CompletableFuture<Cache.ValueWrapper> future;
+		try {
+			future = cache.retrieve(key);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCacheGetError(ex, cache, key);
+			return CompletableFuture.completedFuture(null);  // If the exception is handled, return a cache miss
+		}
+		return future.handle((wrapper, ex) -> {
+			if (ex != null) {
+				getErrorHandler().handleCacheGetError(toRuntimeException(ex), cache, key);
+				return null;  // If the exception is handled, return a cache miss
+			}
+			return wrapper;
+		});
+	}
+
+	/**
+	 * Execute {@link Cache#getAll(Collection)} on the specified {@link Cache}
+	 * and invoke the error handler if an exception occurs, passing the
+	 * collection of keys as the key. Return an empty map if the handler does
+	 * not throw any exception, which simulates a cache miss for all keys.
+	 * @since 5.3.7
+	 * @see Cache#getAll(Collection)
+	 */
+	protected Map<Object, Cache.ValueWrapper> doGetAll(Cache cache, Collection<?> keys) {
+		try {
+			return cache.getAll(keys);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCacheGetError(ex, cache, keys);
+			return Collections.emptyMap();  // If the exception is handled, return a cache miss
+		}
+	}
+
 	/**
 	 * Execute {@link Cache#put(Object, Object)} on the specified {@link Cache}
 	 * and invoke the error handler if an exception occurs.
@@ -91,6 +141,45 @@ public abstract class AbstractCacheInvoker {
 		}
 	}
 
+	/**
+	 * Execute {@link Cache#store(Object, Object)} on the specified {@link Cache}
+	 * and invoke the error handler if an exception occurs, be it right away or
+	 * through the returned future.
+	 * @since 5.3.7
+	 * @see Cache#store(Object, Object)
+	 */
+	protected CompletableFuture<Void> doStore(Cache cache, Object key, @Nullable Object result) {
+		CompletableFuture<Void> future;
+		try {
+			future = cache.store(key, result);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCachePutError(ex, cache, key, result);
+			return CompletableFuture.completedFuture(null);
+		}
+		return future.handle((value, ex) -> {
+			if (ex != null) {
+				getErrorHandler().handleCachePutError(toRuntimeException(ex), cache, key, result);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Execute {@link Cache#putAll(Map)} on the specified {@link Cache} and
+	 * invoke the error handler if an exception occurs, passing the collection
+	 * of keys as the key and the map of entries as the value.
+	 * @since 5.3.7
+	 */
+	protected void doPutAll(Cache cache, Map<?, ?> entries) {
+		try {
+			cache.putAll(entries);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCachePutError(ex, cache, entries.keySet(), entries);
+		}
+	}
+
 	/**
 	 * Execute {@link Cache#evict(Object)}/{@link Cache#evictIfPresent(Object)} on the
 	 * specified {@link Cache} and invoke the error handler if an exception occurs.
@@ -127,4 +216,9 @@ public abstract class AbstractCacheInvoker {
 		}
 	}
 
+	private static RuntimeException toRuntimeException(Throwable ex) {
+		Throwable cause = (ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+		return (cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause));
+	}
+
 }
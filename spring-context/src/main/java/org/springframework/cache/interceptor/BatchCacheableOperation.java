@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+/**
+ * Class describing a cache 'batch cacheable' operation, caching the values
+ * of a method per element of its collection argument.
+ *
+ * @since 5.3.7
+ * @see org.springframework.cache.annotation.BatchCacheable
+ */
+public class BatchCacheableOperation extends CacheOperation {
+
+	/**
+	 * Create a new {@link BatchCacheableOperation} instance from the given builder.
+	 */
+	public BatchCacheableOperation(BatchCacheableOperation.Builder b) {
+		super(b);
+	}
+
+
+	/**
+	 * A builder that can be used to create a {@link BatchCacheableOperation}.
+	 */
+	public static class Builder extends CacheOperation.Builder {
+
+		@Override
+		public BatchCacheableOperation build() {
+			return new BatchCacheableOperation(this);
+		}
+	}
+
+}
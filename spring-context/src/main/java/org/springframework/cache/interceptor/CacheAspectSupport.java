@@ -21,14 +21,25 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -43,6 +54,9 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -83,12 +97,21 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Flux", CacheAspectSupport.class.getClassLoader());
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
 
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	@Nullable
+	private final ReactiveCachingHandler reactiveCachingHandler = (reactorPresent ? new ReactiveCachingHandler() : null);
+
+	private final Map<SimpleKey, InFlightInvocation> inFlightInvocations = new ConcurrentHashMap<>(16);
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -342,7 +365,18 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			if (cacheOperationSource != null) {
 				Collection<CacheOperation> operations = cacheOperationSource.getCacheOperations(method, targetClass);
 				if (!CollectionUtils.isEmpty(operations)) {
-					return execute(invoker, method,
+					if (operations.size() == 1) {
+						CacheOperation operation = operations.iterator().next();
+						if (operation instanceof BatchCacheableOperation) {
+							return executeBatchCacheable(invoker, method, args,
+									getOperationContext(operation, method, args, target, targetClass));
+						}
+						if (operation instanceof CacheableOperation && !((CacheableOperation) operation).isSync()) {
+							return executeCacheable(invoker,
+									getOperationContext(operation, method, args, target, targetClass));
+						}
+					}
+					return execute(invoker,
 							new CacheOperationContexts(operations, method, args, target, targetClass));
 				}
 			}
@@ -371,7 +405,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	}
 
 	@Nullable
-	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+	private Object execute(final CacheOperationInvoker invoker, CacheOperationContexts contexts) {
+		CacheOperationMetadata metadata = contexts.getMetadata();
 		// Special handling of synchronized invocation
 		if (contexts.isSynchronized()) {
 			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
@@ -379,7 +414,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
 				Cache cache = context.getCaches().iterator().next();
 				try {
-					return wrapCacheValue(method, handleSynchronizedGet(invoker, key, cache));
+					return wrapCacheValue(metadata, handleSynchronizedGet(invoker, key, cache));
 				}
 				catch (Cache.ValueRetrievalException ex) {
 					// Directly propagate ThrowableWrapper from the invoker,
@@ -414,14 +449,26 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		if (cacheHit != null && !hasCachePut(contexts)) {
 			// If there are no put requests, just use the cache hit
 			cacheValue = cacheHit.get();
-			returnValue = wrapCacheValue(method, cacheValue);
+			returnValue = wrapCacheValue(metadata, cacheValue);
 		}
 		else {
 			// Invoke the method if we don't have a cache hit
 			returnValue = invokeOperation(invoker);
+			if (returnValue != null && metadata.isAsyncReturnType()) {
+				// Perform puts and late evictions once the actual value is available
+				return processAsyncResult(returnValue,
+						asyncValue -> processCachePutsAndEvicts(contexts, cachePutRequests, asyncValue));
+			}
 			cacheValue = unwrapReturnValue(returnValue);
 		}
 
+		processCachePutsAndEvicts(contexts, cachePutRequests, cacheValue);
+		return returnValue;
+	}
+
+	private void processCachePutsAndEvicts(CacheOperationContexts contexts,
+			List<CachePutRequest> cachePutRequests, @Nullable Object cacheValue) {
+
 		// Collect any explicit @CachePuts
 		collectPutRequests(contexts.get(CachePutOperation.class), cacheValue, cachePutRequests);
 
@@ -432,10 +479,257 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		// Process any late evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), false, cacheValue);
+	}
 
+	/**
+	 * Execute a single, non-synchronized {@link CacheableOperation}: the common case
+	 * that does not need the intermediate collections of the general algorithm.
+	 */
+	@Nullable
+	private Object executeCacheable(CacheOperationInvoker invoker, CacheOperationContext context) {
+		CacheOperationMetadata metadata = context.metadata;
+		Object key = null;
+		if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+			if (metadata.futureReturnType) {
+				return executeFutureCacheable(invoker, context, key);
+			}
+			Cache.ValueWrapper cacheHit = findInCaches(context, key);
+			if (cacheHit != null) {
+				return wrapCacheValue(metadata, cacheHit.get());
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("No cache entry for key '" + key + "' in cache(s) " + context.getCacheNames());
+			}
+		}
+
+		Object returnValue = invokeOperation(invoker);
+		if (key != null) {
+			CachePutRequest putRequest = new CachePutRequest(context, key);
+			if (returnValue != null && metadata.isAsyncReturnType()) {
+				return processAsyncResult(returnValue, putRequest::apply);
+			}
+			putRequest.apply(unwrapReturnValue(returnValue));
+		}
 		return returnValue;
 	}
 
+	/**
+	 * Execute a {@link BatchCacheableOperation}: look up all elements of the
+	 * collection argument at once, invoke the method for the missing elements
+	 * only, and merge cached and loaded values in the order of the elements.
+	 */
+	@Nullable
+	private Object executeBatchCacheable(CacheOperationInvoker invoker, Method method, Object[] args,
+			CacheOperationContext context) {
+
+		if (!(invoker instanceof ArgumentReplacingInvoker)) {
+			throw new IllegalStateException("@BatchCacheable requires an invocation whose arguments " +
+					"can be replaced, as provided by proxy-based caching, on '" + method + "'");
+		}
+		if (context.getCaches().size() > 1) {
+			throw new IllegalStateException(
+					"@BatchCacheable only allows a single cache on '" + context.metadata.operation + "'");
+		}
+
+		int index = context.metadata.batchParameterIndex;
+		Collection<?> elements = (Collection<?>) args[index];
+		if (CollectionUtils.isEmpty(elements) ||
+				!isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			return invokeOperation(invoker);
+		}
+
+		Cache cache = context.getCaches().iterator().next();
+		Map<Object, Cache.ValueWrapper> cacheHits = doGetAll(cache, elements);
+		Map<Object, Object> values = new HashMap<>(elements.size() * 2);
+		Collection<Object> missingElements = new LinkedHashSet<>();
+		for (Object element : elements) {
+			Cache.ValueWrapper cacheHit = cacheHits.get(element);
+			if (cacheHit != null) {
+				values.put(element, cacheHit.get());
+			}
+			else {
+				missingElements.add(element);
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace(values.size() + " of " + elements.size() + " element(s) found in cache(s) " +
+					context.getCacheNames() + ", invoking " + method + " for the others");
+		}
+
+		if (!missingElements.isEmpty()) {
+			Collection<Object> elementsToLoad = CollectionFactory.createCollection(
+					context.metadata.batchParameterType, missingElements.size());
+			elementsToLoad.addAll(missingElements);
+			Object[] narrowedArgs = args.clone();
+			narrowedArgs[index] = elementsToLoad;
+			Object returnValue = ((ArgumentReplacingInvoker) invoker).invoke(narrowedArgs);
+			Map<Object, Object> loadedValues = new HashMap<>(missingElements.size() * 2);
+			if (returnValue instanceof Map) {
+				((Map<?, ?>) returnValue).forEach((element, value) -> {
+					if (missingElements.contains(element)) {
+						loadedValues.put(element, value);
+					}
+				});
+			}
+			else if (returnValue instanceof Collection) {
+				Collection<?> returnedValues = (Collection<?>) returnValue;
+				if (returnedValues.size() != missingElements.size()) {
+					throw new IllegalStateException("Expected " + missingElements.size() + " value(s) from '" +
+							method + "' for elements " + missingElements + " but got " + returnedValues.size());
+				}
+				Iterator<?> it = returnedValues.iterator();
+				for (Object element : missingElements) {
+					Object value = it.next();
+					if (value != null) {
+						loadedValues.put(element, value);
+					}
+				}
+			}
+			if (!loadedValues.isEmpty()) {
+				doPutAll(cache, loadedValues);
+			}
+			values.putAll(loadedValues);
+		}
+
+		Class<?> returnType = method.getReturnType();
+		if (Map.class.isAssignableFrom(returnType)) {
+			Map<Object, Object> result = CollectionFactory.createMap(returnType, elements.size());
+			for (Object element : elements) {
+				if (values.containsKey(element)) {
+					result.put(element, values.get(element));
+				}
+			}
+			return result;
+		}
+		// Positional result: a plain Collection or List must keep duplicates and nulls,
+		// as opposed to the LinkedHashSet that CollectionFactory creates for Collection
+		Collection<Object> result = (returnType.isAssignableFrom(ArrayList.class) ?
+				new ArrayList<>(elements.size()) : CollectionFactory.createCollection(returnType, elements.size()));
+		for (Object element : elements) {
+			result.add(values.get(element));
+		}
+		return result;
+	}
+
+	/**
+	 * Execute a {@link CacheableOperation} for a method returning a
+	 * {@link CompletableFuture}, looking up the key through {@link Cache#retrieve}
+	 * and invoking the method on a miss. A lookup that completes right away, as
+	 * with the default {@code retrieve} implementation, is processed on the
+	 * calling thread, just like for any other return type.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Object executeFutureCacheable(CacheOperationInvoker invoker, CacheOperationContext context, Object key) {
+		CompletableFuture<Cache.ValueWrapper> lookup = retrieveFromCaches(context, key);
+		if (lookup.isDone()) {
+			Cache.ValueWrapper cacheHit;
+			try {
+				cacheHit = lookup.join();
+			}
+			catch (CompletionException ex) {
+				// Rethrow what the CacheErrorHandler threw, as for a synchronous lookup
+				ReflectionUtils.rethrowRuntimeException(ex.getCause());
+				throw ex;
+			}
+			return (cacheHit != null ? wrapCacheValue(context.metadata, cacheHit.get()) :
+					executeCoalesced(invoker, context, key));
+		}
+		return lookup.thenCompose(cacheHit -> {
+			if (cacheHit != null) {
+				return (CompletionStage<Object>) wrapCacheValue(context.metadata, cacheHit.get());
+			}
+			CompletableFuture<Object> result = executeCoalesced(invoker, context, key);
+			return (result != null ? result : CompletableFuture.completedFuture(null));
+		});
+	}
+
+	private CompletableFuture<Cache.ValueWrapper> retrieveFromCaches(CacheOperationContext context, Object key) {
+		CompletableFuture<Cache.ValueWrapper> lookup = CompletableFuture.completedFuture(null);
+		for (Cache cache : context.getCaches()) {
+			lookup = lookup.thenCompose(wrapper -> {
+				if (wrapper != null) {
+					return CompletableFuture.completedFuture(wrapper);
+				}
+				return doRetrieve(cache, key).thenApply(cacheHit -> {
+					if (cacheHit != null && logger.isTraceEnabled()) {
+						logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
+					}
+					return cacheHit;
+				});
+			});
+		}
+		return lookup;
+	}
+
+	/**
+	 * Execute a {@link CacheableOperation} on a cache miss for a method returning
+	 * a {@link CompletableFuture}, sharing a single invocation between all callers
+	 * missing the same key at the same time. The value that the future completes
+	 * with gets stored through {@link Cache#store}, rather than the future itself.
+	 * <p>Each caller receives a future of its own. Cancelling it does not affect
+	 * the other callers; once all callers have cancelled their futures, the future
+	 * returned by the method gets cancelled as well.
+	 */
+	@Nullable
+	private CompletableFuture<Object> executeCoalesced(
+			CacheOperationInvoker invoker, CacheOperationContext context, Object key) {
+
+		SimpleKey inFlightKey = new SimpleKey(context.metadata, key);
+		InFlightInvocation invocation = new InFlightInvocation(
+				inFlight -> this.inFlightInvocations.remove(inFlightKey, inFlight));
+		// Join before publishing, so that callers joining later cannot cancel it for this caller
+		CompletableFuture<Object> result = invocation.join();
+		Assert.state(result != null, "No future for new in-flight invocation");
+		InFlightInvocation inFlight;
+		while ((inFlight = this.inFlightInvocations.putIfAbsent(inFlightKey, invocation)) != null) {
+			CompletableFuture<Object> joined = inFlight.join();
+			if (joined != null) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Joining in-flight invocation for key '" + key + "' on method " + context.metadata.method);
+				}
+				return joined;
+			}
+			// Cancelled by all of its callers in the meantime
+			this.inFlightInvocations.remove(inFlightKey, inFlight);
+		}
+
+		Object returnValue;
+		try {
+			returnValue = invokeOperation(invoker);
+		}
+		catch (RuntimeException | Error ex) {
+			invocation.complete(null, ex instanceof CacheOperationInvoker.ThrowableWrapper ?
+					((CacheOperationInvoker.ThrowableWrapper) ex).getOriginal() : ex);
+			throw ex;
+		}
+		if (returnValue == null) {
+			invocation.complete(null, null);
+			return null;
+		}
+
+		CompletionStage<?> stage = (CompletionStage<?>) returnValue;
+		invocation.setInvocation(stage);
+		CachePutRequest putRequest = new CachePutRequest(context, key);
+		stage.whenComplete((value, ex) -> {
+			if (ex != null) {
+				invocation.complete(null, ex);
+				return;
+			}
+			CompletableFuture<Void> store;
+			try {
+				store = putRequest.applyAsync(value);
+			}
+			catch (Throwable putEx) {
+				invocation.complete(null, putEx);
+				return;
+			}
+			store.whenComplete((stored, putEx) -> invocation.complete(value, putEx));
+		});
+		return result;
+	}
+
 	@Nullable
 	private Object handleSynchronizedGet(CacheOperationInvoker invoker, Object key, Cache cache) {
 		InvocationAwareResult invocationResult = new InvocationAwareResult();
@@ -453,8 +747,15 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	}
 
 	@Nullable
-	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
-		if (method.getReturnType() == Optional.class &&
+	private Object wrapCacheValue(CacheOperationMetadata metadata, @Nullable Object cacheValue) {
+		if (metadata.futureReturnType && !(cacheValue instanceof CompletionStage)) {
+			return CompletableFuture.completedFuture(cacheValue);
+		}
+		if (metadata.reactiveReturnType && !(cacheValue instanceof Publisher)) {
+			Assert.state(this.reactiveCachingHandler != null, "No ReactiveCachingHandler");
+			return this.reactiveCachingHandler.fromCachedValue(metadata.method.getReturnType(), cacheValue);
+		}
+		if (metadata.method.getReturnType() == Optional.class &&
 				(cacheValue == null || cacheValue.getClass() != Optional.class)) {
 			return Optional.ofNullable(cacheValue);
 		}
@@ -466,6 +767,21 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return ObjectUtils.unwrapOptional(returnValue);
 	}
 
+	/**
+	 * Decorate the given asynchronous return value so that the given handler
+	 * is called with the actual value, once available.
+	 */
+	private Object processAsyncResult(Object returnValue, Consumer<Object> valueHandler) {
+		if (returnValue instanceof CompletionStage) {
+			return ((CompletionStage<?>) returnValue).thenApply(value -> {
+				valueHandler.accept(value);
+				return value;
+			});
+		}
+		Assert.state(this.reactiveCachingHandler != null, "No ReactiveCachingHandler");
+		return this.reactiveCachingHandler.processResult(returnValue, valueHandler);
+	}
+
 	private boolean hasCachePut(CacheOperationContexts contexts) {
 		// Evaluate the conditions *without* the result object because we don't have it yet...
 		Collection<CacheOperationContext> cachePutContexts = contexts.get(CachePutOperation.class);
@@ -605,14 +921,28 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final MultiValueMap<Class<? extends CacheOperation>, CacheOperationContext> contexts;
 
+		// All operations are declared on the same method, so share its return type information
+		private final CacheOperationMetadata metadata;
+
 		private final boolean sync;
 
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
 			this.contexts = new LinkedMultiValueMap<>(operations.size());
+			CacheOperationMetadata metadata = null;
 			for (CacheOperation op : operations) {
-				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
+				CacheOperationContext context = getOperationContext(op, method, args, target, targetClass);
+				this.contexts.add(op.getClass(), context);
+				if (metadata == null) {
+					metadata = context.metadata;
+				}
+			}
+			Assert.state(metadata != null, "No cache operations");
+			this.metadata = metadata;
+			if (this.contexts.containsKey(BatchCacheableOperation.class)) {
+				throw new IllegalStateException(
+						"@BatchCacheable cannot be combined with other cache operations on '" + method + "'");
 			}
 			this.sync = determineSyncFlag(method);
 		}
@@ -622,6 +952,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return (result != null ? result : Collections.emptyList());
 		}
 
+		public CacheOperationMetadata getMetadata() {
+			return this.metadata;
+		}
+
 		public boolean isSynchronized() {
 			return this.sync;
 		}
@@ -657,6 +991,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 					throw new IllegalStateException(
 							"@Cacheable(sync=true) does not support unless attribute on '" + operation + "'");
 				}
+				if (this.metadata.isAsyncReturnType()) {
+					throw new IllegalStateException(
+							"@Cacheable(sync=true) does not support asynchronous return types on '" + method + "'");
+				}
 				return true;
 			}
 			return false;
@@ -684,6 +1022,18 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final CacheResolver cacheResolver;
 
+		// Whether the method returns a CompletableFuture or CompletionStage
+		private final boolean futureReturnType;
+
+		// Whether the method returns a Reactor-adaptable type that emits values
+		private final boolean reactiveReturnType;
+
+		// Index and type of the Collection parameter for a BatchCacheableOperation
+		private final int batchParameterIndex;
+
+		@Nullable
+		private final Class<?> batchParameterType;
+
 		public CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
 				KeyGenerator keyGenerator, CacheResolver cacheResolver) {
 
@@ -695,6 +1045,35 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.methodKey = new AnnotatedElementKey(this.targetMethod, targetClass);
 			this.keyGenerator = keyGenerator;
 			this.cacheResolver = cacheResolver;
+			Class<?> returnType = method.getReturnType();
+			this.futureReturnType = (returnType == CompletableFuture.class || returnType == CompletionStage.class);
+			this.reactiveReturnType = (reactorPresent && ReactiveCachingHandler.isReactiveType(returnType));
+			this.batchParameterIndex = (operation instanceof BatchCacheableOperation ?
+					determineBatchParameterIndex(this.method) : -1);
+			this.batchParameterType = (this.batchParameterIndex != -1 ?
+					this.method.getParameterTypes()[this.batchParameterIndex] : null);
+		}
+
+		private static int determineBatchParameterIndex(Method method) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			Class<?> returnType = method.getReturnType();
+			if (Map.class.isAssignableFrom(returnType) || Collection.class.isAssignableFrom(returnType)) {
+				for (int i = 0; i < parameterTypes.length; i++) {
+					if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+						return i;
+					}
+				}
+			}
+			throw new IllegalStateException("@BatchCacheable requires a Collection parameter and " +
+					"a Map or Collection return type on '" + method + "'");
+		}
+
+		/**
+		 * Determine whether the method returns its result asynchronously, in which
+		 * case the value it completes with gets cached, not the return value.
+		 */
+		private boolean isAsyncReturnType() {
+			return (this.futureReturnType || this.reactiveReturnType);
 		}
 	}
 
@@ -712,7 +1091,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final Collection<? extends Cache> caches;
 
-		private final Collection<String> cacheNames;
+		@Nullable
+		private Collection<String> cacheNames;
 
 		@Nullable
 		private Boolean conditionPassing;
@@ -722,7 +1102,6 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.args = extractArgs(metadata.method, args);
 			this.target = target;
 			this.caches = CacheAspectSupport.this.getCaches(this, metadata.cacheResolver);
-			this.cacheNames = createCacheNames(this.caches);
 		}
 
 		@Override
@@ -807,7 +1186,13 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 
 		protected Collection<String> getCacheNames() {
-			return this.cacheNames;
+			Collection<String> cacheNames = this.cacheNames;
+			if (cacheNames == null) {
+				// Only needed for logging, so only built on demand
+				cacheNames = createCacheNames(this.caches);
+				this.cacheNames = cacheNames;
+			}
+			return cacheNames;
 		}
 
 		private Collection<String> createCacheNames(Collection<? extends Cache> caches) {
@@ -838,6 +1223,94 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				}
 			}
 		}
+
+		public CompletableFuture<Void> applyAsync(@Nullable Object result) {
+			if (!this.context.canPutToCache(result)) {
+				return CompletableFuture.completedFuture(null);
+			}
+			Collection<? extends Cache> caches = this.context.getCaches();
+			CompletableFuture<?>[] stores = new CompletableFuture<?>[caches.size()];
+			int i = 0;
+			for (Cache cache : caches) {
+				stores[i++] = doStore(cache, this.key, result);
+			}
+			return CompletableFuture.allOf(stores);
+		}
+	}
+
+
+	/**
+	 * An invocation of a method returning a {@link CompletableFuture}, shared by
+	 * all callers that missed the same key while it was in flight. Each caller
+	 * gets a dependent future, and the invocation itself gets cancelled once
+	 * every caller has cancelled its future.
+	 */
+	private static class InFlightInvocation {
+
+		private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+		private final Consumer<InFlightInvocation> onDone;
+
+		// Number of callers with a pending future, or -1 once all of them cancelled
+		private int callers;
+
+		@Nullable
+		private Future<?> invocation;
+
+		InFlightInvocation(Consumer<InFlightInvocation> onDone) {
+			this.onDone = onDone;
+		}
+
+		/**
+		 * Return a future for a new caller, or {@code null} if all previous callers
+		 * have cancelled their futures already.
+		 */
+		@Nullable
+		synchronized CompletableFuture<Object> join() {
+			if (this.callers < 0) {
+				return null;
+			}
+			this.callers++;
+			CompletableFuture<Object> future = this.result.thenApply(value -> value);
+			future.whenComplete((value, ex) -> {
+				if (future.isCancelled()) {
+					cancel();
+				}
+			});
+			return future;
+		}
+
+		synchronized void setInvocation(CompletionStage<?> stage) {
+			if (stage instanceof Future) {
+				this.invocation = (Future<?>) stage;
+			}
+		}
+
+		void complete(@Nullable Object value, @Nullable Throwable ex) {
+			this.onDone.accept(this);
+			if (ex != null) {
+				this.result.completeExceptionally(ex);
+			}
+			else {
+				this.result.complete(value);
+			}
+		}
+
+		private void cancel() {
+			Future<?> invocation;
+			synchronized (this) {
+				if (--this.callers > 0 || this.result.isDone()) {
+					return;
+				}
+				this.callers = -1;
+				invocation = this.invocation;
+			}
+			this.onDone.accept(this);
+			this.result.cancel(false);
+			if (invocation != null) {
+				invocation.cancel(true);
+			}
+		}
 	}
 
 
@@ -885,6 +1358,66 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 	}
 
+	/**
+	 * Inner class to avoid a hard dependency on Reactor at runtime.
+	 * Single-value types are cached with the value they emit, multi-value
+	 * types with the list of all their elements.
+	 */
+	private static class ReactiveCachingHandler {
+
+		private final ReactiveAdapterRegistry registry = ReactiveAdapterRegistry.getSharedInstance();
+
+		public static boolean isReactiveType(Class<?> returnType) {
+			ReactiveAdapter adapter = ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnType);
+			return (adapter != null && !adapter.isNoValue());
+		}
+
+		public Object fromCachedValue(Class<?> returnType, @Nullable Object cacheValue) {
+			ReactiveAdapter adapter = getAdapter(returnType);
+			if (adapter.isMultiValue()) {
+				return adapter.fromPublisher(cacheValue instanceof Iterable ?
+						Flux.fromIterable((Iterable<?>) cacheValue) : Flux.justOrEmpty(cacheValue));
+			}
+			return adapter.fromPublisher(Mono.justOrEmpty(cacheValue));
+		}
+
+		public Object processResult(Object returnValue, Consumer<Object> valueHandler) {
+			ReactiveAdapter adapter = getAdapter(returnValue.getClass());
+			Publisher<Object> publisher = adapter.toPublisher(returnValue);
+			if (adapter.isMultiValue()) {
+				return adapter.fromPublisher(Flux.from(publisher).collectList()
+						.doOnNext(valueHandler).flatMapMany(Flux::fromIterable));
+			}
+			return adapter.fromPublisher(Mono.from(publisher).doOnNext(valueHandler));
+		}
+
+		private ReactiveAdapter getAdapter(Class<?> reactiveType) {
+			ReactiveAdapter adapter = this.registry.getAdapter(reactiveType);
+			Assert.state(adapter != null, () -> "No ReactiveAdapter for " + reactiveType);
+			return adapter;
+		}
+	}
+
+
+	/**
+	 * A {@link CacheOperationInvoker} that can invoke the underlying method with
+	 * replaced arguments, leaving the arguments of the original invocation
+	 * untouched. Required for {@link BatchCacheableOperation}s.
+	 * @see CacheInterceptor
+	 */
+	interface ArgumentReplacingInvoker extends CacheOperationInvoker {
+
+		/**
+		 * Invoke the underlying method with the given arguments.
+		 * @param arguments the arguments to use instead of the original ones
+		 * @return the result of the operation
+		 * @throws ThrowableWrapper if an error occurred while invoking the operation
+		 */
+		@Nullable
+		Object invoke(Object[] arguments) throws ThrowableWrapper;
+	}
+
+
 	/**
 	 * Internal holder class for recording that a cache method was invoked.
 	 */
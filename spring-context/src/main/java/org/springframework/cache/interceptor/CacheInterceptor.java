@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
+import org.springframework.aop.ProxyMethodInvocation;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -49,14 +50,15 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		Method method = invocation.getMethod();
 
-		CacheOperationInvoker aopAllianceInvoker = () -> {
-			try {
-				return invocation.proceed();
-			}
-			catch (Throwable ex) {
-				throw new CacheOperationInvoker.ThrowableWrapper(ex);
-			}
-		};
+		CacheOperationInvoker aopAllianceInvoker = (invocation instanceof ProxyMethodInvocation ?
+				new ProxyMethodInvocationInvoker((ProxyMethodInvocation) invocation) : () -> {
+					try {
+						return invocation.proceed();
+					}
+					catch (Throwable ex) {
+						throw new CacheOperationInvoker.ThrowableWrapper(ex);
+					}
+				});
 
 		Object target = invocation.getThis();
 		Assert.state(target != null, "Target must not be null");
@@ -68,4 +70,40 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 		}
 	}
 
+
+	/**
+	 * Invoker for a {@link ProxyMethodInvocation}, invoking the remaining
+	 * interceptor chain on a clone of the invocation for replaced arguments.
+	 */
+	private static class ProxyMethodInvocationInvoker implements ArgumentReplacingInvoker {
+
+		private final ProxyMethodInvocation invocation;
+
+		public ProxyMethodInvocationInvoker(ProxyMethodInvocation invocation) {
+			this.invocation = invocation;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke() {
+			try {
+				return this.invocation.proceed();
+			}
+			catch (Throwable ex) {
+				throw new ThrowableWrapper(ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object[] arguments) {
+			try {
+				return this.invocation.invocableClone(arguments).proceed();
+			}
+			catch (Throwable ex) {
+				throw new ThrowableWrapper(ex);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Channel propagating cache invalidations between several nodes that keep
+ * local copies of shared cache entries, as used by {@link TwoLevelCacheManager}.
+ *
+ * <p>Implementations typically broadcast through a messaging system, publishing
+ * to a topic that every node subscribes to. Nodes may receive their own
+ * invalidations as well: a local copy is evicted before the invalidation
+ * is published, so this is harmless apart from an additional cache miss.
+ *
+ * @since 5.3.7
+ * @see LoopbackCacheInvalidationChannel
+ */
+public interface CacheInvalidationChannel {
+
+	/**
+	 * Publish an invalidation to all subscribed nodes.
+	 * @param cacheName the name of the affected cache
+	 * @param key the invalidated key, or {@code null} if the entire cache has been cleared
+	 */
+	void publish(String cacheName, @Nullable Object key);
+
+	/**
+	 * Subscribe the given listener to invalidations published by any node.
+	 * @param listener the listener to notify
+	 */
+	void subscribe(InvalidationListener listener);
+
+
+	/**
+	 * Callback interface for invalidations received through a channel.
+	 */
+	@FunctionalInterface
+	interface InvalidationListener {
+
+		/**
+		 * Handle an invalidation.
+		 * @param cacheName the name of the affected cache
+		 * @param key the invalidated key, or {@code null} if the entire cache has been cleared
+		 */
+		void onInvalidation(String cacheName, @Nullable Object key);
+	}
+
+}
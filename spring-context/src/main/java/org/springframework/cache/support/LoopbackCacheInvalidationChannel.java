@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * In-JVM {@link CacheInvalidationChannel} that synchronously notifies all
+ * subscribed listeners of every invalidation.
+ *
+ * <p>Useful for tests as well as for several {@link TwoLevelCacheManager}
+ * instances sharing a target cache within the same JVM.
+ *
+ * @since 5.3.7
+ */
+public class LoopbackCacheInvalidationChannel implements CacheInvalidationChannel {
+
+	private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+
+	@Override
+	public void publish(String cacheName, @Nullable Object key) {
+		for (InvalidationListener listener : this.listeners) {
+			listener.onInvalidation(cacheName, key);
+		}
+	}
+
+	@Override
+	public void subscribe(InvalidationListener listener) {
+		Assert.notNull(listener, "InvalidationListener must not be null");
+		this.listeners.add(listener);
+	}
+
+}
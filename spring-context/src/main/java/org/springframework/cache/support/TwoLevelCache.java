@@ -0,0 +1,320 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Cache} implementation that keeps a bounded local copy of the entries
+ * of a target cache, typically a remote or otherwise shared cache.
+ *
+ * <p>Reads are served from the local copy when possible and read through to the
+ * target cache otherwise, with concurrent reads of the same missing key coalesced
+ * into a single target cache lookup. Only reads populate the local copy. Writes
+ * go to the target cache and invalidate the local copy, with the invalidation
+ * published through a {@link CacheInvalidationChannel} (if any) so that other
+ * nodes drop their local copies of the affected entries as well.
+ *
+ * <p>The local copy holds at most the configured number of entries. Once that
+ * size is exceeded, the least recently used entry is dropped. Hit and miss
+ * counts are exposed for both levels.
+ *
+ * @since 5.3.7
+ * @see TwoLevelCacheManager
+ */
+public class TwoLevelCache implements Cache {
+
+	private final Cache targetCache;
+
+	@Nullable
+	private final CacheInvalidationChannel invalidationChannel;
+
+	// Access-ordered, guarded by itself
+	private final Map<Object, ValueWrapper> localCache;
+
+	private final Map<Object, CompletableFuture<ValueWrapper>> pendingLoads = new ConcurrentHashMap<>(16);
+
+	// Incremented on every invalidation, to detect loads that raced with one
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	private final LongAdder localHits = new LongAdder();
+
+	private final LongAdder localMisses = new LongAdder();
+
+	private final LongAdder targetHits = new LongAdder();
+
+	private final LongAdder targetMisses = new LongAdder();
+
+
+	/**
+	 * Create a new TwoLevelCache for the given target cache.
+	 * @param targetCache the target cache to keep a local copy of
+	 * @param maximumLocalSize the maximum number of entries in the local copy
+	 * @param invalidationChannel the channel to publish invalidations to
+	 * (may be {@code null} if there is only one node)
+	 */
+	public TwoLevelCache(Cache targetCache, int maximumLocalSize,
+			@Nullable CacheInvalidationChannel invalidationChannel) {
+
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.isTrue(maximumLocalSize > 0, "Maximum local size must be greater than 0");
+		this.targetCache = targetCache;
+		this.invalidationChannel = invalidationChannel;
+		this.localCache = new LinkedHashMap<Object, ValueWrapper>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, ValueWrapper> eldest) {
+				return (size() > maximumLocalSize);
+			}
+		};
+	}
+
+
+	/**
+	 * Return the target Cache that this Cache keeps a local copy of.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	@Override
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		ValueWrapper localValue = getLocal(key);
+		if (localValue != null) {
+			this.localHits.increment();
+			return localValue;
+		}
+		this.localMisses.increment();
+		return loadFromTarget(key);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = (wrapper != null ? wrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper localValue = getLocal(key);
+		if (localValue != null) {
+			this.localHits.increment();
+			return (T) localValue.get();
+		}
+		this.localMisses.increment();
+		long invalidations = this.invalidationCount.get();
+		T value = this.targetCache.get(key, valueLoader);
+		putLocal(key, new SimpleValueWrapper(value), invalidations);
+		return value;
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.targetCache.put(key, value);
+		// Don't populate the local copy here: a concurrent put might have reached the
+		// target cache in between, so only a subsequent read can tell the current value.
+		invalidate(key);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		ValueWrapper existingValue = this.targetCache.putIfAbsent(key, value);
+		invalidate(key);
+		return existingValue;
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.targetCache.evict(key);
+		invalidate(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean evicted = this.targetCache.evictIfPresent(key);
+		invalidate(key);
+		return evicted;
+	}
+
+	@Override
+	public void clear() {
+		this.targetCache.clear();
+		invalidate(null);
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean invalidated = this.targetCache.invalidate();
+		invalidate(null);
+		return invalidated;
+	}
+
+	/**
+	 * Drop the local copy of the given entry, or of all entries if the key is
+	 * {@code null}, without touching the target cache or notifying other nodes.
+	 * <p>Called for invalidations received through the {@link CacheInvalidationChannel}.
+	 * @param key the invalidated key, or {@code null} for the entire cache
+	 */
+	public void invalidateLocal(@Nullable Object key) {
+		this.invalidationCount.incrementAndGet();
+		synchronized (this.localCache) {
+			if (key != null) {
+				this.localCache.remove(key);
+			}
+			else {
+				this.localCache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Return the number of lookups served from the local copy.
+	 */
+	public long getLocalHitCount() {
+		return this.localHits.sum();
+	}
+
+	/**
+	 * Return the number of lookups not served from the local copy.
+	 */
+	public long getLocalMissCount() {
+		return this.localMisses.sum();
+	}
+
+	/**
+	 * Return the number of target cache lookups that found an entry.
+	 * <p>Lookups with a value loader are not included since the target
+	 * cache does not indicate whether it had to load the value.
+	 */
+	public long getTargetHitCount() {
+		return this.targetHits.sum();
+	}
+
+	/**
+	 * Return the number of target cache lookups that did not find an entry.
+	 */
+	public long getTargetMissCount() {
+		return this.targetMisses.sum();
+	}
+
+	/**
+	 * Return the current number of entries in the local copy.
+	 */
+	public int getLocalSize() {
+		synchronized (this.localCache) {
+			return this.localCache.size();
+		}
+	}
+
+
+	@Nullable
+	private ValueWrapper loadFromTarget(Object key) {
+		CompletableFuture<ValueWrapper> load = new CompletableFuture<>();
+		CompletableFuture<ValueWrapper> existingLoad = this.pendingLoads.putIfAbsent(key, load);
+		if (existingLoad != null) {
+			// Another thread is reading the same key from the target cache already
+			try {
+				return existingLoad.join();
+			}
+			catch (CompletionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw ex;
+			}
+		}
+
+		try {
+			long invalidations = this.invalidationCount.get();
+			ValueWrapper wrapper = this.targetCache.get(key);
+			if (wrapper != null) {
+				this.targetHits.increment();
+				putLocal(key, wrapper, invalidations);
+			}
+			else {
+				this.targetMisses.increment();
+			}
+			load.complete(wrapper);
+			return wrapper;
+		}
+		catch (RuntimeException | Error ex) {
+			load.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.pendingLoads.remove(key, load);
+		}
+	}
+
+	@Nullable
+	private ValueWrapper getLocal(Object key) {
+		synchronized (this.localCache) {
+			return this.localCache.get(key);
+		}
+	}
+
+	private void putLocal(Object key, ValueWrapper wrapper, long expectedInvalidations) {
+		synchronized (this.localCache) {
+			// If an invalidation came in while reading from the target cache, the value
+			// read may be stale already, so don't keep it. An invalidation coming in
+			// from now on removes the entry after this lock has been released.
+			if (this.invalidationCount.get() == expectedInvalidations) {
+				this.localCache.put(key, wrapper);
+			}
+		}
+	}
+
+	private void invalidate(@Nullable Object key) {
+		invalidateLocal(key);
+		if (this.invalidationChannel != null) {
+			this.invalidationChannel.publish(getName(), key);
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} that layers a bounded in-process cache over the caches
+ * of a target {@link CacheManager}, typically one for a remote or otherwise
+ * shared cache provider. Frequently read entries are then served without
+ * leaving the JVM.
+ *
+ * <p>The caches returned are {@link TwoLevelCache} instances, exposing hit and
+ * miss counts for both levels. Consistency across several nodes requires a
+ * {@link CacheInvalidationChannel} that all nodes share: each node publishes
+ * its writes to it and drops its local copies of entries written elsewhere.
+ *
+ * <p>The local cache for a given name is created on first access and keeps
+ * the target cache obtained at that point.
+ *
+ * @since 5.3.7
+ * @see #setTargetCacheManager
+ * @see #setInvalidationChannel
+ */
+public class TwoLevelCacheManager implements CacheManager, InitializingBean {
+
+	/** The default maximum number of entries in each local cache. */
+	public static final int DEFAULT_MAXIMUM_LOCAL_SIZE = 1000;
+
+
+	@Nullable
+	private CacheManager targetCacheManager;
+
+	private int maximumLocalSize = DEFAULT_MAXIMUM_LOCAL_SIZE;
+
+	@Nullable
+	private CacheInvalidationChannel invalidationChannel;
+
+	private final ConcurrentMap<String, TwoLevelCache> cacheMap = new ConcurrentHashMap<>(16);
+
+
+	/**
+	 * Create a new TwoLevelCacheManager, setting the target CacheManager
+	 * through the {@link #setTargetCacheManager} bean property.
+	 */
+	public TwoLevelCacheManager() {
+	}
+
+	/**
+	 * Create a new TwoLevelCacheManager for the given target CacheManager.
+	 * @param targetCacheManager the target CacheManager to layer local caches over
+	 */
+	public TwoLevelCacheManager(CacheManager targetCacheManager) {
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		this.targetCacheManager = targetCacheManager;
+	}
+
+
+	/**
+	 * Set the target CacheManager to layer local caches over.
+	 */
+	public void setTargetCacheManager(CacheManager targetCacheManager) {
+		this.targetCacheManager = targetCacheManager;
+	}
+
+	/**
+	 * Set the maximum number of entries that each local cache holds.
+	 * <p>Default is {@value #DEFAULT_MAXIMUM_LOCAL_SIZE}. Entries beyond that
+	 * size are dropped on a least-recently-used basis.
+	 */
+	public void setMaximumLocalSize(int maximumLocalSize) {
+		Assert.isTrue(maximumLocalSize > 0, "Maximum local size must be greater than 0");
+		this.maximumLocalSize = maximumLocalSize;
+	}
+
+	/**
+	 * Set the channel to propagate invalidations between nodes through.
+	 * <p>Without a channel, local caches only reflect writes of this node,
+	 * which is only appropriate if no other node writes to the target caches.
+	 */
+	public void setInvalidationChannel(CacheInvalidationChannel invalidationChannel) {
+		Assert.notNull(invalidationChannel, "CacheInvalidationChannel must not be null");
+		this.invalidationChannel = invalidationChannel;
+		invalidationChannel.subscribe(this::handleInvalidation);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.targetCacheManager == null) {
+			throw new IllegalArgumentException("Property 'targetCacheManager' is required");
+		}
+	}
+
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		Assert.state(this.targetCacheManager != null, "No target CacheManager set");
+		Cache targetCache = this.targetCacheManager.getCache(name);
+		if (targetCache == null) {
+			this.cacheMap.remove(name);
+			return null;
+		}
+		// Keyed by name only: target CacheManagers may return a new decorator for each call
+		return this.cacheMap.computeIfAbsent(name,
+				key -> new TwoLevelCache(targetCache, this.maximumLocalSize, this.invalidationChannel));
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		Assert.state(this.targetCacheManager != null, "No target CacheManager set");
+		return this.targetCacheManager.getCacheNames();
+	}
+
+	private void handleInvalidation(String cacheName, @Nullable Object key) {
+		TwoLevelCache cache = this.cacheMap.get(cacheName);
+		if (cache != null) {
+			cache.invalidateLocal(key);
+		}
+	}
+
+}
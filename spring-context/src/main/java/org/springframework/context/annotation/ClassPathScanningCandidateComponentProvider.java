@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +36,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -72,6 +74,9 @@ import org.springframework.util.ClassUtils;
  * <p>This implementation is based on Spring's
  * {@link org.springframework.core.type.classreading.MetadataReader MetadataReader}
  * facility, backed by an ASM {@link org.springframework.asm.ClassReader ClassReader}.
+ * With {@link #setParallelScanning parallel scanning} enabled, the class files
+ * found for a base package are parsed concurrently, while filters are applied
+ * and candidates are collected in their original order.
  *
  * @author Mark Fisher
  * @author Juergen Hoeller
@@ -88,6 +93,16 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that instructs Spring to parse candidate class files in
+	 * parallel by default, i.e. the default for {@link #setParallelScanning}.
+	 * <p>The default is "false". Switching this flag to {@code true} allows for
+	 * enabling parallel scanning for all component scans of an application,
+	 * including the ones driven by {@code @ComponentScan}.
+	 * @since 5.3.7
+	 */
+	public static final String PARALLEL_SCANNING_PROPERTY_NAME = "spring.context.parallel-scanning";
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -112,6 +127,8 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	private boolean parallelScanning = SpringProperties.getFlag(PARALLEL_SCANNING_PROPERTY_NAME);
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -302,6 +319,32 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	}
 
 
+	/**
+	 * Specify whether to parse the class files of a base package in parallel,
+	 * using the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+	 * <p>Only the reading of class metadata is parallelized: type filters and
+	 * conditions are still applied one candidate at a time, in the order in
+	 * which the class files have been found, so that the resulting candidates
+	 * (and therefore the bean registration order) are the same as for a
+	 * sequential scan. The {@link #setMetadataReaderFactory MetadataReaderFactory}
+	 * needs to be thread-safe, as is the default {@link CachingMetadataReaderFactory}.
+	 * <p>Default is "false", unless the {@value #PARALLEL_SCANNING_PROPERTY_NAME}
+	 * system property has been set to "true".
+	 * @since 5.3.7
+	 */
+	public void setParallelScanning(boolean parallelScanning) {
+		this.parallelScanning = parallelScanning;
+	}
+
+	/**
+	 * Return whether class files are parsed in parallel.
+	 * @since 5.3.7
+	 */
+	public boolean isParallelScanning() {
+		return this.parallelScanning;
+	}
+
+
 	/**
 	 * Scan the class path for candidate components.
 	 * @param basePackage the package to check for annotated classes
@@ -418,15 +461,21 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			MetadataReader[] metadataReaders = (this.parallelScanning && resources.length > 1 ?
+					readMetadataInParallel(resources) : null);
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
 				if (resource.isReadable()) {
 					try {
-						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						MetadataReader metadataReader = (metadataReaders != null ? metadataReaders[i] : null);
+						if (metadataReader == null) {
+							metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						}
 						if (isCandidateComponent(metadataReader)) {
 							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
 							sbd.setSource(resource);
@@ -466,6 +515,28 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Read the metadata for the given class file resources in parallel.
+	 * <p>A resource that cannot be read leaves a {@code null} element,
+	 * to be read again (and to report its failure) in the regular scan order.
+	 * Errors are not caught but propagate to the caller right away.
+	 * @param resources the class file resources
+	 * @return the corresponding MetadataReaders, in the same order
+	 */
+	private MetadataReader[] readMetadataInParallel(Resource[] resources) {
+		MetadataReaderFactory metadataReaderFactory = getMetadataReaderFactory();
+		MetadataReader[] metadataReaders = new MetadataReader[resources.length];
+		IntStream.range(0, resources.length).parallel().forEach(i -> {
+			try {
+				metadataReaders[i] = metadataReaderFactory.getMetadataReader(resources[i]);
+			}
+			catch (IOException | RuntimeException ex) {
+				// Leave null -> to be retried sequentially.
+			}
+		});
+		return metadataReaders;
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -18,6 +18,7 @@ package org.springframework.context.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,12 @@ import org.springframework.util.ObjectUtils;
  * ApplicationListener objects can be overridden through the "collectionClass"
  * bean property.
  *
+ * <p>Listener registrations are kept in copy-on-write fashion: registration methods
+ * replace the internal listener snapshot under a lock, while event publication reads
+ * the current snapshot without locking. Pre-filtered listener lists are cached per
+ * event type and source type as immutable dispatch tables, so that repeated
+ * publication of the same kind of event boils down to a single map lookup.
+ *
  * <p>Implementing ApplicationEventMulticaster's actual {@link #multicastEvent} method
  * is left to subclasses. {@link SimpleApplicationEventMulticaster} simply multicasts
  * all events to all registered listeners, invoking them in the calling thread.
@@ -106,10 +113,12 @@ public abstract class AbstractApplicationEventMulticaster
 			// Explicitly remove target for a proxy, if registered already,
 			// in order to avoid double invocations of the same listener.
 			Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
 			if (singletonTarget instanceof ApplicationListener) {
-				this.defaultRetriever.applicationListeners.remove(singletonTarget);
+				listeners.remove(singletonTarget);
 			}
-			this.defaultRetriever.applicationListeners.add(listener);
+			listeners.add(listener);
+			this.defaultRetriever.applicationListeners = listeners;
 			this.retrieverCache.clear();
 		}
 	}
@@ -117,7 +126,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.add(listenerBeanName);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 			this.retrieverCache.clear();
 		}
 	}
@@ -125,7 +136,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.remove(listener);
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
+			listeners.remove(listener);
+			this.defaultRetriever.applicationListeners = listeners;
 			this.retrieverCache.clear();
 		}
 	}
@@ -133,7 +146,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.remove(listenerBeanName);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 			this.retrieverCache.clear();
 		}
 	}
@@ -141,7 +156,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListeners(Predicate<ApplicationListener<?>> predicate) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.removeIf(predicate);
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
+			listeners.removeIf(predicate);
+			this.defaultRetriever.applicationListeners = listeners;
 			this.retrieverCache.clear();
 		}
 	}
@@ -149,7 +166,9 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeApplicationListenerBeans(Predicate<String> predicate) {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.removeIf(predicate);
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.removeIf(predicate);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 			this.retrieverCache.clear();
 		}
 	}
@@ -157,8 +176,8 @@ public abstract class AbstractApplicationEventMulticaster
 	@Override
 	public void removeAllListeners() {
 		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.clear();
-			this.defaultRetriever.applicationListenerBeans.clear();
+			this.defaultRetriever.applicationListeners = new LinkedHashSet<>();
+			this.defaultRetriever.applicationListenerBeans = new LinkedHashSet<>();
 			this.retrieverCache.clear();
 		}
 	}
@@ -170,9 +189,16 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners() {
-		synchronized (this.defaultRetriever) {
-			return this.defaultRetriever.getApplicationListeners();
-		}
+		return this.defaultRetriever.getApplicationListeners();
+	}
+
+	/**
+	 * Determine whether the given listener instance is registered as such,
+	 * as opposed to a non-singleton listener bean obtained for a specific event.
+	 * @param listener the listener to check
+	 */
+	boolean isRegisteredListener(ApplicationListener<?> listener) {
+		return this.defaultRetriever.applicationListeners.contains(listener);
 	}
 
 	/**
@@ -235,12 +261,9 @@ public abstract class AbstractApplicationEventMulticaster
 		Set<ApplicationListener<?>> filteredListeners = (retriever != null ? new LinkedHashSet<>() : null);
 		Set<String> filteredListenerBeans = (retriever != null ? new LinkedHashSet<>() : null);
 
-		Set<ApplicationListener<?>> listeners;
-		Set<String> listenerBeans;
-		synchronized (this.defaultRetriever) {
-			listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
-			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
-		}
+		// Copy-on-write snapshots: safe to iterate without holding the registration lock
+		Set<ApplicationListener<?>> listeners = this.defaultRetriever.applicationListeners;
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
 
 		// Add programmatically registered listeners, including ones coming
 		// from ApplicationListenerDetector (singleton beans and inner beans).
@@ -295,8 +318,12 @@ public abstract class AbstractApplicationEventMulticaster
 		AnnotationAwareOrderComparator.sort(allListeners);
 		if (retriever != null) {
 			if (filteredListenerBeans.isEmpty()) {
+				List<ApplicationListener<?>> dispatchTable = Collections.unmodifiableList(allListeners);
+				retriever.dispatchTable = dispatchTable;
 				retriever.applicationListeners = new LinkedHashSet<>(allListeners);
 				retriever.applicationListenerBeans = filteredListenerBeans;
+				// Hand out the same dispatch table as subsequent lookups
+				return dispatchTable;
 			}
 			else {
 				retriever.applicationListeners = filteredListeners;
@@ -439,9 +466,14 @@ public abstract class AbstractApplicationEventMulticaster
 	 * Helper class that encapsulates a specific set of target listeners,
 	 * allowing for efficient retrieval of pre-filtered listeners.
 	 * <p>An instance of this helper gets cached per event type and source type.
+	 * If all target listeners are singletons, a pre-sorted immutable dispatch
+	 * table gets exposed as-is, without any per-event copying or sorting.
 	 */
 	private class CachedListenerRetriever {
 
+		@Nullable
+		public volatile List<ApplicationListener<?>> dispatchTable;
+
 		@Nullable
 		public volatile Set<ApplicationListener<?>> applicationListeners;
 
@@ -450,6 +482,11 @@ public abstract class AbstractApplicationEventMulticaster
 
 		@Nullable
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			List<ApplicationListener<?>> dispatchTable = this.dispatchTable;
+			if (dispatchTable != null) {
+				return dispatchTable;
+			}
+
 			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
 			Set<String> applicationListenerBeans = this.applicationListenerBeans;
 			if (applicationListeners == null || applicationListenerBeans == null) {
@@ -482,20 +519,24 @@ public abstract class AbstractApplicationEventMulticaster
 
 	/**
 	 * Helper class that encapsulates a general set of target listeners.
+	 * <p>Both sets are copy-on-write: they are never modified in place but
+	 * rather replaced by an updated copy while holding the registration lock.
 	 */
 	private class DefaultListenerRetriever {
 
-		public final Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
+		public volatile Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
 
-		public final Set<String> applicationListenerBeans = new LinkedHashSet<>();
+		public volatile Set<String> applicationListenerBeans = new LinkedHashSet<>();
 
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
+			Set<String> applicationListenerBeans = this.applicationListenerBeans;
 			List<ApplicationListener<?>> allListeners = new ArrayList<>(
-					this.applicationListeners.size() + this.applicationListenerBeans.size());
-			allListeners.addAll(this.applicationListeners);
-			if (!this.applicationListenerBeans.isEmpty()) {
+					applicationListeners.size() + applicationListenerBeans.size());
+			allListeners.addAll(applicationListeners);
+			if (!applicationListenerBeans.isEmpty()) {
 				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : this.applicationListenerBeans) {
+				for (String listenerBeanName : applicationListenerBeans) {
 					try {
 						ApplicationListener<?> listener =
 								beanFactory.getBean(listenerBeanName, ApplicationListener.class);
@@ -0,0 +1,470 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * Asynchronous {@link ApplicationEventMulticaster} implementation which hands
+ * events over to a bounded queue per listener, draining each queue through the
+ * configured {@link #setTaskExecutor task executor}.
+ *
+ * <p>In contrast to a plain {@link SimpleApplicationEventMulticaster} with a task
+ * executor, this multicaster never submits more than one task per listener at any
+ * given time: subsequent events queue up behind the currently running drain task,
+ * preserving publication order for each listener. Once a listener queue is full,
+ * the configured {@link OverflowPolicy} applies, providing backpressure towards
+ * the publisher instead of an unbounded executor queue.
+ *
+ * <p>Listeners implementing {@link BatchApplicationListener} receive all queued
+ * events at once, up to the {@link #setMaxBatchSize maximum batch size}. All
+ * other listeners, including {@code @EventListener} method adapters, are invoked
+ * once per event.
+ *
+ * <p>Per-listener queue statistics are exposed through {@link #getListenerStatistics()}.
+ *
+ * @since 5.3.7
+ * @see #setTaskExecutor
+ * @see #setQueueCapacity
+ * @see #setOverflowPolicy
+ */
+public class BatchingApplicationEventMulticaster extends SimpleApplicationEventMulticaster {
+
+	/**
+	 * The default capacity of each listener queue: 1024.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * The default maximum number of events per {@link BatchApplicationListener} call: 100.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+
+	private static final Log logger = LogFactory.getLog(BatchingApplicationEventMulticaster.class);
+
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private final Map<ApplicationListener<?>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new BatchingApplicationEventMulticaster.
+	 * <p>A {@link #setTaskExecutor task executor} needs to be specified
+	 * for asynchronous processing; otherwise all listeners are invoked
+	 * in the calling thread, just like with {@link SimpleApplicationEventMulticaster}.
+	 */
+	public BatchingApplicationEventMulticaster() {
+	}
+
+	/**
+	 * Create a new BatchingApplicationEventMulticaster for the given BeanFactory.
+	 */
+	public BatchingApplicationEventMulticaster(BeanFactory beanFactory) {
+		super(beanFactory);
+	}
+
+
+	/**
+	 * Set the maximum number of pending events per listener.
+	 * <p>Default is {@link #DEFAULT_QUEUE_CAPACITY}. Changes only apply
+	 * to listener queues created afterwards.
+	 * @see #setOverflowPolicy
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater than 0");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Return the maximum number of pending events per listener.
+	 */
+	public int getQueueCapacity() {
+		return this.queueCapacity;
+	}
+
+	/**
+	 * Set the maximum number of events to hand over to a
+	 * {@link BatchApplicationListener} in a single call.
+	 * <p>Default is {@link #DEFAULT_MAX_BATCH_SIZE}.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Return the maximum number of events per {@link BatchApplicationListener} call.
+	 */
+	public int getMaxBatchSize() {
+		return this.maxBatchSize;
+	}
+
+	/**
+	 * Specify what to do when a listener queue is full.
+	 * <p>Default is {@link OverflowPolicy#BLOCK}.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Return the policy to apply when a listener queue is full.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+
+	@Override
+	public void multicastEvent(ApplicationEvent event, @Nullable ResolvableType eventType) {
+		ResolvableType type = (eventType != null ? eventType : ResolvableType.forInstance(event));
+		Executor executor = getTaskExecutor();
+		for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
+			if (executor != null) {
+				enqueue(listener, event, executor);
+			}
+			else {
+				invokeListener(listener, event);
+			}
+		}
+	}
+
+	/**
+	 * Hand the given event over to the queue of the given listener,
+	 * applying the {@link OverflowPolicy} if the queue is full.
+	 */
+	private void enqueue(ApplicationListener<?> listener, ApplicationEvent event, Executor executor) {
+		ListenerQueue queue = this.listenerQueues.computeIfAbsent(listener,
+				key -> new ListenerQueue(this.queueCapacity, !isRegisteredListener(key)));
+		PendingEvent pendingEvent = new PendingEvent(event);
+		if (!queue.events.offer(pendingEvent)) {
+			switch (this.overflowPolicy) {
+				case BLOCK:
+					try {
+						queue.events.put(pendingEvent);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						queue.droppedCount.incrementAndGet();
+						return;
+					}
+					break;
+				case DROP:
+					queue.droppedCount.incrementAndGet();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Dropping " + event + " for listener " + listener + ": queue is full");
+					}
+					return;
+				case CALLER_RUNS:
+					queue.callerRunsCount.incrementAndGet();
+					invokeListener(listener, event);
+					return;
+			}
+		}
+		queue.enqueuedCount.incrementAndGet();
+		scheduleDrain(listener, queue, executor);
+	}
+
+	private void scheduleDrain(ApplicationListener<?> listener, ListenerQueue queue, Executor executor) {
+		if (queue.scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(() -> drain(listener, queue, executor));
+			}
+			catch (RuntimeException ex) {
+				queue.scheduled.set(false);
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * Process all pending events of the given listener queue, then release
+	 * the queue for rescheduling by subsequent publishers.
+	 */
+	private void drain(ApplicationListener<?> listener, ListenerQueue queue, Executor executor) {
+		try {
+			List<PendingEvent> batch = new ArrayList<>(Math.min(this.maxBatchSize, queue.events.size() + 1));
+			while (queue.events.drainTo(batch, this.maxBatchSize) > 0) {
+				processBatch(listener, batch);
+				queue.processedCount.addAndGet(batch.size());
+				batch.clear();
+			}
+		}
+		finally {
+			queue.scheduled.set(false);
+		}
+		if (!queue.events.isEmpty()) {
+			// Events arrived after the last drainTo call but before the release of the queue
+			scheduleDrain(listener, queue, executor);
+		}
+		else if (queue.transientListener) {
+			this.listenerQueues.remove(listener, queue);
+		}
+	}
+
+	/**
+	 * Invoke the given listener with the given batch of pending events,
+	 * either as a whole or one by one.
+	 * <p>Exceptions that are not handled by the {@link #setErrorHandler ErrorHandler}
+	 * get logged, since there is no publisher to propagate them to.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private void processBatch(ApplicationListener<?> listener, List<PendingEvent> batch) {
+		if (listener instanceof BatchApplicationListener) {
+			List<ApplicationEvent> events = new ArrayList<>(batch.size());
+			for (PendingEvent pendingEvent : batch) {
+				events.add(pendingEvent.event);
+			}
+			try {
+				ErrorHandler errorHandler = getErrorHandler();
+				if (errorHandler != null) {
+					try {
+						((BatchApplicationListener) listener).onApplicationEvents(events);
+					}
+					catch (Throwable err) {
+						errorHandler.handleError(err);
+					}
+				}
+				else {
+					((BatchApplicationListener) listener).onApplicationEvents(events);
+				}
+			}
+			catch (Throwable ex) {
+				logger.error("Unexpected error from listener " + listener + " for " + events.size() + " events", ex);
+			}
+		}
+		else {
+			for (PendingEvent pendingEvent : batch) {
+				try {
+					invokeListener(listener, pendingEvent.event);
+				}
+				catch (Throwable ex) {
+					logger.error("Unexpected error from listener " + listener + " for " + pendingEvent.event, ex);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Return a snapshot of the queue statistics for the given listener.
+	 * @param listener the listener to introspect
+	 * @return the current statistics, or {@code null} if no events
+	 * have been queued for the given listener yet
+	 */
+	@Nullable
+	public ListenerStatistics getListenerStatistics(ApplicationListener<?> listener) {
+		ListenerQueue queue = this.listenerQueues.get(listener);
+		return (queue != null ? new ListenerStatistics(queue) : null);
+	}
+
+	/**
+	 * Return a snapshot of the queue statistics for all listeners
+	 * that events have been queued for.
+	 */
+	public Map<ApplicationListener<?>, ListenerStatistics> getListenerStatistics() {
+		Map<ApplicationListener<?>, ListenerStatistics> result = new LinkedHashMap<>(this.listenerQueues.size());
+		this.listenerQueues.forEach((listener, queue) -> result.put(listener, new ListenerStatistics(queue)));
+		return Collections.unmodifiableMap(result);
+	}
+
+	@Override
+	public void removeAllListeners() {
+		super.removeAllListeners();
+		this.listenerQueues.values().removeIf(queue -> queue.events.isEmpty());
+	}
+
+
+	/**
+	 * Policy to apply when a listener queue has reached its capacity.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Block the publishing thread until the listener queue has room again.
+		 * <p>Note that a listener publishing further events to its own full queue
+		 * will wait for itself; consider {@link #CALLER_RUNS} for such scenarios.
+		 */
+		BLOCK,
+
+		/**
+		 * Discard the event for the affected listener, with the other
+		 * listeners receiving it as usual.
+		 */
+		DROP,
+
+		/**
+		 * Invoke the affected listener in the publishing thread,
+		 * bypassing its queue (and therefore its ordering guarantee).
+		 */
+		CALLER_RUNS
+	}
+
+
+	/**
+	 * Snapshot of the queue state for a specific listener.
+	 */
+	public static final class ListenerStatistics {
+
+		private final int queueSize;
+
+		private final long lagMillis;
+
+		private final long enqueuedCount;
+
+		private final long processedCount;
+
+		private final long droppedCount;
+
+		private final long callerRunsCount;
+
+		private ListenerStatistics(ListenerQueue queue) {
+			PendingEvent oldest = queue.events.peek();
+			this.queueSize = queue.events.size();
+			this.lagMillis = (oldest != null ?
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedNanos) : 0);
+			this.enqueuedCount = queue.enqueuedCount.get();
+			this.processedCount = queue.processedCount.get();
+			this.droppedCount = queue.droppedCount.get();
+			this.callerRunsCount = queue.callerRunsCount.get();
+		}
+
+		/**
+		 * Return the number of events currently waiting for the listener.
+		 */
+		public int getQueueSize() {
+			return this.queueSize;
+		}
+
+		/**
+		 * Return the time in milliseconds that the oldest pending event
+		 * has been waiting for the listener, or 0 if the queue is empty.
+		 */
+		public long getLagMillis() {
+			return this.lagMillis;
+		}
+
+		/**
+		 * Return the total number of events queued for the listener.
+		 */
+		public long getEnqueuedCount() {
+			return this.enqueuedCount;
+		}
+
+		/**
+		 * Return the total number of queued events processed by the listener.
+		 */
+		public long getProcessedCount() {
+			return this.processedCount;
+		}
+
+		/**
+		 * Return the total number of events dropped for the listener.
+		 * @see OverflowPolicy#DROP
+		 */
+		public long getDroppedCount() {
+			return this.droppedCount;
+		}
+
+		/**
+		 * Return the total number of events processed in the publishing thread.
+		 * @see OverflowPolicy#CALLER_RUNS
+		 */
+		public long getCallerRunsCount() {
+			return this.callerRunsCount;
+		}
+
+		@Override
+		public String toString() {
+			return "ListenerStatistics [queueSize = " + this.queueSize + ", lagMillis = " + this.lagMillis +
+					", enqueued = " + this.enqueuedCount + ", processed = " + this.processedCount +
+					", dropped = " + this.droppedCount + ", callerRuns = " + this.callerRunsCount + "]";
+		}
+	}
+
+
+	/**
+	 * Bounded queue of pending events for a specific listener.
+	 * <p>Does not hold on to the listener itself, which gets passed
+	 * into each drain task instead.
+	 */
+	private static final class ListenerQueue {
+
+		final BlockingQueue<PendingEvent> events;
+
+		final boolean transientListener;
+
+		final AtomicBoolean scheduled = new AtomicBoolean();
+
+		final AtomicLong enqueuedCount = new AtomicLong();
+
+		final AtomicLong processedCount = new AtomicLong();
+
+		final AtomicLong droppedCount = new AtomicLong();
+
+		final AtomicLong callerRunsCount = new AtomicLong();
+
+		ListenerQueue(int capacity, boolean transientListener) {
+			this.events = new ArrayBlockingQueue<>(capacity);
+			this.transientListener = transientListener;
+		}
+	}
+
+
+	/**
+	 * Event holder which tracks the time of enqueueing.
+	 */
+	private static final class PendingEvent {
+
+		final ApplicationEvent event;
+
+		final long enqueuedNanos = System.nanoTime();
+
+		PendingEvent(ApplicationEvent event) {
+			this.event = event;
+		}
+	}
+
+}
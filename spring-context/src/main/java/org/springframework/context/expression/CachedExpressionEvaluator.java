@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.context.expression;
 
+import java.lang.reflect.Method;
 import java.util.Map;
 
 import org.springframework.core.DefaultParameterNameDiscoverer;
@@ -24,6 +25,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -40,6 +42,8 @@ public abstract class CachedExpressionEvaluator {
 
 	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
+	private final Map<Method, MethodArgumentVariables> argumentVariablesCache = new ConcurrentReferenceHashMap<>(64);
+
 
 	/**
 	 * Create a new instance with the specified {@link SpelExpressionParser}.
@@ -72,6 +76,22 @@ public abstract class CachedExpressionEvaluator {
 		return this.parameterNameDiscoverer;
 	}
 
+	/**
+	 * Return the variables under which the arguments of the given method are
+	 * exposed, resolved on first access and shared by all later evaluations.
+	 * @param method the method to return the argument variables for
+	 * @since 5.3.7
+	 * @see MethodBasedEvaluationContext#MethodBasedEvaluationContext(Object, Method, Object[], MethodArgumentVariables)
+	 */
+	protected MethodArgumentVariables getArgumentVariables(Method method) {
+		MethodArgumentVariables argumentVariables = this.argumentVariablesCache.get(method);
+		if (argumentVariables == null) {
+			argumentVariables = MethodArgumentVariables.forMethod(method, this.parameterNameDiscoverer);
+			this.argumentVariablesCache.put(method, argumentVariables);
+		}
+		return argumentVariables;
+	}
+
 
 	/**
 	 * Return the {@link Expression} for the specified SpEL value
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.expression;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * The variables under which the arguments of a method are exposed to
+ * expressions, resolved once per method: "aX" and "pX" for the argument
+ * at index X, plus the parameter name if discoverable.
+ *
+ * <p>Instances are immutable and meant to be shared between all evaluations
+ * for the same method, see {@link CachedExpressionEvaluator#getArgumentVariables}.
+ * A {@link MethodBasedEvaluationContext} created with such an instance resolves
+ * variables straight from the invocation's arguments, without discovering
+ * parameter names or registering variables for each evaluation.
+ *
+ * @since 5.3.7
+ * @see MethodBasedEvaluationContext#MethodBasedEvaluationContext(Object, Method, Object[], MethodArgumentVariables)
+ */
+public final class MethodArgumentVariables {
+
+	private final int parameterCount;
+
+	private final Map<String, Integer> parameterIndexes;
+
+
+	private MethodArgumentVariables(int parameterCount, Map<String, Integer> parameterIndexes) {
+		this.parameterCount = parameterCount;
+		this.parameterIndexes = parameterIndexes;
+	}
+
+
+	/**
+	 * Return the argument exposed under the given variable name.
+	 * <p>Remaining arguments beyond the parameter count are exposed as a
+	 * vararg array for the last parameter.
+	 * @param name the name of the variable
+	 * @param arguments the arguments of the current invocation
+	 * @return the argument, or {@code null} if the name does not refer to
+	 * an argument or the argument is not present
+	 */
+	@Nullable
+	public Object getArgument(String name, Object[] arguments) {
+		Integer index = this.parameterIndexes.get(name);
+		if (index == null) {
+			return null;
+		}
+		int i = index;
+		int argsCount = arguments.length;
+		if (argsCount > this.parameterCount && i == this.parameterCount - 1) {
+			// Expose remaining arguments as vararg array for last parameter
+			return Arrays.copyOfRange(arguments, i, argsCount);
+		}
+		return (argsCount > i ? arguments[i] : null);
+	}
+
+
+	/**
+	 * Resolve the argument variables for the given method.
+	 * @param method the method to resolve the variables for
+	 * @param parameterNameDiscoverer the discoverer for the parameter names
+	 * @return the argument variables
+	 */
+	public static MethodArgumentVariables forMethod(Method method, ParameterNameDiscoverer parameterNameDiscoverer) {
+		Assert.notNull(method, "Method must not be null");
+		Assert.notNull(parameterNameDiscoverer, "ParameterNameDiscoverer must not be null");
+		String[] paramNames = parameterNameDiscoverer.getParameterNames(method);
+		int paramCount = (paramNames != null ? paramNames.length : method.getParameterCount());
+		Map<String, Integer> parameterIndexes = new HashMap<>(paramCount * 4);
+		for (int i = 0; i < paramCount; i++) {
+			parameterIndexes.put("a" + i, i);
+			parameterIndexes.put("p" + i, i);
+			if (paramNames != null && paramNames[i] != null) {
+				parameterIndexes.put(paramNames[i], i);
+			}
+		}
+		return new MethodArgumentVariables(paramCount, parameterIndexes);
+	}
+
+}
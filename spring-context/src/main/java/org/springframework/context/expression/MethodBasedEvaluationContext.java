@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,12 +41,31 @@ import org.springframework.util.ObjectUtils;
  */
 public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 
+	private static final int INDEXED_VARIABLE_NAMES_SIZE = 16;
+
+	// Pre-built "aX" and "pX" variable names for common parameter counts
+	private static final String[] A_VARIABLE_NAMES = new String[INDEXED_VARIABLE_NAMES_SIZE];
+
+	private static final String[] P_VARIABLE_NAMES = new String[INDEXED_VARIABLE_NAMES_SIZE];
+
+	static {
+		for (int i = 0; i < INDEXED_VARIABLE_NAMES_SIZE; i++) {
+			A_VARIABLE_NAMES[i] = "a" + i;
+			P_VARIABLE_NAMES[i] = "p" + i;
+		}
+	}
+
+
 	private final Method method;
 
 	private final Object[] arguments;
 
+	@Nullable
 	private final ParameterNameDiscoverer parameterNameDiscoverer;
 
+	@Nullable
+	private final MethodArgumentVariables argumentVariables;
+
 	private boolean argumentsLoaded = false;
 
 
@@ -57,6 +76,24 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 		this.method = method;
 		this.arguments = arguments;
 		this.parameterNameDiscoverer = parameterNameDiscoverer;
+		this.argumentVariables = null;
+	}
+
+	/**
+	 * Create a context that resolves the arguments through the given
+	 * {@link MethodArgumentVariables}, prepared once for the method,
+	 * instead of binding them to variables on first lookup.
+	 * <p>{@link #lazyLoadArguments()} is not involved for such a context.
+	 * @since 5.3.7
+	 */
+	public MethodBasedEvaluationContext(Object rootObject, Method method, Object[] arguments,
+			MethodArgumentVariables argumentVariables) {
+
+		super(rootObject);
+		this.method = method;
+		this.arguments = arguments;
+		this.parameterNameDiscoverer = null;
+		this.argumentVariables = argumentVariables;
 	}
 
 
@@ -67,6 +104,9 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 		if (variable != null) {
 			return variable;
 		}
+		if (this.argumentVariables != null) {
+			return this.argumentVariables.getArgument(name, this.arguments);
+		}
 		if (!this.argumentsLoaded) {
 			lazyLoadArguments();
 			this.argumentsLoaded = true;
@@ -80,7 +120,7 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 	 */
 	protected void lazyLoadArguments() {
 		// Shortcut if no args need to be loaded
-		if (ObjectUtils.isEmpty(this.arguments)) {
+		if (ObjectUtils.isEmpty(this.arguments) || this.parameterNameDiscoverer == null) {
 			return;
 		}
 
@@ -99,8 +139,9 @@ public class MethodBasedEvaluationContext extends StandardEvaluationContext {
 				// Actual argument found - otherwise left as null
 				value = this.arguments[i];
 			}
-			setVariable("a" + i, value);
-			setVariable("p" + i, value);
+			boolean indexed = (i < INDEXED_VARIABLE_NAMES_SIZE);
+			setVariable(indexed ? A_VARIABLE_NAMES[i] : "a" + i, value);
+			setVariable(indexed ? P_VARIABLE_NAMES[i] : "p" + i, value);
 			if (paramNames != null && paramNames[i] != null) {
 				setVariable(paramNames[i], value);
 			}
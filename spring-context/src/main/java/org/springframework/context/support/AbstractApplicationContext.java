@@ -82,6 +82,7 @@ import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.type.classreading.PersistentMetadataCache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -449,6 +450,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	public void setApplicationStartup(ApplicationStartup applicationStartup) {
 		Assert.notNull(applicationStartup, "applicationStartup should not be null");
 		this.applicationStartup = applicationStartup;
+		if (this.resourcePatternResolver instanceof PathMatchingResourcePatternResolver) {
+			((PathMatchingResourcePatternResolver) this.resourcePatternResolver).setApplicationStartup(applicationStartup);
+		}
 	}
 
 	@Override
@@ -473,7 +477,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 * Return the ResourcePatternResolver to use for resolving location patterns
 	 * into Resource instances. Default is a
 	 * {@link org.springframework.core.io.support.PathMatchingResourcePatternResolver},
-	 * supporting Ant-style location patterns.
+	 * supporting Ant-style location patterns. Subclasses may override this method
+	 * to opt into {@link PathMatchingResourcePatternResolver#setCacheJarEntries
+	 * jar entry caching}, with cached entries released after each refresh.
 	 * <p>Can be overridden in subclasses, for extended resolution strategies,
 	 * for example in a web environment.
 	 * <p><b>Do not call this when needing to resolve a location pattern.</b>
@@ -966,6 +972,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// Clear context-level resource caches (such as ASM metadata from scanning).
 		clearResourceCaches();
 
+		// Save newly parsed class metadata to the shared metadata cache file, if any.
+		savePersistentMetadataCache();
+
 		// Initialize lifecycle processor for this context.
 		//声明周期执行器
 		initLifecycleProcessor();
@@ -982,6 +991,25 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		}
 	}
 
+	/**
+	 * Save the {@link PersistentMetadataCache#getSharedInstance() shared metadata cache},
+	 * if a cache file has been configured, releasing the metadata it holds in memory.
+	 * <p>Called at the end of a refresh and on close. The cache file only gets written
+	 * if any class file had to be parsed since the previous save.
+	 * @since 5.3.7
+	 */
+	protected void savePersistentMetadataCache() {
+		PersistentMetadataCache metadataCache = PersistentMetadataCache.getSharedInstance();
+		if (metadataCache != null) {
+			try {
+				metadataCache.save();
+			}
+			catch (IOException ex) {
+				logger.info("Could not save metadata cache file [" + metadataCache.getCacheFile() + "]", ex);
+			}
+		}
+	}
+
 	/**
 	 * Cancel this context's refresh attempt, resetting the {@code active} flag
 	 * after an exception got thrown.
@@ -994,7 +1022,8 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	/**
 	 * Reset Spring's common reflection metadata caches, in particular the
 	 * {@link ReflectionUtils}, {@link AnnotationUtils}, {@link ResolvableType}
-	 * and {@link CachedIntrospectionResults} caches.
+	 * and {@link CachedIntrospectionResults} caches, as well as any jar entries
+	 * cached by the {@link PathMatchingResourcePatternResolver}.
 	 * @since 4.2
 	 * @see ReflectionUtils#clearCache()
 	 * @see AnnotationUtils#clearCache()
@@ -1006,6 +1035,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		AnnotationUtils.clearCache();
 		ResolvableType.clearCache();
 		CachedIntrospectionResults.clearClassLoader(getClassLoader());
+		if (this.resourcePatternResolver instanceof PathMatchingResourcePatternResolver) {
+			((PathMatchingResourcePatternResolver) this.resourcePatternResolver).clearCache();
+		}
 	}
 
 
@@ -1119,6 +1151,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			// Let subclasses do some final clean-up if they wish...
 			onClose();
 
+			// Release cached resource lookup state, if any.
+			if (this.resourcePatternResolver instanceof PathMatchingResourcePatternResolver) {
+				((PathMatchingResourcePatternResolver) this.resourcePatternResolver).clearCache();
+			}
+
+			// Save class metadata parsed after the refresh, e.g. by lazy scanning.
+			savePersistentMetadataCache();
+
 			// Reset local application listeners to pre-refresh state.
 			if (this.earlyApplicationListeners != null) {
 				this.applicationListeners.clear();
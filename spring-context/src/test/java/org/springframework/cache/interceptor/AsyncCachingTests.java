@@ -0,0 +1,279 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for caching methods with asynchronous and reactive return types.
+ */
+public class AsyncCachingTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private AsyncService service;
+
+	@BeforeEach
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("test");
+		this.service = this.context.getBean(AsyncService.class);
+	}
+
+	@AfterEach
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void cacheCompletableFutureValue() {
+		assertThat(this.service.future("a").join()).isEqualTo("a1");
+		assertThat(this.cache.get("a").get()).isEqualTo("a1");
+		assertThat(this.service.future("a").join()).isEqualTo("a1");
+		assertThat(this.service.counter.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void coalesceConcurrentCompletableFutureMisses() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		this.service.pending = pending;
+		CompletableFuture<String> first = this.service.future("b");
+		CompletableFuture<String> second = this.service.future("b");
+		assertThat(first).isNotDone();
+		assertThat(second).isNotDone();
+		assertThat(this.service.counter.get()).isEqualTo(1);
+
+		pending.complete("b-value");
+		assertThat(first.join()).isEqualTo("b-value");
+		assertThat(second.join()).isEqualTo("b-value");
+		assertThat(this.cache.get("b").get()).isEqualTo("b-value");
+	}
+
+	@Test
+	public void failedCompletableFutureIsNotCached() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		this.service.pending = pending;
+		CompletableFuture<String> first = this.service.future("c");
+		pending.completeExceptionally(new IllegalStateException("boom"));
+		assertThat(first).isCompletedExceptionally();
+		assertThat(this.cache.get("c")).isNull();
+
+		this.service.pending = null;
+		assertThat(this.service.future("c").join()).isEqualTo("c2");
+	}
+
+	@Test
+	public void cancellingOneCallerKeepsSharedInvocation() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		this.service.pending = pending;
+		CompletableFuture<String> first = this.service.future("h");
+		CompletableFuture<String> second = this.service.future("h");
+		first.cancel(true);
+		assertThat(pending).isNotCancelled();
+		assertThat(second).isNotDone();
+
+		pending.complete("h-value");
+		assertThat(second.join()).isEqualTo("h-value");
+		assertThat(this.cache.get("h").get()).isEqualTo("h-value");
+	}
+
+	@Test
+	public void cancellingAllCallersCancelsInvocation() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		this.service.pending = pending;
+		CompletableFuture<String> first = this.service.future("i");
+		CompletableFuture<String> second = this.service.future("i");
+		first.cancel(true);
+		second.cancel(true);
+		assertThat(pending).isCancelled();
+		assertThat(this.cache.get("i")).isNull();
+
+		this.service.pending = null;
+		assertThat(this.service.future("i").join()).isEqualTo("i2");
+	}
+
+	@Test
+	public void asyncCacheLookupAndStore() {
+		AsyncCache asyncCache = (AsyncCache) this.cache;
+		CompletableFuture<Cache.ValueWrapper> lookup = new CompletableFuture<>();
+		asyncCache.pendingLookup = lookup;
+		CompletableFuture<String> result = this.service.future("j");
+		assertThat(result).isNotDone();
+		assertThat(this.service.counter.get()).isEqualTo(0);
+
+		asyncCache.pendingLookup = null;
+		lookup.complete(null);
+		assertThat(result.join()).isEqualTo("j1");
+		assertThat(asyncCache.storedKeys).containsExactly("j");
+
+		lookup = new CompletableFuture<>();
+		asyncCache.pendingLookup = lookup;
+		result = this.service.future("k");
+		lookup.complete(new SimpleValueWrapper("k-cached"));
+		assertThat(result.join()).isEqualTo("k-cached");
+		assertThat(this.service.counter.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheMonoValue() {
+		assertThat(this.service.mono("d").block()).isEqualTo("d1");
+		assertThat(this.cache.get("d").get()).isEqualTo("d1");
+		assertThat(this.service.mono("d").block()).isEqualTo("d1");
+		assertThat(this.service.counter.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheFluxValues() {
+		assertThat(this.service.flux("e").collectList().block()).containsExactly("e1", "e1");
+		assertThat(this.cache.get("e").get()).isEqualTo(Arrays.asList("e1", "e1"));
+		assertThat(this.service.flux("e").collectList().block()).containsExactly("e1", "e1");
+		assertThat(this.service.counter.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void putAndEvictOnMonoCompletion() {
+		this.cache.put("other", "value");
+		Mono<String> result = this.service.monoPutAndEvict("f");
+		assertThat(this.cache.get("f")).isNull();
+		assertThat(this.cache.get("other")).isNotNull();
+
+		assertThat(result.block()).isEqualTo("f1");
+		assertThat(this.cache.get("f").get()).isEqualTo("f1");
+		assertThat(this.cache.get("other")).isNull();
+	}
+
+	@Test
+	public void syncNotSupportedForAsyncReturnType() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.syncFuture("g"))
+				.withMessageContaining("sync=true");
+		assertThat(this.service.counter.get()).isEqualTo(0);
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			SimpleCacheManager cacheManager = new SimpleCacheManager();
+			cacheManager.setCaches(Collections.singletonList(new AsyncCache("test")));
+			return cacheManager;
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+
+	static class AsyncCache extends ConcurrentMapCache {
+
+		final List<Object> storedKeys = new CopyOnWriteArrayList<>();
+
+		volatile CompletableFuture<ValueWrapper> pendingLookup;
+
+		AsyncCache(String name) {
+			super(name);
+		}
+
+		@Override
+		public CompletableFuture<ValueWrapper> retrieve(Object key) {
+			CompletableFuture<ValueWrapper> lookup = this.pendingLookup;
+			return (lookup != null ? lookup : super.retrieve(key));
+		}
+
+		@Override
+		public CompletableFuture<Void> store(Object key, @Nullable Object value) {
+			this.storedKeys.add(key);
+			return super.store(key, value);
+		}
+	}
+
+
+	public static class AsyncService {
+
+		final AtomicInteger counter = new AtomicInteger();
+
+		volatile CompletableFuture<String> pending;
+
+		@Cacheable("test")
+		public CompletableFuture<String> future(String key) {
+			int count = this.counter.incrementAndGet();
+			return (this.pending != null ? this.pending : CompletableFuture.completedFuture(key + count));
+		}
+
+		@Cacheable("test")
+		public Mono<String> mono(String key) {
+			return Mono.fromSupplier(() -> key + this.counter.incrementAndGet());
+		}
+
+		@Cacheable("test")
+		public Flux<String> flux(String key) {
+			return Flux.defer(() -> {
+				String value = key + this.counter.incrementAndGet();
+				return Flux.just(value, value);
+			});
+		}
+
+		@Cacheable(cacheNames = "test", sync = true)
+		public CompletableFuture<String> syncFuture(String key) {
+			return CompletableFuture.completedFuture(key + this.counter.incrementAndGet());
+		}
+
+		@CachePut(cacheNames = "test", key = "#key")
+		@CacheEvict(cacheNames = "test", key = "'other'")
+		public Mono<String> monoPutAndEvict(String key) {
+			return Mono.fromSupplier(() -> key + this.counter.incrementAndGet());
+		}
+	}
+
+}
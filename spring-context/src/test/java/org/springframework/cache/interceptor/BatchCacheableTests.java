@@ -0,0 +1,195 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.BatchCacheable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link BatchCacheable} operations.
+ */
+public class BatchCacheableTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private UserService service;
+
+	@BeforeEach
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("users");
+		this.service = this.context.getBean(UserService.class);
+	}
+
+	@AfterEach
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void mapReturnTypeLoadsMissingElementsOnly() {
+		assertThat(this.service.findByIds(Arrays.asList(1L, 2L))).containsExactly(
+				entry(1L, "user1"), entry(2L, "user2"));
+		assertThat(this.cache.get(1L).get()).isEqualTo("user1");
+
+		Map<Long, String> result = this.service.findByIds(Arrays.asList(3L, 2L, 99L, 1L));
+		assertThat(result).containsExactly(entry(3L, "user3"), entry(2L, "user2"), entry(1L, "user1"));
+		assertThat(this.service.requested).containsExactly(Arrays.asList(1L, 2L), Arrays.asList(3L, 99L));
+		assertThat(this.cache.get(99L)).isNull();
+
+		this.service.findByIds(Arrays.asList(1L, 3L));
+		assertThat(this.service.requested).hasSize(2);
+	}
+
+	@Test
+	public void listReturnTypeIsPositional() {
+		this.cache.put(2L, "cached2");
+		assertThat(this.service.findAllByIds(Arrays.asList(1L, 2L, 99L))).containsExactly("user1", "cached2", null);
+		assertThat(this.service.requested).containsExactly(Arrays.asList(1L, 99L));
+		assertThat(this.cache.get(1L).get()).isEqualTo("user1");
+		assertThat(this.cache.get(99L)).isNull();
+	}
+
+	@Test
+	public void collectionReturnTypeKeepsDuplicatesAndMisses() {
+		this.cache.put(2L, "cached2");
+		Collection<String> result = this.service.findValuesByIds(Arrays.asList(1L, 2L, 1L, 99L, 2L, 99L));
+		assertThat(result).isInstanceOf(List.class);
+		assertThat(result).containsExactly("user1", "cached2", "user1", null, "cached2", null);
+		assertThat(this.service.requested).containsExactly(Arrays.asList(1L, 99L));
+	}
+
+	@Test
+	public void emptyCollectionInvokesMethod() {
+		assertThat(this.service.findByIds(new ArrayList<>())).isEmpty();
+		assertThat(this.service.requested).hasSize(1);
+	}
+
+	@Test
+	public void combinationWithOtherOperationIsRejected() throws Exception {
+		Method method = InvalidUserService.class.getMethod("findAndEvict", Collection.class);
+		assertThatIllegalStateException().isThrownBy(() ->
+				new AnnotationCacheOperationSource().getCacheOperations(method, InvalidUserService.class))
+				.withMessageContaining("cannot be combined");
+	}
+
+	@Test
+	public void invocationWithoutReplaceableArgumentsIsRejected() throws Exception {
+		CacheInterceptor interceptor = this.context.getBean(CacheInterceptor.class);
+		Method method = UserService.class.getMethod("findByIds", Collection.class);
+		UserService target = new UserService();
+		List<Long> ids = Arrays.asList(1L, 2L);
+		assertThatIllegalStateException().isThrownBy(() ->
+				interceptor.execute(() -> target.findByIds(ids), target, method, new Object[] {ids}))
+				.withMessageContaining("arguments can be replaced");
+		assertThat(target.requested).isEmpty();
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager();
+		}
+
+		@Bean
+		public UserService userService() {
+			return new UserService();
+		}
+	}
+
+
+	public static class UserService {
+
+		final List<List<Long>> requested = new ArrayList<>();
+
+		@BatchCacheable("users")
+		public Map<Long, String> findByIds(Collection<Long> ids) {
+			this.requested.add(new ArrayList<>(ids));
+			Map<Long, String> result = new LinkedHashMap<>();
+			for (Long id : ids) {
+				if (id != 99L) {
+					result.put(id, "user" + id);
+				}
+			}
+			return result;
+		}
+
+		@BatchCacheable("users")
+		public List<String> findAllByIds(List<Long> ids) {
+			this.requested.add(new ArrayList<>(ids));
+			List<String> result = new ArrayList<>();
+			for (Long id : ids) {
+				result.add(id != 99L ? "user" + id : null);
+			}
+			return result;
+		}
+
+		@BatchCacheable("users")
+		public Collection<String> findValuesByIds(Collection<Long> ids) {
+			this.requested.add(new ArrayList<>(ids));
+			List<String> result = new ArrayList<>();
+			for (Long id : ids) {
+				result.add(id != 99L ? "user" + id : null);
+			}
+			return result;
+		}
+	}
+
+
+	public static class InvalidUserService {
+
+		@BatchCacheable("users")
+		@CacheEvict("users")
+		public Map<Long, String> findAndEvict(Collection<Long> ids) {
+			return new LinkedHashMap<>();
+		}
+	}
+
+}
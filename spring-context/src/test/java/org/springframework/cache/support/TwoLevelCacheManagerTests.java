@@ -0,0 +1,220 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CyclicBarrier;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TwoLevelCacheManager} and {@link TwoLevelCache}.
+ */
+public class TwoLevelCacheManagerTests {
+
+	private final ConcurrentMapCacheManager targetCacheManager = new ConcurrentMapCacheManager();
+
+
+	@Test
+	public void readThroughToTargetCache() {
+		TwoLevelCacheManager cacheManager = createCacheManager(null);
+		TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("c1");
+		assertThat(cache).isSameAs(cacheManager.getCache("c1"));
+		this.targetCacheManager.getCache("c1").put("key1", "value1");
+
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+		assertThat(cache.get("key1", String.class)).isEqualTo("value1");
+		assertThat(cache.get("key2")).isNull();
+		assertThat(cache.getLocalHitCount()).isEqualTo(1);
+		assertThat(cache.getLocalMissCount()).isEqualTo(2);
+		assertThat(cache.getTargetHitCount()).isEqualTo(1);
+		assertThat(cache.getTargetMissCount()).isEqualTo(1);
+		assertThat(cache.getLocalSize()).isEqualTo(1);
+
+		assertThat(cache.get("key2", () -> "value2")).isEqualTo("value2");
+		assertThat(this.targetCacheManager.getCache("c1").get("key2").get()).isEqualTo("value2");
+		assertThat(cache.get("key2", () -> "other")).isEqualTo("value2");
+		assertThat(cache.getLocalHitCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void writesGoToTargetCache() {
+		TwoLevelCacheManager cacheManager = createCacheManager(null);
+		Cache cache = cacheManager.getCache("c1");
+		Cache targetCache = this.targetCacheManager.getCache("c1");
+
+		cache.put("key1", "value1");
+		assertThat(targetCache.get("key1").get()).isEqualTo("value1");
+		assertThat(((TwoLevelCache) cache).getLocalSize()).isEqualTo(0);
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+		assertThat(((TwoLevelCache) cache).getLocalSize()).isEqualTo(1);
+		cache.put("key1", "value1a");
+		assertThat(((TwoLevelCache) cache).getLocalSize()).isEqualTo(0);
+		assertThat(cache.get("key1").get()).isEqualTo("value1a");
+		assertThat(cache.putIfAbsent("key1", "other").get()).isEqualTo("value1a");
+
+		cache.evict("key1");
+		assertThat(targetCache.get("key1")).isNull();
+		assertThat(cache.get("key1")).isNull();
+
+		cache.put("key2", "value2");
+		cache.clear();
+		assertThat(targetCache.get("key2")).isNull();
+		assertThat(cache.get("key2")).isNull();
+	}
+
+	@Test
+	public void invalidationsPropagateToOtherNodes() {
+		LoopbackCacheInvalidationChannel channel = new LoopbackCacheInvalidationChannel();
+		Cache node1 = createCacheManager(channel).getCache("c1");
+		Cache node2 = createCacheManager(channel).getCache("c1");
+
+		node1.put("key1", "value1");
+		assertThat(node2.get("key1").get()).isEqualTo("value1");
+		node1.put("key1", "value2");
+		assertThat(node2.get("key1").get()).isEqualTo("value2");
+		node2.evict("key1");
+		assertThat(node1.get("key1")).isNull();
+
+		node1.put("key2", "value2");
+		assertThat(node2.get("key2").get()).isEqualTo("value2");
+		node1.clear();
+		assertThat(((TwoLevelCache) node2).getLocalSize()).isEqualTo(0);
+		assertThat(node2.get("key2")).isNull();
+	}
+
+	@Test
+	public void concurrentPutsLeaveNoStaleLocalCopy() throws Exception {
+		TwoLevelCache cache = (TwoLevelCache) createCacheManager(null).getCache("c1");
+		Cache targetCache = this.targetCacheManager.getCache("c1");
+		for (int i = 0; i < 200; i++) {
+			CyclicBarrier barrier = new CyclicBarrier(3);
+			Thread writer1 = new Thread(() -> {
+				await(barrier);
+				cache.put("key", "value1");
+			});
+			Thread writer2 = new Thread(() -> {
+				await(barrier);
+				cache.put("key", "value2");
+			});
+			Thread reader = new Thread(() -> {
+				await(barrier);
+				cache.get("key");
+			});
+			writer1.start();
+			writer2.start();
+			reader.start();
+			writer1.join();
+			writer2.join();
+			reader.join();
+			assertThat(cache.get("key").get()).isEqualTo(targetCache.get("key").get());
+		}
+	}
+
+	@Test
+	public void localCacheIsBounded() {
+		TwoLevelCacheManager cacheManager = createCacheManager(null);
+		cacheManager.setMaximumLocalSize(2);
+		TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("c1");
+		for (int i = 0; i < 10; i++) {
+			cache.put("key" + i, "value" + i);
+		}
+		for (int i = 0; i < 10; i++) {
+			assertThat(cache.get("key" + i).get()).isEqualTo("value" + i);
+		}
+		assertThat(cache.getLocalSize()).isEqualTo(2);
+		assertThat(cache.get("key9").get()).isEqualTo("value9");
+	}
+
+	@Test
+	public void localCacheEvictsLeastRecentlyUsedEntry() {
+		TwoLevelCacheManager cacheManager = createCacheManager(null);
+		cacheManager.setMaximumLocalSize(2);
+		TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("c1");
+		for (int i = 0; i < 3; i++) {
+			cache.put("key" + i, "value" + i);
+		}
+		cache.get("key0");
+		cache.get("key1");
+		cache.get("key0");
+		// key1 is the least recently used entry at this point
+		cache.get("key2");
+		assertThat(cache.getLocalSize()).isEqualTo(2);
+
+		long localHits = cache.getLocalHitCount();
+		cache.get("key0");
+		cache.get("key2");
+		assertThat(cache.getLocalHitCount()).isEqualTo(localHits + 2);
+		cache.get("key1");
+		assertThat(cache.getLocalHitCount()).isEqualTo(localHits + 2);
+	}
+
+	@Test
+	public void localCacheIsKeptForDecoratingTargetCacheManager() {
+		ConcurrentMap<Object, Object> store = new ConcurrentHashMap<>();
+		CacheManager decoratingCacheManager = new CacheManager() {
+			@Override
+			public Cache getCache(String name) {
+				// A new Cache instance for each call, as returned by decorating CacheManagers
+				return new ConcurrentMapCache(name, store, true);
+			}
+			@Override
+			public Collection<String> getCacheNames() {
+				return Collections.singleton("c1");
+			}
+		};
+		TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(decoratingCacheManager);
+		TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("c1");
+		assertThat(cacheManager.getCache("c1")).isSameAs(cache);
+
+		store.put("key1", "value1");
+		assertThat(cacheManager.getCache("c1").get("key1").get()).isEqualTo("value1");
+		assertThat(cacheManager.getCache("c1").get("key1").get()).isEqualTo("value1");
+		assertThat(cache.getLocalHitCount()).isEqualTo(1);
+		assertThat(cache.getTargetHitCount()).isEqualTo(1);
+	}
+
+
+	private TwoLevelCacheManager createCacheManager(CacheInvalidationChannel channel) {
+		TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(this.targetCacheManager);
+		if (channel != null) {
+			cacheManager.setInvalidationChannel(channel);
+		}
+		cacheManager.afterPropertiesSet();
+		return cacheManager;
+	}
+
+	private static void await(CyclicBarrier barrier) {
+		try {
+			barrier.await();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.context.event;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -134,6 +135,30 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		verify(listener, times(invocation)).onApplicationEvent(event);
 	}
 
+	@Test
+	public void cachedDispatchTableForSingletonListeners() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener);
+
+		ApplicationEvent event = new ContextClosedEvent(new StaticApplicationContext());
+		ResolvableType eventType = ResolvableType.forInstance(event);
+		Collection<ApplicationListener<?>> listeners = smc.getApplicationListeners(event, eventType);
+		assertThat(listeners).containsExactly(listener);
+		assertThat(smc.getApplicationListeners(event, eventType)).isSameAs(listeners);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(listeners::clear);
+
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> otherListener = mock(ApplicationListener.class);
+		smc.addApplicationListener(otherListener);
+		assertThat(listeners).containsExactly(listener);
+		assertThat(smc.getApplicationListeners(event, eventType)).containsExactly(listener, otherListener);
+
+		smc.removeApplicationListener(listener);
+		assertThat(smc.getApplicationListeners(event, eventType)).containsExactly(otherListener);
+	}
+
 	@Test
 	public void simpleApplicationEventMulticasterWithTaskExecutor() {
 		@SuppressWarnings("unchecked")
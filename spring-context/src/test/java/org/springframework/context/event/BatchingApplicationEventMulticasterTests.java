@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.BatchingApplicationEventMulticaster.ListenerStatistics;
+import org.springframework.context.event.BatchingApplicationEventMulticaster.OverflowPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BatchingApplicationEventMulticaster}.
+ */
+class BatchingApplicationEventMulticasterTests {
+
+	private final List<Runnable> tasks = new ArrayList<>();
+
+	private final BatchingApplicationEventMulticaster multicaster = new BatchingApplicationEventMulticaster();
+
+
+	BatchingApplicationEventMulticasterTests() {
+		this.multicaster.setTaskExecutor(this.tasks::add);
+	}
+
+
+	@Test
+	void singleDrainTaskPerListener() {
+		List<Object> received = new ArrayList<>();
+		ApplicationListener<PayloadApplicationEvent<String>> listener = event -> received.add(event.getPayload());
+		this.multicaster.addApplicationListener(listener);
+
+		publish("a");
+		publish("b");
+		publish("c");
+		assertThat(received).isEmpty();
+		assertThat(this.tasks).hasSize(1);
+
+		ListenerStatistics statistics = this.multicaster.getListenerStatistics(listener);
+		assertThat(statistics.getQueueSize()).isEqualTo(3);
+		assertThat(statistics.getEnqueuedCount()).isEqualTo(3);
+
+		runTasks();
+		assertThat(received).containsExactly("a", "b", "c");
+		statistics = this.multicaster.getListenerStatistics(listener);
+		assertThat(statistics.getQueueSize()).isEqualTo(0);
+		assertThat(statistics.getLagMillis()).isEqualTo(0);
+		assertThat(statistics.getProcessedCount()).isEqualTo(3);
+
+		publish("d");
+		assertThat(this.tasks).hasSize(1);
+		runTasks();
+		assertThat(received).containsExactly("a", "b", "c", "d");
+	}
+
+	@Test
+	void batchListenerReceivesQueuedEvents() {
+		List<Integer> batchSizes = new ArrayList<>();
+		BatchApplicationListener<ApplicationEvent> listener = events -> batchSizes.add(events.size());
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setMaxBatchSize(2);
+
+		publish("a");
+		publish("b");
+		publish("c");
+		runTasks();
+		assertThat(batchSizes).containsExactly(2, 1);
+	}
+
+	@Test
+	void dropOnOverflow() {
+		List<Object> received = new ArrayList<>();
+		ApplicationListener<PayloadApplicationEvent<String>> listener = event -> received.add(event.getPayload());
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setQueueCapacity(2);
+		this.multicaster.setOverflowPolicy(OverflowPolicy.DROP);
+
+		publish("a");
+		publish("b");
+		publish("c");
+		runTasks();
+		assertThat(received).containsExactly("a", "b");
+		assertThat(this.multicaster.getListenerStatistics(listener).getDroppedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void callerRunsOnOverflow() {
+		List<Object> received = new ArrayList<>();
+		ApplicationListener<PayloadApplicationEvent<String>> listener = event -> received.add(event.getPayload());
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setQueueCapacity(2);
+		this.multicaster.setOverflowPolicy(OverflowPolicy.CALLER_RUNS);
+
+		publish("a");
+		publish("b");
+		publish("c");
+		assertThat(received).containsExactly("c");
+		runTasks();
+		assertThat(received).containsExactly("c", "a", "b");
+		assertThat(this.multicaster.getListenerStatistics(listener).getCallerRunsCount()).isEqualTo(1);
+	}
+
+	@Test
+	void listenerErrorDoesNotStopDraining() {
+		List<Object> received = new ArrayList<>();
+		ApplicationListener<PayloadApplicationEvent<String>> listener = event -> {
+			if (event.getPayload().equals("b")) {
+				throw new IllegalStateException("Test exception");
+			}
+			received.add(event.getPayload());
+		};
+		this.multicaster.addApplicationListener(listener);
+
+		publish("a");
+		publish("b");
+		publish("c");
+		runTasks();
+		assertThat(received).containsExactly("a", "c");
+
+		publish("d");
+		runTasks();
+		assertThat(received).containsExactly("a", "c", "d");
+	}
+
+	@Test
+	void synchronousWithoutTaskExecutor() {
+		BatchingApplicationEventMulticaster multicaster = new BatchingApplicationEventMulticaster();
+		List<Object> received = new ArrayList<>();
+		ApplicationListener<PayloadApplicationEvent<String>> listener = event -> received.add(event.getPayload());
+		multicaster.addApplicationListener(listener);
+
+		multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "a"));
+		assertThat(received).containsExactly("a");
+		assertThat(multicaster.getListenerStatistics()).isEmpty();
+	}
+
+
+	private void publish(String payload) {
+		this.multicaster.multicastEvent(new PayloadApplicationEvent<>(this, payload));
+	}
+
+	private void runTasks() {
+		while (!this.tasks.isEmpty()) {
+			this.tasks.remove(0).run();
+		}
+	}
+
+}
@@ -66,6 +66,19 @@ public class CachedExpressionEvaluatorTests {
 		assertThat(expressionEvaluator.testCache.size()).as("Cached expression should be based on type").isEqualTo(2);
 	}
 
+	@Test
+	public void cacheArgumentVariables() throws Exception {
+		Method method = getClass().getDeclaredMethod("hasParsedExpression", String.class);
+		MethodArgumentVariables argumentVariables = expressionEvaluator.getArgumentVariables(method);
+		assertThat(expressionEvaluator.getArgumentVariables(method)).isSameAs(argumentVariables);
+
+		Object[] arguments = new Object[] {"value"};
+		assertThat(argumentVariables.getArgument("expression", arguments)).isEqualTo("value");
+		assertThat(argumentVariables.getArgument("a0", arguments)).isEqualTo("value");
+		assertThat(argumentVariables.getArgument("p0", arguments)).isEqualTo("value");
+		assertThat(argumentVariables.getArgument("a1", arguments)).isNull();
+	}
+
 	private void hasParsedExpression(String expression) {
 		verify(expressionEvaluator.getParser(), times(1)).parseExpression(expression);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -125,6 +125,46 @@ public class MethodBasedEvaluationContextTests {
 		assertThat(context.lookupVariable("vararg")).isEqualTo(new Object[] {"hello", "hi"});
 	}
 
+	@Test
+	public void preparedArgumentVariables() {
+		Method method = ReflectionUtils.findMethod(SampleMethods.class, "hello", String.class, Boolean.class);
+		MethodArgumentVariables argumentVariables = MethodArgumentVariables.forMethod(method, this.paramDiscover);
+		MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(this, method,
+				new Object[] {"test", true}, argumentVariables);
+
+		assertThat(context.lookupVariable("a0")).isEqualTo("test");
+		assertThat(context.lookupVariable("p0")).isEqualTo("test");
+		assertThat(context.lookupVariable("foo")).isEqualTo("test");
+
+		assertThat(context.lookupVariable("a1")).isEqualTo(true);
+		assertThat(context.lookupVariable("p1")).isEqualTo(true);
+		assertThat(context.lookupVariable("flag")).isEqualTo(true);
+
+		assertThat(context.lookupVariable("a2")).isNull();
+		assertThat(context.lookupVariable("p2")).isNull();
+
+		context.setVariable("foo", "explicit");
+		assertThat(context.lookupVariable("foo")).isEqualTo("explicit");
+		assertThat(context.lookupVariable("a0")).isEqualTo("test");
+	}
+
+	@Test
+	public void preparedArgumentVariablesWithVarArgs() {
+		Method method = ReflectionUtils.findMethod(SampleMethods.class, "hello", Boolean.class, String[].class);
+		MethodArgumentVariables argumentVariables = MethodArgumentVariables.forMethod(method, this.paramDiscover);
+
+		MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(this, method,
+				new Object[] {null, "hello", "hi"}, argumentVariables);
+		assertThat(context.lookupVariable("flag")).isNull();
+		assertThat(context.lookupVariable("vararg")).isEqualTo(new Object[] {"hello", "hi"});
+
+		context = new MethodBasedEvaluationContext(this, method, new Object[] {null, "hello"}, argumentVariables);
+		assertThat(context.lookupVariable("vararg")).isEqualTo("hello");
+
+		context = new MethodBasedEvaluationContext(this, method, new Object[] {null}, argumentVariables);
+		assertThat(context.lookupVariable("vararg")).isNull();
+	}
+
 	private MethodBasedEvaluationContext createEvaluationContext(Method method, Object... args) {
 		return new MethodBasedEvaluationContext(this, method, args, this.paramDiscover);
 	}
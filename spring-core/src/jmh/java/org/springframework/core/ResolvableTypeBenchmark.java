@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ResolvableType}, covering the lookups and generic
+ * assignability checks performed for by-type bean resolution.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@Benchmark
+	public void forField(BenchmarkState state, Blackhole bh) {
+		bh.consume(ResolvableType.forField(state.listField));
+	}
+
+	@Benchmark
+	public void forMethodParameter(BenchmarkState state, Blackhole bh) {
+		bh.consume(ResolvableType.forMethodParameter(state.mapParameter));
+	}
+
+	@Benchmark
+	public void isAssignableFromClassWithGenerics(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.listType.isAssignableFrom(state.stringListType));
+	}
+
+	@Benchmark
+	public void isAssignableFromNestedGenerics(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.mapType.isAssignableFrom(state.integerListMapType));
+	}
+
+	@Benchmark
+	public void isAssignableFromForClassWithGenerics(BenchmarkState state, Blackhole bh) {
+		bh.consume(ResolvableType.forClassWithGenerics(List.class, String.class).isAssignableFrom(state.listType));
+	}
+
+	@Benchmark
+	public void isInstance(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.listType.isInstance(state.stringList));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		Field listField;
+
+		MethodParameter mapParameter;
+
+		ResolvableType listType;
+
+		ResolvableType mapType;
+
+		ResolvableType stringListType;
+
+		ResolvableType integerListMapType;
+
+		StringList stringList;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.listField = Injected.class.getField("list");
+			this.mapParameter = new MethodParameter(Injected.class.getMethod("setMap", Map.class), 0);
+			this.listType = ResolvableType.forField(this.listField);
+			this.mapType = ResolvableType.forMethodParameter(this.mapParameter);
+			this.stringListType = ResolvableType.forClass(StringList.class);
+			this.integerListMapType = ResolvableType.forClass(IntegerListMap.class);
+			this.stringList = new StringList();
+		}
+	}
+
+
+	public static class Injected {
+
+		public List<String> list;
+
+		public void setMap(Map<String, List<? extends Number>> map) {
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	static class StringList extends ArrayList<String> {
+	}
+
+
+	@SuppressWarnings("serial")
+	static class IntegerListMap extends HashMap<String, List<Integer>> {
+	}
+
+}
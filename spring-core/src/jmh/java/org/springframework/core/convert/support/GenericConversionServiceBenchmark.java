@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -102,6 +102,35 @@ public class GenericConversionServiceBenchmark {
 	}
 
 
+	@Benchmark
+	public void convertStringToIntegerWithConversionService(ScalarBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.source, state.sourceTypeDesc, state.targetTypeDesc));
+	}
+
+	@Benchmark
+	public void convertStringToIntegerBaseline(ScalarBenchmarkState state, Blackhole bh) {
+		bh.consume(Integer.valueOf(state.source));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ScalarBenchmarkState extends BenchmarkState {
+
+		String source;
+
+		TypeDescriptor sourceTypeDesc;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.conversionService = new DefaultConversionService();
+			this.conversionService.prepareConverters(String.class, Integer.class);
+			this.source = "42";
+			this.sourceTypeDesc = TypeDescriptor.valueOf(String.class);
+			this.targetTypeDesc = TypeDescriptor.valueOf(Integer.class);
+		}
+	}
+
+
 	@State(Scope.Benchmark)
 	public static class BenchmarkState {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -94,6 +94,9 @@ public class ResolvableType implements Serializable {
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	private static final ConcurrentReferenceHashMap<AssignabilityKey, Boolean> assignabilityCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * The underlying Java type being managed.
@@ -260,7 +263,7 @@ public class ResolvableType implements Serializable {
 	 * @see #isAssignableFrom(ResolvableType)
 	 */
 	public boolean isAssignableFrom(Class<?> other) {
-		return isAssignableFrom(forClass(other), null);
+		return isAssignableFrom(forClass(other));
 	}
 
 	/**
@@ -275,7 +278,20 @@ public class ResolvableType implements Serializable {
 	 * {@code ResolvableType}; {@code false} otherwise
 	 */
 	public boolean isAssignableFrom(ResolvableType other) {
-		return isAssignableFrom(other, null);
+		Assert.notNull(other, "ResolvableType must not be null");
+		if (!(this.type instanceof ParameterizedType) || other == NONE) {
+			return isAssignableFrom(other, null);
+		}
+
+		// Recursive generics check: memoize its outcome for equal pairs of types
+		AssignabilityKey key = new AssignabilityKey(this, other);
+		Boolean assignable = assignabilityCache.get(key);
+		if (assignable == null) {
+			assignable = isAssignableFrom(other, null);
+			assignabilityCache.purgeUnreferencedEntries();
+			assignabilityCache.put(key, assignable);
+		}
+		return assignable;
 	}
 
 	private boolean isAssignableFrom(ResolvableType other, @Nullable Map<Type, Type> matchedBefore) {
@@ -1430,13 +1446,13 @@ public class ResolvableType implements Serializable {
 			return new ResolvableType(type, typeProvider, variableResolver, (ResolvableType) null);
 		}
 
-		// Purge empty entries on access since we don't have a clean-up thread or the like.
-		cache.purgeUnreferencedEntries();
-
 		// Check the cache - we may have a ResolvableType which has been resolved before...
 		ResolvableType resultType = new ResolvableType(type, typeProvider, variableResolver);
 		ResolvableType cachedType = cache.get(resultType);
 		if (cachedType == null) {
+			// Purge empty entries on cache miss since we don't have a clean-up thread or the like.
+			// (A lookup purges the segment that it accesses already.)
+			cache.purgeUnreferencedEntries();
 			cachedType = new ResolvableType(type, typeProvider, variableResolver, resultType.hash);
 			cache.put(cachedType, cachedType);
 		}
@@ -1450,6 +1466,7 @@ public class ResolvableType implements Serializable {
 	 */
 	public static void clearCache() {
 		cache.clear();
+		assignabilityCache.clear();
 		SerializableTypeWrapper.cache.clear();
 	}
 
@@ -1528,6 +1545,44 @@ public class ResolvableType implements Serializable {
 	}
 
 
+	/**
+	 * Cache key for the outcome of {@link #isAssignableFrom(ResolvableType)}.
+	 * Equal types (including their variable resolution context) always
+	 * lead to the same outcome.
+	 */
+	private static final class AssignabilityKey {
+
+		private final ResolvableType type;
+
+		private final ResolvableType other;
+
+		private final int hash;
+
+		AssignabilityKey(ResolvableType type, ResolvableType other) {
+			this.type = type;
+			this.other = other;
+			this.hash = 31 * type.hashCode() + other.hashCode();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof AssignabilityKey)) {
+				return false;
+			}
+			AssignabilityKey otherKey = (AssignabilityKey) other;
+			return (this.type.equals(otherKey.type) && this.other.equals(otherKey.other));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+
+
 	private static final class SyntheticParameterizedType implements ParameterizedType, Serializable {
 
 		private final Type rawType;
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * Compile-time index of the annotations declared on the methods, fields and
+ * constructors of application classes, as generated by the
+ * {@code spring-context-indexer} annotation processor into
+ * {@value #MEMBERS_RESOURCE_LOCATION}.
+ *
+ * <p>Each indexed type is mapped to the names of all annotation types present
+ * on its declared members, directly or as meta-annotations. This allows
+ * annotation post-processors to skip the reflective introspection of classes
+ * which are known not to declare any relevant members: see
+ * {@link #isCandidateClass(Class, Collection)}. Types which have not been
+ * indexed are always considered candidates.
+ *
+ * @since 5.3.7
+ * @see AnnotationUtils#isCandidateClass(Class, Collection)
+ */
+public final class AnnotatedMembersIndex {
+
+	/**
+	 * The location to look for indexed members.
+	 * <p>Can be present in multiple JAR files.
+	 */
+	public static final String MEMBERS_RESOURCE_LOCATION = "META-INF/spring.members";
+
+	/**
+	 * System property that instructs Spring to ignore compile-time indexes,
+	 * shared with the candidate components index in {@code spring-context}.
+	 */
+	private static final String IGNORE_INDEX = "spring.index.ignore";
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
+
+	private static final AnnotatedMembersIndex EMPTY = new AnnotatedMembersIndex(Collections.emptyMap());
+
+	private static final Log logger = LogFactory.getLog(AnnotatedMembersIndex.class);
+
+	private static final Map<ClassLoader, AnnotatedMembersIndex> cache = new ConcurrentReferenceHashMap<>();
+
+
+	private final Map<String, Set<String>> memberAnnotations;
+
+
+	private AnnotatedMembersIndex(Map<String, Set<String>> memberAnnotations) {
+		this.memberAnnotations = memberAnnotations;
+	}
+
+
+	/**
+	 * Return whether this index does not contain any types.
+	 */
+	public boolean isEmpty() {
+		return this.memberAnnotations.isEmpty();
+	}
+
+	/**
+	 * Return the names of the annotation types present on the declared members
+	 * of the given type, including meta-annotations.
+	 * @param typeName the fully-qualified name of the type
+	 * @return the annotation type names, or {@code null} if the type has not been indexed
+	 */
+	@Nullable
+	public Set<String> getMemberAnnotationTypes(String typeName) {
+		return this.memberAnnotations.get(typeName);
+	}
+
+	/**
+	 * Determine whether the given class is a candidate for carrying the specified
+	 * annotation on one of its methods, fields or constructors.
+	 * @param clazz the class to introspect
+	 * @param annotationType the searchable annotation type
+	 * @return {@code false} if the index knows that the class does not declare
+	 * such members, {@code true} otherwise
+	 * @see #isCandidateClass(Class, Collection)
+	 */
+	public boolean isCandidateClass(Class<?> clazz, Class<? extends Annotation> annotationType) {
+		return isCandidateClass(clazz, Collections.singleton(annotationType));
+	}
+
+	/**
+	 * Determine whether the given class is a candidate for carrying one of the
+	 * specified annotations on its methods, fields or constructors.
+	 * <p>The class is not a candidate only if it and all of its superclasses and
+	 * interfaces have been indexed without any of the given annotations being
+	 * present on their members. Annotation types in the {@code java} package
+	 * are not covered by the index, always turning the class into a candidate.
+	 * @param clazz the class to introspect
+	 * @param annotationTypes the searchable annotation types
+	 * @return {@code false} if the index knows that the class does not declare
+	 * such members, {@code true} otherwise
+	 */
+	public boolean isCandidateClass(Class<?> clazz, Collection<Class<? extends Annotation>> annotationTypes) {
+		if (this.memberAnnotations.isEmpty()) {
+			return true;
+		}
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			if (annotationType.getName().startsWith("java.")) {
+				return true;
+			}
+		}
+		return isCandidateType(clazz, annotationTypes, new HashSet<>());
+	}
+
+	private boolean isCandidateType(Class<?> type, Collection<Class<? extends Annotation>> annotationTypes,
+			Set<Class<?>> visited) {
+
+		if (type == Object.class || type.getName().startsWith("java.") || !visited.add(type)) {
+			return false;
+		}
+		Set<String> indexedAnnotationTypes = this.memberAnnotations.get(type.getName());
+		if (indexedAnnotationTypes == null) {
+			return true;
+		}
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			if (indexedAnnotationTypes.contains(annotationType.getName())) {
+				return true;
+			}
+		}
+		Class<?> superclass = type.getSuperclass();
+		if (superclass != null && isCandidateType(superclass, annotationTypes, visited)) {
+			return true;
+		}
+		for (Class<?> ifc : type.getInterfaces()) {
+			if (isCandidateType(ifc, annotationTypes, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Load the {@link AnnotatedMembersIndex} from {@value #MEMBERS_RESOURCE_LOCATION},
+	 * using the given class loader. If no index is available, an empty index is
+	 * returned, which considers every class a candidate.
+	 * @param classLoader the ClassLoader to use for loading
+	 * (can be {@code null} to use the default)
+	 * @return the index to use (never {@code null})
+	 * @throws IllegalStateException if any module index cannot be loaded
+	 */
+	public static AnnotatedMembersIndex forClassLoader(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = AnnotatedMembersIndex.class.getClassLoader();
+			if (classLoaderToUse == null) {
+				return EMPTY;
+			}
+		}
+		return cache.computeIfAbsent(classLoaderToUse, AnnotatedMembersIndex::loadIndex);
+	}
+
+	private static AnnotatedMembersIndex loadIndex(ClassLoader classLoader) {
+		if (shouldIgnoreIndex) {
+			return EMPTY;
+		}
+		try {
+			Enumeration<URL> urls = classLoader.getResources(MEMBERS_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return EMPTY;
+			}
+			Map<String, Set<String>> memberAnnotations = new HashMap<>();
+			int count = 0;
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
+				properties.forEach((type, values) -> {
+					Set<String> annotationTypes = memberAnnotations.computeIfAbsent((String) type, key -> new HashSet<>());
+					Collections.addAll(annotationTypes, StringUtils.commaDelimitedListToStringArray((String) values));
+				});
+				count++;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + count + " annotated members index(es) with " +
+						memberAnnotations.size() + " types");
+			}
+			return (!memberAnnotations.isEmpty() ? new AnnotatedMembersIndex(memberAnnotations) : EMPTY);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location [" +
+					MEMBERS_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Summary of the annotations present on the fields, constructors and methods
+ * declared by a class, directly or as meta-annotations, collected in a single
+ * reflective pass and cached until the next {@link AnnotationUtils#clearCache()}.
+ *
+ * <p>Allows annotation post-processors to share one introspection of each
+ * class, answering all of their questions from the same summary: in particular,
+ * the common case of a class without any relevant members is determined without
+ * walking its methods and fields again.
+ *
+ * @since 5.3.7
+ * @see #forClass(Class)
+ * @see #hasAnnotatedMembers(Class, Collection)
+ */
+public final class MemberAnnotations {
+
+	private static final MemberAnnotations NONE = new MemberAnnotations(
+			Collections.emptyList(), Collections.emptyList(), Collections.emptySet());
+
+	private static final Map<Class<?>, MemberAnnotations> cache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private final List<Member> members;
+
+	private final List<Set<String>> memberAnnotationTypes;
+
+	private final Set<String> annotationTypes;
+
+
+	private MemberAnnotations(List<Member> members, List<Set<String>> memberAnnotationTypes,
+			Set<String> annotationTypes) {
+
+		this.members = members;
+		this.memberAnnotationTypes = memberAnnotationTypes;
+		this.annotationTypes = annotationTypes;
+	}
+
+
+	/**
+	 * Return whether none of the declared members carries any annotation.
+	 */
+	public boolean isEmpty() {
+		return this.members.isEmpty();
+	}
+
+	/**
+	 * Return the names of all annotation types present on the declared members,
+	 * including meta-annotations and repeated annotations within containers.
+	 * <p>Annotations in {@code java.lang} and {@code org.springframework.lang}
+	 * are not included, in line with the {@link AnnotationFilter#PLAIN} filter.
+	 */
+	public Set<String> getAnnotationTypes() {
+		return this.annotationTypes;
+	}
+
+	/**
+	 * Determine whether the specified annotation is present on any of the declared members.
+	 * @param annotationType the annotation type to look for
+	 */
+	public boolean isPresent(Class<? extends Annotation> annotationType) {
+		return this.annotationTypes.contains(annotationType.getName());
+	}
+
+	/**
+	 * Return the declared members which carry the specified annotation,
+	 * directly or as a meta-annotation.
+	 * @param annotationType the annotation type to look for
+	 * @return the annotated fields, constructors and methods (in that order)
+	 */
+	public List<Member> getAnnotatedMembers(Class<? extends Annotation> annotationType) {
+		if (!isPresent(annotationType)) {
+			return Collections.emptyList();
+		}
+		List<Member> result = new ArrayList<>();
+		for (int i = 0; i < this.members.size(); i++) {
+			if (this.memberAnnotationTypes.get(i).contains(annotationType.getName())) {
+				result.add(this.members.get(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the declared members for each of the specified annotations,
+	 * determined in a single pass over the members.
+	 * <p>Annotation types in {@code java.lang} and {@code org.springframework.lang}
+	 * are not covered by the summary and never included.
+	 * @param annotationTypes the annotation types to look for
+	 * @return the annotated fields, constructors and methods (in that order)
+	 * per annotation type; annotation types without members are not included
+	 */
+	public MultiValueMap<Class<? extends Annotation>, Member> getAnnotatedMembers(
+			Collection<Class<? extends Annotation>> annotationTypes) {
+
+		MultiValueMap<Class<? extends Annotation>, Member> result = new LinkedMultiValueMap<>();
+		for (int i = 0; i < this.members.size(); i++) {
+			Set<String> types = this.memberAnnotationTypes.get(i);
+			for (Class<? extends Annotation> annotationType : annotationTypes) {
+				if (types.contains(annotationType.getName())) {
+					result.add(annotationType, this.members.get(i));
+				}
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Return the annotation summary for the members declared by the given class,
+	 * not including inherited members.
+	 * @param clazz the class to introspect
+	 * @return the (cached) summary for the class
+	 * @throws IllegalStateException if the members of the class cannot be introspected
+	 */
+	public static MemberAnnotations forClass(Class<?> clazz) {
+		MemberAnnotations memberAnnotations = cache.get(clazz);
+		if (memberAnnotations == null) {
+			memberAnnotations = introspect(clazz);
+			cache.put(clazz, memberAnnotations);
+		}
+		return memberAnnotations;
+	}
+
+	private static MemberAnnotations introspect(Class<?> clazz) {
+		if (AnnotationsScanner.hasPlainJavaAnnotationsOnly(clazz)) {
+			return NONE;
+		}
+		List<Member> members = new ArrayList<>();
+		List<Set<String>> memberAnnotationTypes = new ArrayList<>();
+		Set<String> annotationTypes = new HashSet<>();
+		ReflectionUtils.doWithLocalFields(clazz, field ->
+				addMember(field, field, members, memberAnnotationTypes, annotationTypes));
+		for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+			addMember(constructor, constructor, members, memberAnnotationTypes, annotationTypes);
+		}
+		ReflectionUtils.doWithLocalMethods(clazz, method ->
+				addMember(method, method, members, memberAnnotationTypes, annotationTypes));
+		return (!members.isEmpty() ? new MemberAnnotations(members, memberAnnotationTypes, annotationTypes) : NONE);
+	}
+
+	private static void addMember(Member member, AnnotatedElement element, List<Member> members,
+			List<Set<String>> memberAnnotationTypes, Set<String> annotationTypes) {
+
+		Set<String> types = new LinkedHashSet<>();
+		for (Annotation annotation : AnnotationsScanner.getDeclaredAnnotations(element, false)) {
+			// Include repeatable containers, which the merged view below unwraps
+			if (!AnnotationFilter.PLAIN.matches(annotation)) {
+				types.add(annotation.annotationType().getName());
+			}
+		}
+		MergedAnnotations.from(element, SearchStrategy.DIRECT).stream()
+				.forEach(annotation -> types.add(annotation.getType().getName()));
+		if (!types.isEmpty()) {
+			members.add(member);
+			memberAnnotationTypes.add(types);
+			annotationTypes.addAll(types);
+		}
+	}
+
+	/**
+	 * Determine whether the given class, any of its superclasses or any of its
+	 * interfaces declares a member carrying the specified annotation.
+	 * @param clazz the class to introspect
+	 * @param annotationType the annotation type to look for
+	 * @return {@code false} if no such member is declared; {@code true} otherwise
+	 * @see #hasAnnotatedMembers(Class, Collection)
+	 */
+	public static boolean hasAnnotatedMembers(Class<?> clazz, Class<? extends Annotation> annotationType) {
+		return hasAnnotatedMembers(clazz, Collections.singleton(annotationType));
+	}
+
+	/**
+	 * Determine whether the given class, any of its superclasses or any of its
+	 * interfaces declares a member carrying one of the specified annotations.
+	 * <p>Consults the compile-time {@link AnnotatedMembersIndex} first and the
+	 * cached {@link #forClass per-class summaries} otherwise, so that each
+	 * class gets introspected at most once for all callers. Annotation types
+	 * not covered by the summaries (such as {@code java.lang} annotations) and
+	 * classes that fail to be introspected are always reported as present, with
+	 * the failure logged like for any other annotation introspection.
+	 * @param clazz the class to introspect
+	 * @param annotationTypes the annotation types to look for
+	 * @return {@code false} if no such member is declared; {@code true} otherwise
+	 */
+	public static boolean hasAnnotatedMembers(Class<?> clazz, Collection<Class<? extends Annotation>> annotationTypes) {
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			if (AnnotationFilter.PLAIN.matches(annotationType)) {
+				return true;
+			}
+		}
+		if (!AnnotatedMembersIndex.forClassLoader(clazz.getClassLoader()).isCandidateClass(clazz, annotationTypes)) {
+			return false;
+		}
+		try {
+			return hasAnnotatedMembers(clazz, annotationTypes, new HashSet<>());
+		}
+		catch (RuntimeException | LinkageError ex) {
+			AnnotationUtils.handleIntrospectionFailure(clazz, ex);
+			return true;
+		}
+	}
+
+	private static boolean hasAnnotatedMembers(Class<?> type, Collection<Class<? extends Annotation>> annotationTypes,
+			Set<Class<?>> visited) {
+
+		if (AnnotationsScanner.hasPlainJavaAnnotationsOnly(type) || !visited.add(type)) {
+			return false;
+		}
+		MemberAnnotations memberAnnotations = forClass(type);
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			if (memberAnnotations.isPresent(annotationType)) {
+				return true;
+			}
+		}
+		Class<?> superclass = type.getSuperclass();
+		if (superclass != null && hasAnnotatedMembers(superclass, annotationTypes, visited)) {
+			return true;
+		}
+		for (Class<?> ifc : type.getInterfaces()) {
+			if (hasAnnotatedMembers(ifc, annotationTypes, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Clear the internal summary cache.
+	 */
+	static void clearCache() {
+		cache.clear();
+	}
+
+}
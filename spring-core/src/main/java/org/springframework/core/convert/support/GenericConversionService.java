@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -74,11 +75,20 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 */
 	private static final GenericConverter NO_MATCH = new NoOpConverter("NO_MATCH");
 
+	/**
+	 * Used as a class pair cache entry when the converter may depend on the
+	 * element types of a collection or map, requiring a full cache key.
+	 * This converter is never returned.
+	 */
+	private static final GenericConverter KEY_REQUIRED = new NoOpConverter("KEY_REQUIRED");
+
 
 	private final Converters converters = new Converters();
 
 	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
 
+	private final Map<Class<?>, TargetConverters> classPairCache = new ConcurrentReferenceHashMap<>(64);
+
 
 	// ConverterRegistry implementation
 
@@ -213,6 +223,24 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return convert(source, TypeDescriptor.forObject(source), targetType);
 	}
 
+	/**
+	 * Resolve and cache the converters from the given source type to each of
+	 * the given target types upfront, e.g. for the common binding targets of an
+	 * application after its context has been refreshed, so that subsequent
+	 * conversions between these types are served from the cache right away.
+	 * @param sourceType the source type to convert from
+	 * @param targetTypes the target types to convert to
+	 * @since 5.3.7
+	 * @see #canConvert(Class, Class)
+	 */
+	public void prepareConverters(Class<?> sourceType, Class<?>... targetTypes) {
+		Assert.notNull(sourceType, "Source type must not be null");
+		TypeDescriptor sourceTypeDesc = TypeDescriptor.valueOf(sourceType);
+		for (Class<?> targetType : targetTypes) {
+			getConverter(sourceTypeDesc, TypeDescriptor.valueOf(targetType));
+		}
+	}
+
 	@Override
 	public String toString() {
 		return this.converters.toString();
@@ -252,24 +280,31 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 */
 	@Nullable
 	protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
-		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
-		GenericConverter converter = this.converterCache.get(key);
-		if (converter != null) {
-			return (converter != NO_MATCH ? converter : null);
+		if (isClassOnly(sourceType) && isClassOnly(targetType)) {
+			// Fast path for descriptors without annotations and generics:
+			// look up the converter by class pair, not allocating a cache key
+			TargetConverters targetConverters = this.classPairCache.get(sourceType.getType());
+			if (targetConverters == null) {
+				targetConverters = this.classPairCache.computeIfAbsent(sourceType.getType(), key -> new TargetConverters());
+			}
+			GenericConverter converter = targetConverters.get(targetType.getType());
+			if (converter == null) {
+				converter = (hasElementTypes(sourceType) || hasElementTypes(targetType) ?
+						KEY_REQUIRED : findConverter(sourceType, targetType));
+				targetConverters.put(targetType.getType(), converter);
+			}
+			if (converter != KEY_REQUIRED) {
+				return (converter != NO_MATCH ? converter : null);
+			}
 		}
 
-		converter = this.converters.find(sourceType, targetType);
+		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
+		GenericConverter converter = this.converterCache.get(key);
 		if (converter == null) {
-			converter = getDefaultConverter(sourceType, targetType);
-		}
-
-		if (converter != null) {
+			converter = findConverter(sourceType, targetType);
 			this.converterCache.put(key, converter);
-			return converter;
 		}
-
-		this.converterCache.put(key, NO_MATCH);
-		return null;
+		return (converter != NO_MATCH ? converter : null);
 	}
 
 	/**
@@ -303,8 +338,41 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return generics;
 	}
 
+	/**
+	 * Determine whether the given descriptor is backed by a plain class,
+	 * without annotations or generic type information from a field or method
+	 * parameter. Deliberately avoids any type checks against interfaces here,
+	 * since this gets called for every conversion.
+	 */
+	private static boolean isClassOnly(TypeDescriptor typeDescriptor) {
+		return (typeDescriptor.getResolvableType().getSource() == typeDescriptor.getType() &&
+				typeDescriptor.getAnnotations().length == 0);
+	}
+
+	/**
+	 * Determine whether the given descriptor declares element types
+	 * which take part in {@link TypeDescriptor#equals} comparisons.
+	 */
+	private static boolean hasElementTypes(TypeDescriptor typeDescriptor) {
+		return (typeDescriptor.isCollection() || typeDescriptor.isMap());
+	}
+
+	/**
+	 * Search the registered converters for the given sourceType/targetType pair,
+	 * falling back to the default converter.
+	 * @return the converter to use, or {@code NO_MATCH} if none was found
+	 */
+	private GenericConverter findConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		GenericConverter converter = this.converters.find(sourceType, targetType);
+		if (converter == null) {
+			converter = getDefaultConverter(sourceType, targetType);
+		}
+		return (converter != null ? converter : NO_MATCH);
+	}
+
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.classPairCache.clear();
 	}
 
 	@Nullable
@@ -495,6 +563,28 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Cached converters for a specific source class, keyed by target class.
+	 * <p>Uses a copy-on-write identity map: lookups happen on every conversion
+	 * and need to be as cheap as possible, whereas additions are rare.
+	 */
+	private static final class TargetConverters {
+
+		private volatile Map<Class<?>, GenericConverter> converters = new IdentityHashMap<>(4);
+
+		@Nullable
+		public GenericConverter get(Class<?> targetType) {
+			return this.converters.get(targetType);
+		}
+
+		public synchronized void put(Class<?> targetType, GenericConverter converter) {
+			Map<Class<?>, GenericConverter> converters = new IdentityHashMap<>(this.converters);
+			converters.put(targetType, converter);
+			this.converters = converters;
+		}
+	}
+
+
 	/**
 	 * Manages all converters registered with the service.
 	 */
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.SystemPropertyUtils;
+
+/**
+ * {@link PropertySourcesPropertyResolver} variant which maintains a merged index
+ * of the property names exposed by all {@link EnumerablePropertySource enumerable}
+ * property sources, going straight to the property source which defines a given
+ * key instead of searching all property sources in turn. The outcome of each
+ * lookup, including the resolution of nested placeholders, is memoized as well,
+ * provided that it has been determined from indexed property sources only:
+ * property sources which may return values beyond their property names, such as
+ * non-enumerable ones, are consulted on every lookup that they take part in.
+ *
+ * <p>The index and the memoized values are discarded whenever the underlying
+ * {@link MutablePropertySources} get modified. Modifications of the content of
+ * individual property sources, e.g. through a {@code Map} backing a
+ * {@link MapPropertySource}, are not detected: this resolver is therefore only
+ * suitable for environments whose property sources are effectively immutable
+ * once added, unless {@link #clearCache()} gets called after such changes.
+ *
+ * <p>Can be used through {@link AbstractEnvironment#createPropertyResolver}:
+ * <pre class="code">
+ * public class IndexedEnvironment extends StandardEnvironment {
+ *
+ *     protected ConfigurablePropertyResolver createPropertyResolver(MutablePropertySources propertySources) {
+ *         return new IndexedPropertySourcesPropertyResolver(propertySources);
+ *     }
+ * }</pre>
+ *
+ * @since 5.3.7
+ * @see MutablePropertySources
+ */
+public class IndexedPropertySourcesPropertyResolver extends PropertySourcesPropertyResolver {
+
+	private final MutablePropertySources propertySources;
+
+	private String placeholderPrefix = SystemPropertyUtils.PLACEHOLDER_PREFIX;
+
+	@Nullable
+	private volatile PropertyIndex propertyIndex;
+
+
+	/**
+	 * Create a new resolver against the given property sources.
+	 * @param propertySources the set of {@link PropertySource} objects to use
+	 */
+	public IndexedPropertySourcesPropertyResolver(MutablePropertySources propertySources) {
+		super(propertySources);
+		this.propertySources = propertySources;
+	}
+
+
+	@Override
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		super.setPlaceholderPrefix(placeholderPrefix);
+		this.placeholderPrefix = placeholderPrefix;
+		clearCache();
+	}
+
+	@Override
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		super.setPlaceholderSuffix(placeholderSuffix);
+		clearCache();
+	}
+
+	@Override
+	public void setValueSeparator(@Nullable String valueSeparator) {
+		super.setValueSeparator(valueSeparator);
+		clearCache();
+	}
+
+	@Override
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		super.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
+		clearCache();
+	}
+
+	/**
+	 * Discard the property name index and all memoized values, e.g. after the
+	 * content of one of the property sources has been changed.
+	 */
+	public void clearCache() {
+		this.propertyIndex = null;
+	}
+
+
+	@Override
+	public boolean containsProperty(String key) {
+		return getPropertyIndex().containsProperty(key);
+	}
+
+	@Override
+	@Nullable
+	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+		PropertyIndex propertyIndex = getPropertyIndex();
+		Map<String, FoundProperty> cache = (resolveNestedPlaceholders ?
+				propertyIndex.resolvedProperties : propertyIndex.rawProperties);
+		FoundProperty property = cache.get(key);
+		if (property == null) {
+			property = propertyIndex.findProperty(key);
+			if (property.isFound() && resolveNestedPlaceholders && property.value instanceof String) {
+				String value = (String) property.value;
+				// Nested keys may in turn be looked up against any of the property sources
+				boolean indexed = (property.indexed &&
+						(propertyIndex.fullyIndexed || !value.contains(this.placeholderPrefix)));
+				property = new FoundProperty(property.propertySource, resolveNestedPlaceholders(value), indexed);
+			}
+			// Not using computeIfAbsent: nested placeholder resolution may recursively
+			// look up further keys, modifying the same map in the meantime.
+			if (property.indexed) {
+				cache.put(key, property);
+			}
+		}
+		if (!property.isFound()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Could not find key '" + key + "' in any property source");
+			}
+			return null;
+		}
+		logKeyFound(key, property.propertySource, property.value);
+		return convertValueIfNecessary(property.value, targetValueType);
+	}
+
+	private PropertyIndex getPropertyIndex() {
+		int modificationCount = this.propertySources.getModificationCount();
+		PropertyIndex propertyIndex = this.propertyIndex;
+		if (propertyIndex == null || propertyIndex.modificationCount != modificationCount) {
+			propertyIndex = new PropertyIndex(this.propertySources, modificationCount);
+			this.propertyIndex = propertyIndex;
+		}
+		return propertyIndex;
+	}
+
+
+	/**
+	 * Index of the property names in a specific state of the property sources,
+	 * along with the properties looked up against that state.
+	 */
+	private static final class PropertyIndex {
+
+		final int modificationCount;
+
+		private final List<PropertySource<?>> sources = new ArrayList<>();
+
+		private final boolean[] indexed;
+
+		private final Map<String, Integer> firstPositions = new HashMap<>();
+
+		final boolean fullyIndexed;
+
+		final Map<String, FoundProperty> rawProperties = new ConcurrentHashMap<>();
+
+		final Map<String, FoundProperty> resolvedProperties = new ConcurrentHashMap<>();
+
+		PropertyIndex(MutablePropertySources propertySources, int modificationCount) {
+			this.modificationCount = modificationCount;
+			propertySources.forEach(this.sources::add);
+			this.indexed = new boolean[this.sources.size()];
+			boolean fullyIndexed = true;
+			for (int i = 0; i < this.indexed.length; i++) {
+				PropertySource<?> propertySource = this.sources.get(i);
+				if (isIndexable(propertySource)) {
+					for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+						this.firstPositions.putIfAbsent(name, i);
+					}
+					this.indexed[i] = true;
+				}
+				else {
+					fullyIndexed = false;
+				}
+			}
+			this.fullyIndexed = fullyIndexed;
+		}
+
+		/**
+		 * Determine whether the property names of the given property source
+		 * completely describe the keys that it may return a value for.
+		 */
+		private static boolean isIndexable(PropertySource<?> propertySource) {
+			if (propertySource instanceof CompositePropertySource) {
+				for (PropertySource<?> nested : ((CompositePropertySource) propertySource).getPropertySources()) {
+					if (!isIndexable(nested)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			// SystemEnvironmentPropertySource resolves name variants beyond its property names
+			return (propertySource instanceof EnumerablePropertySource &&
+					!(propertySource instanceof SystemEnvironmentPropertySource));
+		}
+
+		boolean containsProperty(String key) {
+			if (this.firstPositions.containsKey(key)) {
+				return true;
+			}
+			for (int i = 0; i < this.indexed.length; i++) {
+				if (!this.indexed[i] && this.sources.get(i).containsProperty(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		FoundProperty findProperty(String key) {
+			Integer firstPosition = this.firstPositions.get(key);
+			int skipIndexedUntil = (firstPosition != null ? firstPosition : this.indexed.length);
+			boolean indexedOnly = true;
+			for (int i = 0; i < this.indexed.length; i++) {
+				if (i < skipIndexedUntil && this.indexed[i]) {
+					// Known to not contain the key
+					continue;
+				}
+				PropertySource<?> propertySource = this.sources.get(i);
+				Object value = propertySource.getProperty(key);
+				if (value != null) {
+					return new FoundProperty(propertySource, value, indexedOnly && this.indexed[i]);
+				}
+				indexedOnly = indexedOnly && this.indexed[i];
+			}
+			return (indexedOnly ? FoundProperty.NOT_FOUND : FoundProperty.NOT_FOUND_UNINDEXED);
+		}
+	}
+
+
+	/**
+	 * A property value along with the property source it has been found in,
+	 * and whether it has been determined from indexed property sources only.
+	 */
+	private static final class FoundProperty {
+
+		static final FoundProperty NOT_FOUND = new FoundProperty(PropertySource.named("none"), "", true);
+
+		static final FoundProperty NOT_FOUND_UNINDEXED = new FoundProperty(PropertySource.named("none"), "", false);
+
+		final PropertySource<?> propertySource;
+
+		final Object value;
+
+		final boolean indexed;
+
+		FoundProperty(PropertySource<?> propertySource, Object value, boolean indexed) {
+			this.propertySource = propertySource;
+			this.value = value;
+			this.indexed = indexed;
+		}
+
+		boolean isFound() {
+			return (this != NOT_FOUND && this != NOT_FOUND_UNINDEXED);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.core.io.support;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.JarURLConnection;
@@ -27,12 +28,18 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -46,6 +53,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.UrlResource;
 import org.springframework.core.io.VfsResource;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
@@ -169,6 +178,17 @@ import org.springframework.util.StringUtils;
  * Ant-style pattern in such a case, which will search <i>all</i> class path
  * locations that contain the root package.
  *
+ * <p><b>Large class paths:</b>
+ *
+ * <p>With {@link #setCacheJarEntries jar entry caching} enabled, the entry names
+ * of each jar file are read once and kept in a sorted index, so that subsequent
+ * patterns against the same jar file only visit the entries below their root
+ * directory, without opening the jar file again. Multiple root directories (e.g.
+ * for a "{@code classpath*:}" pattern) can be searched in parallel through
+ * {@link #setParallelRootScanning}. Each pattern resolution is reported as a
+ * "spring.core.resources.pattern-resolve" step to the configured
+ * {@link #setApplicationStartup ApplicationStartup}.
+ *
  * @author Juergen Hoeller
  * @author Colin Sampaleanu
  * @author Marius Bogoevici
@@ -205,6 +225,15 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	private boolean cacheJarEntries = false;
+
+	private boolean parallelRootScanning = false;
+
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	/** Cache of entry indexes per jar file URL. */
+	private final Map<String, JarEntryIndex> jarEntryIndexCache = new ConcurrentHashMap<>();
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -268,6 +297,83 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Specify whether to index the entry names of each jar file once and keep
+	 * that index for subsequent resolution of patterns against the same jar file.
+	 * <p>Default is "false", enumerating all entries of a jar file for every
+	 * pattern. Switch this flag to "true" for a resolver that serves many
+	 * patterns against the same (potentially large) jar files, e.g. during
+	 * component scanning of several base packages. Changes to a jar file will
+	 * not be noticed until {@link #clearCache()} is called.
+	 * @since 5.3.7
+	 * @see #clearCache()
+	 */
+	public void setCacheJarEntries(boolean cacheJarEntries) {
+		this.cacheJarEntries = cacheJarEntries;
+		if (!cacheJarEntries) {
+			clearCache();
+		}
+	}
+
+	/**
+	 * Return whether the entry names of jar files are indexed and cached.
+	 * @since 5.3.7
+	 */
+	public boolean isCacheJarEntries() {
+		return this.cacheJarEntries;
+	}
+
+	/**
+	 * Specify whether to search multiple root directories of a pattern in
+	 * parallel, using the {@link java.util.concurrent.ForkJoinPool#commonPool()
+	 * common pool}. The resulting resources keep the order of sequential resolution.
+	 * <p>Default is "false". Note that custom overrides of the template methods
+	 * for root directory matching need to be thread-safe when switching this
+	 * flag to "true".
+	 * @since 5.3.7
+	 * @see #doFindPathMatchingJarResources
+	 * @see #doFindPathMatchingFileResources
+	 */
+	public void setParallelRootScanning(boolean parallelRootScanning) {
+		this.parallelRootScanning = parallelRootScanning;
+	}
+
+	/**
+	 * Return whether multiple root directories are searched in parallel.
+	 * @since 5.3.7
+	 */
+	public boolean isParallelRootScanning() {
+		return this.parallelRootScanning;
+	}
+
+	/**
+	 * Set the {@link ApplicationStartup} to report pattern resolution steps to,
+	 * tagged with the number of root directories and matching resources.
+	 * <p>Default is {@link ApplicationStartup#DEFAULT}, i.e. no reporting.
+	 * @since 5.3.7
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} that pattern resolution steps are reported to.
+	 * @since 5.3.7
+	 */
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
+	/**
+	 * Clear the cached jar entry indexes, if any.
+	 * @since 5.3.7
+	 * @see #setCacheJarEntries
+	 */
+	public void clearCache() {
+		this.jarEntryIndexCache.clear();
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -492,34 +598,80 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	 * @see org.springframework.util.PathMatcher
 	 */
 	protected Resource[] findPathMatchingResources(String locationPattern) throws IOException {
-		String rootDirPath = determineRootDir(locationPattern);
-		String subPattern = locationPattern.substring(rootDirPath.length());
-		Resource[] rootDirResources = getResources(rootDirPath);
-		Set<Resource> result = new LinkedHashSet<>(16);
-		for (Resource rootDirResource : rootDirResources) {
-			rootDirResource = resolveRootDirResource(rootDirResource);
-			URL rootDirUrl = rootDirResource.getURL();
-			if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
-				URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
-				if (resolvedUrl != null) {
-					rootDirUrl = resolvedUrl;
+		StartupStep resolvePattern = this.applicationStartup.start("spring.core.resources.pattern-resolve")
+				.tag("locationPattern", locationPattern);
+		try {
+			String rootDirPath = determineRootDir(locationPattern);
+			String subPattern = locationPattern.substring(rootDirPath.length());
+			Resource[] rootDirResources = getResources(rootDirPath);
+			Set<Resource> result = new LinkedHashSet<>(16);
+			if (this.parallelRootScanning && rootDirResources.length > 1) {
+				List<CompletableFuture<Set<Resource>>> futures = new ArrayList<>(rootDirResources.length);
+				for (Resource rootDirResource : rootDirResources) {
+					futures.add(CompletableFuture.supplyAsync(() -> {
+						try {
+							return findRootDirMatchingResources(rootDirResource, subPattern);
+						}
+						catch (IOException ex) {
+							throw new UncheckedIOException(ex);
+						}
+					}));
+				}
+				for (CompletableFuture<Set<Resource>> future : futures) {
+					try {
+						result.addAll(future.join());
+					}
+					catch (CompletionException ex) {
+						Throwable cause = ex.getCause();
+						if (cause instanceof UncheckedIOException) {
+							throw ((UncheckedIOException) cause).getCause();
+						}
+						ReflectionUtils.rethrowRuntimeException(cause);
+					}
 				}
-				rootDirResource = new UrlResource(rootDirUrl);
 			}
-			if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
-				result.addAll(VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher()));
+			else {
+				for (Resource rootDirResource : rootDirResources) {
+					result.addAll(findRootDirMatchingResources(rootDirResource, subPattern));
+				}
 			}
-			else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
-				result.addAll(doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern));
+			if (logger.isTraceEnabled()) {
+				logger.trace("Resolved location pattern [" + locationPattern + "] to resources " + result);
 			}
-			else {
-				result.addAll(doFindPathMatchingFileResources(rootDirResource, subPattern));
+			resolvePattern.tag("roots", String.valueOf(rootDirResources.length))
+					.tag("matches", String.valueOf(result.size()));
+			return result.toArray(new Resource[0]);
+		}
+		finally {
+			resolvePattern.end();
+		}
+	}
+
+	/**
+	 * Find all resources underneath the given root directory that match the
+	 * given sub pattern, dispatching to VFS, jar or file system matching.
+	 */
+	private Set<Resource> findRootDirMatchingResources(Resource rootDirResource, String subPattern)
+			throws IOException {
+
+		rootDirResource = resolveRootDirResource(rootDirResource);
+		URL rootDirUrl = rootDirResource.getURL();
+		if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
+			URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
+			if (resolvedUrl != null) {
+				rootDirUrl = resolvedUrl;
 			}
+			rootDirResource = new UrlResource(rootDirUrl);
 		}
-		if (logger.isTraceEnabled()) {
-			logger.trace("Resolved location pattern [" + locationPattern + "] to resources " + result);
+		if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
+			return VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher());
+		}
+		else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
+			return doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern);
+		}
+		else {
+			return doFindPathMatchingFileResources(rootDirResource, subPattern);
 		}
-		return result.toArray(new Resource[0]);
 	}
 
 	/**
@@ -600,9 +752,16 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		if (con instanceof JarURLConnection) {
 			// Should usually be the case for traditional JAR files.
 			JarURLConnection jarCon = (JarURLConnection) con;
+			jarFileUrl = jarCon.getJarFileURL().toExternalForm();
+			JarEntryIndex cachedIndex = getCachedJarEntryIndex(jarFileUrl);
+			if (cachedIndex != null) {
+				// Jar file indexed before -> no need to open it again.
+				String entryName = jarCon.getEntryName();
+				return cachedIndex.findMatchingResources(
+						rootDirResource, (entryName != null ? entryName : ""), subPattern, getPathMatcher());
+			}
 			ResourceUtils.useCachesIfNecessary(jarCon);
 			jarFile = jarCon.getJarFile();
-			jarFileUrl = jarCon.getJarFileURL().toExternalForm();
 			JarEntry jarEntry = jarCon.getJarEntry();
 			rootEntryPath = (jarEntry != null ? jarEntry.getName() : "");
 			closeJarFile = !jarCon.getUseCaches();
@@ -621,13 +780,17 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 				if (separatorIndex != -1) {
 					jarFileUrl = urlFile.substring(0, separatorIndex);
 					rootEntryPath = urlFile.substring(separatorIndex + 2);  // both separators are 2 chars
-					jarFile = getJarFile(jarFileUrl);
 				}
 				else {
-					jarFile = new JarFile(urlFile);
 					jarFileUrl = urlFile;
 					rootEntryPath = "";
 				}
+				JarEntryIndex cachedIndex = getCachedJarEntryIndex(jarFileUrl);
+				if (cachedIndex != null) {
+					// Jar file indexed before -> no need to open it again.
+					return cachedIndex.findMatchingResources(rootDirResource, rootEntryPath, subPattern, getPathMatcher());
+				}
+				jarFile = (separatorIndex != -1 ? getJarFile(jarFileUrl) : new JarFile(urlFile));
 				closeJarFile = true;
 			}
 			catch (ZipException ex) {
@@ -647,6 +810,11 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 				// The Sun JRE does not return a slash here, but BEA JRockit does.
 				rootEntryPath = rootEntryPath + "/";
 			}
+			if (this.cacheJarEntries) {
+				JarEntryIndex index = new JarEntryIndex(jarFile);
+				this.jarEntryIndexCache.put(jarFileUrl, index);
+				return index.findMatchingResources(rootDirResource, rootEntryPath, subPattern, getPathMatcher());
+			}
 			Set<Resource> result = new LinkedHashSet<>(8);
 			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
 				JarEntry entry = entries.nextElement();
@@ -667,6 +835,14 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 	}
 
+	/**
+	 * Return the cached entry index for the given jar file URL, if available.
+	 */
+	@Nullable
+	private JarEntryIndex getCachedJarEntryIndex(String jarFileUrl) {
+		return (this.cacheJarEntries ? this.jarEntryIndexCache.get(jarFileUrl) : null);
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -834,6 +1010,90 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	}
 
 
+	/**
+	 * Index of the entry names in a jar file, keeping their original order
+	 * along with a sorted view for looking up all entries below a given path.
+	 */
+	private static final class JarEntryIndex {
+
+		/** Entry names in jar file order. */
+		private final String[] entryNames;
+
+		/** Positions in {@link #entryNames}, sorted by entry name. */
+		private final int[] sortedPositions;
+
+		JarEntryIndex(JarFile jarFile) {
+			List<String> names = new ArrayList<>();
+			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+				names.add(entries.nextElement().getName());
+			}
+			this.entryNames = names.toArray(new String[0]);
+			Integer[] positions = new Integer[this.entryNames.length];
+			for (int i = 0; i < positions.length; i++) {
+				positions[i] = i;
+			}
+			Arrays.sort(positions, Comparator.comparing(position -> this.entryNames[position]));
+			this.sortedPositions = new int[positions.length];
+			for (int i = 0; i < positions.length; i++) {
+				this.sortedPositions[i] = positions[i];
+			}
+		}
+
+		/**
+		 * Find all entries below the given root entry path that match the given
+		 * sub pattern, in jar file order (just like a full enumeration would).
+		 */
+		Set<Resource> findMatchingResources(Resource rootDirResource, String rootEntryPath,
+				String subPattern, PathMatcher pathMatcher) throws IOException {
+
+			if (!rootEntryPath.isEmpty() && !rootEntryPath.endsWith("/")) {
+				rootEntryPath = rootEntryPath + "/";
+			}
+			int[] matchingPositions = new int[8];
+			int matchCount = 0;
+			for (int i = findFirstSortedPosition(rootEntryPath); i < this.sortedPositions.length; i++) {
+				int position = this.sortedPositions[i];
+				String entryPath = this.entryNames[position];
+				if (!entryPath.startsWith(rootEntryPath)) {
+					break;
+				}
+				if (pathMatcher.match(subPattern, entryPath.substring(rootEntryPath.length()))) {
+					if (matchCount == matchingPositions.length) {
+						matchingPositions = Arrays.copyOf(matchingPositions, matchCount * 2);
+					}
+					matchingPositions[matchCount++] = position;
+				}
+			}
+			Arrays.sort(matchingPositions, 0, matchCount);
+			Set<Resource> result = new LinkedHashSet<>(Math.max(matchCount * 4 / 3 + 1, 8));
+			for (int i = 0; i < matchCount; i++) {
+				String entryPath = this.entryNames[matchingPositions[i]];
+				result.add(rootDirResource.createRelative(entryPath.substring(rootEntryPath.length())));
+			}
+			return result;
+		}
+
+		/**
+		 * Binary search for the first sorted position whose entry name is not
+		 * lower than the given prefix, i.e. the first candidate for a prefix match.
+		 */
+		private int findFirstSortedPosition(String prefix) {
+			int low = 0;
+			int high = this.sortedPositions.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (this.entryNames[this.sortedPositions[mid]].compareTo(prefix) < 0) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+
 	/**
 	 * Inner delegate class, avoiding a hard JBoss VFS API dependency at runtime.
 	 */
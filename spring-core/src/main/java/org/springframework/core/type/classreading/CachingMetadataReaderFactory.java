@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,11 @@ import org.springframework.lang.Nullable;
  * caching a {@link MetadataReader} instance per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>This factory is thread-safe. Class files are parsed outside of any
+ * lock, so concurrent lookups (e.g. from a parallel component scan) do not
+ * serialize on the cache; in case of a race for the same resource, the
+ * first cached {@code MetadataReader} wins.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -42,7 +47,7 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 
 	/** MetadataReader cache: either local or shared at the ResourceLoader level. */
 	@Nullable
-	private Map<Resource, MetadataReader> metadataReaderCache;
+	private volatile Map<Resource, MetadataReader> metadataReaderCache;
 
 
 	/**
@@ -116,24 +121,35 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
-		if (this.metadataReaderCache instanceof ConcurrentMap) {
+		Map<Resource, MetadataReader> cache = this.metadataReaderCache;
+		if (cache instanceof ConcurrentMap) {
 			// No synchronization necessary...
-			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
+			MetadataReader metadataReader = cache.get(resource);
 			if (metadataReader == null) {
 				metadataReader = super.getMetadataReader(resource);
-				this.metadataReaderCache.put(resource, metadataReader);
+				MetadataReader existing = cache.putIfAbsent(resource, metadataReader);
+				if (existing != null) {
+					metadataReader = existing;
+				}
 			}
 			return metadataReader;
 		}
-		else if (this.metadataReaderCache != null) {
-			synchronized (this.metadataReaderCache) {
-				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+		else if (cache != null) {
+			MetadataReader metadataReader;
+			synchronized (cache) {
+				metadataReader = cache.get(resource);
+			}
+			if (metadataReader == null) {
+				// Parse outside of the lock, allowing for concurrent parsing of different class files.
+				metadataReader = super.getMetadataReader(resource);
+				synchronized (cache) {
+					MetadataReader existing = cache.putIfAbsent(resource, metadataReader);
+					if (existing != null) {
+						metadataReader = existing;
+					}
 				}
-				return metadataReader;
 			}
+			return metadataReader;
 		}
 		else {
 			return super.getMetadataReader(resource);
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * File-based cache for the class metadata read by {@link SimpleMetadataReaderFactory},
+ * allowing an application to skip the parsing of unchanged class files on restart.
+ *
+ * <p>Cache entries are keyed by class file URL and validated against a fingerprint
+ * of the class file: size, timestamp and CRC for jar entries, size and timestamp
+ * for plain files. Class files for which no such fingerprint is available are
+ * always parsed. A cached entry holds the visitor events relevant for annotation
+ * metadata, which get replayed into the regular metadata reading visitor, so
+ * that cached and parsed metadata are indistinguishable from each other.
+ *
+ * <p>The cache file is read into memory on first use, not keeping it open, and
+ * replaced on {@link #save()} with a file containing only the entries which have
+ * been used since this cache has been created. Saving also releases the loaded
+ * entries: the file is read again when further metadata is requested afterwards.
+ * A missing, outdated or corrupt cache file is not an error: the affected classes
+ * are simply parsed.
+ *
+ * <p>A {@link #getSharedInstance() shared instance} is used by default if the
+ * {@value #CACHE_FILE_PROPERTY_NAME} property has been set, e.g. as a JVM system
+ * property. Application contexts save it at the end of their refresh and on close.
+ *
+ * @since 5.3.7
+ * @see SimpleMetadataReaderFactory#setPersistentCache
+ */
+public class PersistentMetadataCache {
+
+	/**
+	 * System property that specifies the location of the shared cache file:
+	 * {@value}. Not set by default, in which case no shared cache will be used.
+	 * @see #getSharedInstance()
+	 */
+	public static final String CACHE_FILE_PROPERTY_NAME = "spring.metadata.cache-file";
+
+	/**
+	 * System property that instructs Spring to also save the shared cache on JVM
+	 * shutdown: {@value}. Not set by default, since the shutdown hook keeps the
+	 * shared instance and its ClassLoader reachable until the JVM exits.
+	 * @see #getSharedInstance()
+	 */
+	public static final String SAVE_ON_SHUTDOWN_PROPERTY_NAME = "spring.metadata.cache-save-on-shutdown";
+
+	private static final int MAGIC = 0x534D5243;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataCache.class);
+
+	@Nullable
+	private static volatile PersistentMetadataCache sharedInstance;
+
+	private static volatile boolean sharedInstanceResolved;
+
+
+	private final Path cacheFile;
+
+	// Entries read from the cache file, or null if not loaded (yet or anymore)
+	@Nullable
+	private volatile Map<String, CacheEntry> loadedEntries;
+
+	private final Map<String, CacheEntry> usedEntries = new ConcurrentHashMap<>(256);
+
+	private volatile boolean modified;
+
+	// Whether the cache file has been saved by this instance already,
+	// in which case its entries have been used since this cache has been created
+	private boolean saved;
+
+
+	/**
+	 * Create a new PersistentMetadataCache for the given file,
+	 * loading its current content (if any) on first use.
+	 * @param cacheFile the cache file to load from and save to
+	 */
+	public PersistentMetadataCache(Path cacheFile) {
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.cacheFile = cacheFile;
+	}
+
+	private Map<String, CacheEntry> getLoadedEntries() {
+		Map<String, CacheEntry> loadedEntries = this.loadedEntries;
+		if (loadedEntries == null) {
+			synchronized (this) {
+				loadedEntries = this.loadedEntries;
+				if (loadedEntries == null) {
+					loadedEntries = loadEntries(this.cacheFile);
+					this.loadedEntries = loadedEntries;
+				}
+			}
+		}
+		return loadedEntries;
+	}
+
+	private static Map<String, CacheEntry> loadEntries(Path cacheFile) {
+		if (!Files.isRegularFile(cacheFile)) {
+			return Collections.emptyMap();
+		}
+		Map<String, CacheEntry> loadedEntries;
+		try {
+			loadedEntries = readEntries(ByteBuffer.wrap(Files.readAllBytes(cacheFile)));
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable metadata cache file [" + cacheFile + "]", ex);
+			}
+			return Collections.emptyMap();
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded " + loadedEntries.size() + " entries from metadata cache file [" + cacheFile + "]");
+		}
+		return loadedEntries;
+	}
+
+	private static Map<String, CacheEntry> readEntries(ByteBuffer buffer) {
+		if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+			return Collections.emptyMap();
+		}
+		int count = buffer.getInt();
+		Map<String, CacheEntry> entries = new HashMap<>((int) (count / 0.75f) + 1);
+		for (int i = 0; i < count; i++) {
+			String key = RecordingClassVisitor.readRequiredString(buffer);
+			Fingerprint fingerprint = new Fingerprint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+			int length = buffer.getInt();
+			int offset = buffer.position();
+			if (length < 0 || length > buffer.remaining()) {
+				throw new IllegalStateException("Truncated metadata cache file");
+			}
+			buffer.limit(offset + length);
+			ByteBuffer record = buffer.slice();
+			buffer.limit(buffer.capacity());
+			buffer.position(offset + length);
+			entries.put(key, new CacheEntry(fingerprint, record));
+		}
+		return entries;
+	}
+
+
+	/**
+	 * Return the cache file that this cache loads from and saves to.
+	 */
+	public Path getCacheFile() {
+		return this.cacheFile;
+	}
+
+	/**
+	 * Obtain a MetadataReader for the given class file resource,
+	 * replaying its cached metadata if still valid or parsing it otherwise.
+	 * @param resource the class file resource
+	 * @param classLoader the ClassLoader to use for the metadata
+	 * @return the MetadataReader for the given resource
+	 * @throws IOException in case of I/O failure while parsing the class file
+	 */
+	MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader) throws IOException {
+		URL url;
+		try {
+			url = resource.getURL();
+		}
+		catch (IOException ex) {
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+		Fingerprint fingerprint = Fingerprint.of(resource, url);
+		if (fingerprint == null) {
+			return new SimpleMetadataReader(resource, classLoader);
+		}
+
+		String key = url.toExternalForm();
+		CacheEntry entry = this.usedEntries.get(key);
+		if (entry == null) {
+			entry = getLoadedEntries().get(key);
+		}
+		if (entry != null && entry.fingerprint.equals(fingerprint)) {
+			try {
+				SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
+				RecordingClassVisitor.replay(entry.getRecord(), visitor);
+				this.usedEntries.putIfAbsent(key, entry);
+				return new SimpleMetadataReader(resource, visitor.getMetadata());
+			}
+			catch (RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring corrupt metadata cache entry for " + resource, ex);
+				}
+			}
+		}
+
+		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
+		RecordingClassVisitor recorder = new RecordingClassVisitor(visitor);
+		SimpleMetadataReader.getClassReader(resource).accept(recorder, SimpleMetadataReader.PARSING_OPTIONS);
+		this.usedEntries.put(key, new CacheEntry(fingerprint, ByteBuffer.wrap(recorder.toRecord())));
+		this.modified = true;
+		return new SimpleMetadataReader(resource, visitor.getMetadata());
+	}
+
+	/**
+	 * Write all entries used since this cache has been created to the cache file,
+	 * provided that any class file had to be parsed in the meantime, and release
+	 * the entries held in memory.
+	 * <p>The file is written to a temporary file first and then moved into place,
+	 * so that concurrently starting applications never see a partial file.
+	 * @throws IOException in case of I/O failure
+	 */
+	public synchronized void save() throws IOException {
+		if (!this.modified) {
+			release(this.usedEntries);
+			return;
+		}
+		this.modified = false;
+		Path cacheFile = this.cacheFile.toAbsolutePath();
+		Path directory = cacheFile.getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		Path tempFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+		try {
+			Map<String, CacheEntry> usedEntries = new HashMap<>(this.usedEntries);
+			Map<String, CacheEntry> entries = usedEntries;
+			if (this.saved) {
+				entries = new HashMap<>(getLoadedEntries());
+				entries.putAll(usedEntries);
+			}
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+					byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+					out.writeInt(key.length);
+					out.write(key);
+					Fingerprint fingerprint = entry.getValue().fingerprint;
+					out.writeLong(fingerprint.size);
+					out.writeLong(fingerprint.lastModified);
+					out.writeLong(fingerprint.crc);
+					ByteBuffer record = entry.getValue().getRecord();
+					byte[] bytes = new byte[record.remaining()];
+					record.get(bytes);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				}
+			}
+			try {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			this.saved = true;
+			release(usedEntries);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Saved " + entries.size() + " entries to metadata cache file [" + cacheFile + "]");
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			this.modified = true;
+			Files.deleteIfExists(tempFile);
+			throw ex;
+		}
+	}
+
+	private void release(Map<String, CacheEntry> savedEntries) {
+		this.loadedEntries = null;
+		savedEntries.forEach(this.usedEntries::remove);
+	}
+
+	private void saveOnShutdown() {
+		try {
+			save();
+		}
+		catch (IOException ex) {
+			logger.info("Could not save metadata cache file [" + this.cacheFile + "]", ex);
+		}
+	}
+
+
+	/**
+	 * Return the shared cache instance for the file specified through the
+	 * {@value #CACHE_FILE_PROPERTY_NAME} property, loading it on first access.
+	 * <p>The shared instance gets saved by application contexts. It is only saved
+	 * by a JVM shutdown hook as well if the {@value #SAVE_ON_SHUTDOWN_PROPERTY_NAME}
+	 * property has been set to {@code true}.
+	 * @return the shared instance, or {@code null} if no cache file has been specified
+	 */
+	@Nullable
+	public static PersistentMetadataCache getSharedInstance() {
+		if (!sharedInstanceResolved) {
+			synchronized (PersistentMetadataCache.class) {
+				if (!sharedInstanceResolved) {
+					String cacheFile = SpringProperties.getProperty(CACHE_FILE_PROPERTY_NAME);
+					if (StringUtils.hasText(cacheFile)) {
+						PersistentMetadataCache instance = new PersistentMetadataCache(Paths.get(cacheFile.trim()));
+						if (SpringProperties.getFlag(SAVE_ON_SHUTDOWN_PROPERTY_NAME)) {
+							Runtime.getRuntime().addShutdownHook(
+									new Thread(instance::saveOnShutdown, "spring-metadata-cache"));
+						}
+						sharedInstance = instance;
+					}
+					sharedInstanceResolved = true;
+				}
+			}
+		}
+		return sharedInstance;
+	}
+
+
+	/**
+	 * Identifies a specific version of a class file.
+	 */
+	private static final class Fingerprint {
+
+		final long size;
+
+		final long lastModified;
+
+		final long crc;
+
+		Fingerprint(long size, long lastModified, long crc) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.crc = crc;
+		}
+
+		@Nullable
+		static Fingerprint of(Resource resource, URL url) {
+			try {
+				if (ResourceUtils.isJarURL(url)) {
+					URLConnection con = url.openConnection();
+					if (!(con instanceof JarURLConnection)) {
+						return null;
+					}
+					JarURLConnection jarCon = (JarURLConnection) con;
+					ResourceUtils.useCachesIfNecessary(jarCon);
+					try {
+						JarEntry entry = jarCon.getJarEntry();
+						return (entry != null && entry.getSize() >= 0 && entry.getCrc() != -1 ?
+								new Fingerprint(entry.getSize(), entry.getTime(), entry.getCrc()) : null);
+					}
+					finally {
+						if (!jarCon.getUseCaches()) {
+							jarCon.getJarFile().close();
+						}
+					}
+				}
+				long size = resource.contentLength();
+				long lastModified = resource.lastModified();
+				return (size >= 0 && lastModified > 0 ? new Fingerprint(size, lastModified, -1) : null);
+			}
+			catch (IOException ex) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Fingerprint)) {
+				return false;
+			}
+			Fingerprint otherFingerprint = (Fingerprint) other;
+			return (this.size == otherFingerprint.size && this.lastModified == otherFingerprint.lastModified &&
+					this.crc == otherFingerprint.crc);
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(this.size) * 31 + Long.hashCode(this.crc);
+		}
+	}
+
+
+	/**
+	 * A cached record, either parsed or located in the loaded cache file.
+	 */
+	private static final class CacheEntry {
+
+		final Fingerprint fingerprint;
+
+		private final ByteBuffer record;
+
+		CacheEntry(Fingerprint fingerprint, ByteBuffer record) {
+			this.fingerprint = fingerprint;
+			this.record = record;
+		}
+
+		ByteBuffer getRecord() {
+			return this.record.duplicate();
+		}
+	}
+
+}
@@ -0,0 +1,647 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+
+/**
+ * ASM {@link ClassVisitor} that records the class file events relevant for
+ * {@link SimpleAnnotationMetadataReadingVisitor} into a compact binary record,
+ * while passing them on to a delegate visitor. The record can be
+ * {@link #replay replayed} into a fresh visitor later on, producing the same
+ * metadata without parsing the class file again.
+ *
+ * <p>Recorded are the class header, the enclosing and member class declarations,
+ * visible class annotations, and all methods with visible annotations.
+ *
+ * @since 5.3.7
+ * @see PersistentMetadataCache
+ */
+final class RecordingClassVisitor extends ClassVisitor {
+
+	private static final byte END = 0;
+
+	private static final byte VALUE = 1;
+
+	private static final byte ENUM = 2;
+
+	private static final byte ANNOTATION = 3;
+
+	private static final byte ARRAY = 4;
+
+
+	private final RecordOutput header = new RecordOutput();
+
+	private final RecordOutput innerClasses = new RecordOutput();
+
+	private final RecordOutput annotations = new RecordOutput();
+
+	private final RecordOutput methods = new RecordOutput();
+
+	private int innerClassCount;
+
+	private int annotationCount;
+
+	private int methodCount;
+
+	@Nullable
+	private String outerClassOwner;
+
+	@Nullable
+	private String outerMethodName;
+
+	@Nullable
+	private String outerMethodDescriptor;
+
+
+	RecordingClassVisitor(ClassVisitor delegate) {
+		super(SpringAsmInfo.ASM_VERSION, delegate);
+	}
+
+
+	@Override
+	public void visit(int version, int access, String name, @Nullable String signature,
+			@Nullable String superName, @Nullable String[] interfaces) {
+
+		this.header.writeInt(version);
+		this.header.writeInt(access);
+		this.header.writeString(name);
+		this.header.writeString(superName);
+		String[] interfacesToUse = (interfaces != null ? interfaces : new String[0]);
+		this.header.writeInt(interfacesToUse.length);
+		for (String interfaceName : interfacesToUse) {
+			this.header.writeString(interfaceName);
+		}
+		super.visit(version, access, name, signature, superName, interfaces);
+	}
+
+	@Override
+	public void visitOuterClass(String owner, @Nullable String name, @Nullable String descriptor) {
+		this.outerClassOwner = owner;
+		this.outerMethodName = name;
+		this.outerMethodDescriptor = descriptor;
+		super.visitOuterClass(owner, name, descriptor);
+	}
+
+	@Override
+	public void visitInnerClass(String name, @Nullable String outerName, @Nullable String innerName, int access) {
+		if (outerName != null) {
+			this.innerClasses.writeString(name);
+			this.innerClasses.writeString(outerName);
+			this.innerClasses.writeString(innerName);
+			this.innerClasses.writeInt(access);
+			this.innerClassCount++;
+		}
+		super.visitInnerClass(name, outerName, innerName, access);
+	}
+
+	@Override
+	@Nullable
+	public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+		AnnotationVisitor delegate = super.visitAnnotation(descriptor, visible);
+		if (!visible) {
+			return delegate;
+		}
+		this.annotations.writeString(descriptor);
+		this.annotationCount++;
+		return new RecordingAnnotationVisitor(this.annotations, delegate);
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String descriptor,
+			@Nullable String signature, @Nullable String[] exceptions) {
+
+		MethodVisitor delegate = super.visitMethod(access, name, descriptor, signature, exceptions);
+		return new RecordingMethodVisitor(access, name, descriptor, delegate);
+	}
+
+	/**
+	 * Return the record of all events visited so far.
+	 */
+	byte[] toRecord() {
+		RecordOutput record = new RecordOutput();
+		record.write(this.header);
+		record.writeString(this.outerClassOwner);
+		record.writeString(this.outerMethodName);
+		record.writeString(this.outerMethodDescriptor);
+		record.writeInt(this.annotationCount);
+		record.write(this.annotations);
+		record.writeInt(this.innerClassCount);
+		record.write(this.innerClasses);
+		record.writeInt(this.methodCount);
+		record.write(this.methods);
+		return record.toByteArray();
+	}
+
+
+	/**
+	 * Replay the given record into the given visitor, in the order in
+	 * which an ASM {@code ClassReader} would have visited the events.
+	 * @param record the record, as created by {@link #toRecord()}
+	 * @param visitor the visitor to replay the events into
+	 */
+	static void replay(ByteBuffer record, ClassVisitor visitor) {
+		int version = record.getInt();
+		int access = record.getInt();
+		String name = readRequiredString(record);
+		String superName = readString(record);
+		String[] interfaces = new String[record.getInt()];
+		for (int i = 0; i < interfaces.length; i++) {
+			interfaces[i] = readRequiredString(record);
+		}
+		visitor.visit(version, access, name, null, superName, interfaces);
+
+		String outerClassOwner = readString(record);
+		String outerMethodName = readString(record);
+		String outerMethodDescriptor = readString(record);
+		if (outerClassOwner != null) {
+			visitor.visitOuterClass(outerClassOwner, outerMethodName, outerMethodDescriptor);
+		}
+
+		int annotationCount = record.getInt();
+		for (int i = 0; i < annotationCount; i++) {
+			String descriptor = readRequiredString(record);
+			replayAnnotation(record, visitor.visitAnnotation(descriptor, true));
+		}
+
+		int innerClassCount = record.getInt();
+		for (int i = 0; i < innerClassCount; i++) {
+			visitor.visitInnerClass(readRequiredString(record), readString(record), readString(record), record.getInt());
+		}
+
+		int methodCount = record.getInt();
+		for (int i = 0; i < methodCount; i++) {
+			int methodAccess = record.getInt();
+			String methodName = readRequiredString(record);
+			String methodDescriptor = readRequiredString(record);
+			MethodVisitor methodVisitor = visitor.visitMethod(methodAccess, methodName, methodDescriptor, null, null);
+			int methodAnnotationCount = record.getInt();
+			for (int j = 0; j < methodAnnotationCount; j++) {
+				String descriptor = readRequiredString(record);
+				replayAnnotation(record,
+						(methodVisitor != null ? methodVisitor.visitAnnotation(descriptor, true) : null));
+			}
+			if (methodVisitor != null) {
+				methodVisitor.visitEnd();
+			}
+		}
+
+		visitor.visitEnd();
+	}
+
+	private static void replayAnnotation(ByteBuffer record, @Nullable AnnotationVisitor visitor) {
+		while (true) {
+			byte event = record.get();
+			switch (event) {
+				case END:
+					if (visitor != null) {
+						visitor.visitEnd();
+					}
+					return;
+				case VALUE: {
+					String name = readString(record);
+					Object value = readValue(record);
+					if (visitor != null) {
+						visitor.visit(name, value);
+					}
+					break;
+				}
+				case ENUM: {
+					String name = readString(record);
+					String descriptor = readRequiredString(record);
+					String value = readRequiredString(record);
+					if (visitor != null) {
+						visitor.visitEnum(name, descriptor, value);
+					}
+					break;
+				}
+				case ANNOTATION: {
+					String name = readString(record);
+					String descriptor = readRequiredString(record);
+					replayAnnotation(record, (visitor != null ? visitor.visitAnnotation(name, descriptor) : null));
+					break;
+				}
+				case ARRAY: {
+					String name = readString(record);
+					replayAnnotation(record, (visitor != null ? visitor.visitArray(name) : null));
+					break;
+				}
+				default:
+					throw new IllegalStateException("Unexpected annotation event in metadata record: " + event);
+			}
+		}
+	}
+
+	private static Object readValue(ByteBuffer record) {
+		byte type = record.get();
+		switch (type) {
+			case 'B':
+				return record.get();
+			case 'Z':
+				return (record.get() != 0);
+			case 'C':
+				return record.getChar();
+			case 'S':
+				return record.getShort();
+			case 'I':
+				return record.getInt();
+			case 'J':
+				return record.getLong();
+			case 'F':
+				return record.getFloat();
+			case 'D':
+				return record.getDouble();
+			case 's':
+				return readRequiredString(record);
+			case 'T':
+				return Type.getType(readRequiredString(record));
+			case 'b': {
+				byte[] array = new byte[record.getInt()];
+				record.get(array);
+				return array;
+			}
+			case 'z': {
+				boolean[] array = new boolean[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = (record.get() != 0);
+				}
+				return array;
+			}
+			case 'c': {
+				char[] array = new char[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = record.getChar();
+				}
+				return array;
+			}
+			case 'h': {
+				short[] array = new short[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = record.getShort();
+				}
+				return array;
+			}
+			case 'i': {
+				int[] array = new int[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = record.getInt();
+				}
+				return array;
+			}
+			case 'j': {
+				long[] array = new long[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = record.getLong();
+				}
+				return array;
+			}
+			case 'f': {
+				float[] array = new float[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = record.getFloat();
+				}
+				return array;
+			}
+			case 'd': {
+				double[] array = new double[record.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = record.getDouble();
+				}
+				return array;
+			}
+			default:
+				throw new IllegalStateException("Unexpected value type in metadata record: " + type);
+		}
+	}
+
+	/**
+	 * Read a String as written by {@link RecordOutput#writeString}.
+	 */
+	@Nullable
+	static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	static String readRequiredString(ByteBuffer buffer) {
+		String value = readString(buffer);
+		if (value == null) {
+			throw new IllegalStateException("Unexpected null String in metadata record");
+		}
+		return value;
+	}
+
+
+	/**
+	 * Records the visible annotations of a method, if any.
+	 */
+	private final class RecordingMethodVisitor extends MethodVisitor {
+
+		private final int access;
+
+		private final String name;
+
+		private final String descriptor;
+
+		@Nullable
+		private RecordOutput annotations;
+
+		private int annotationCount;
+
+		RecordingMethodVisitor(int access, String name, String descriptor, @Nullable MethodVisitor delegate) {
+			super(SpringAsmInfo.ASM_VERSION, delegate);
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+			AnnotationVisitor delegate = super.visitAnnotation(descriptor, visible);
+			if (!visible) {
+				return delegate;
+			}
+			RecordOutput annotations = this.annotations;
+			if (annotations == null) {
+				annotations = new RecordOutput();
+				this.annotations = annotations;
+			}
+			annotations.writeString(descriptor);
+			this.annotationCount++;
+			return new RecordingAnnotationVisitor(annotations, delegate);
+		}
+
+		@Override
+		public void visitEnd() {
+			super.visitEnd();
+			if (this.annotations != null) {
+				RecordOutput methods = RecordingClassVisitor.this.methods;
+				methods.writeInt(this.access);
+				methods.writeString(this.name);
+				methods.writeString(this.descriptor);
+				methods.writeInt(this.annotationCount);
+				methods.write(this.annotations);
+				RecordingClassVisitor.this.methodCount++;
+			}
+		}
+	}
+
+
+	/**
+	 * Records all events of an annotation, including nested annotations and arrays.
+	 */
+	private static final class RecordingAnnotationVisitor extends AnnotationVisitor {
+
+		private final RecordOutput output;
+
+		RecordingAnnotationVisitor(RecordOutput output, @Nullable AnnotationVisitor delegate) {
+			super(SpringAsmInfo.ASM_VERSION, delegate);
+			this.output = output;
+		}
+
+		@Override
+		public void visit(@Nullable String name, Object value) {
+			this.output.writeByte(VALUE);
+			this.output.writeString(name);
+			this.output.writeValue(value);
+			super.visit(name, value);
+		}
+
+		@Override
+		public void visitEnum(@Nullable String name, String descriptor, String value) {
+			this.output.writeByte(ENUM);
+			this.output.writeString(name);
+			this.output.writeString(descriptor);
+			this.output.writeString(value);
+			super.visitEnum(name, descriptor, value);
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(@Nullable String name, String descriptor) {
+			this.output.writeByte(ANNOTATION);
+			this.output.writeString(name);
+			this.output.writeString(descriptor);
+			return new RecordingAnnotationVisitor(this.output, super.visitAnnotation(name, descriptor));
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(@Nullable String name) {
+			this.output.writeByte(ARRAY);
+			this.output.writeString(name);
+			return new RecordingAnnotationVisitor(this.output, super.visitArray(name));
+		}
+
+		@Override
+		public void visitEnd() {
+			this.output.writeByte(END);
+			super.visitEnd();
+		}
+	}
+
+
+	/**
+	 * Growable byte array with big-endian encoding, matching {@link ByteBuffer} defaults.
+	 */
+	static final class RecordOutput {
+
+		private byte[] bytes = new byte[64];
+
+		private int size;
+
+		void writeByte(int value) {
+			ensureCapacity(1);
+			this.bytes[this.size++] = (byte) value;
+		}
+
+		void writeChar(char value) {
+			writeShort(value);
+		}
+
+		void writeShort(int value) {
+			ensureCapacity(2);
+			this.bytes[this.size++] = (byte) (value >>> 8);
+			this.bytes[this.size++] = (byte) value;
+		}
+
+		void writeInt(int value) {
+			ensureCapacity(4);
+			this.bytes[this.size++] = (byte) (value >>> 24);
+			this.bytes[this.size++] = (byte) (value >>> 16);
+			this.bytes[this.size++] = (byte) (value >>> 8);
+			this.bytes[this.size++] = (byte) value;
+		}
+
+		void writeLong(long value) {
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		void writeString(@Nullable String value) {
+			if (value == null) {
+				writeInt(-1);
+				return;
+			}
+			byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+			writeInt(encoded.length);
+			writeBytes(encoded, encoded.length);
+		}
+
+		void write(RecordOutput other) {
+			writeBytes(other.bytes, other.size);
+		}
+
+		private void writeBytes(byte[] source, int length) {
+			ensureCapacity(length);
+			System.arraycopy(source, 0, this.bytes, this.size, length);
+			this.size += length;
+		}
+
+		void writeValue(Object value) {
+			if (value instanceof Byte) {
+				writeByte('B');
+				writeByte((Byte) value);
+			}
+			else if (value instanceof Boolean) {
+				writeByte('Z');
+				writeByte((Boolean) value ? 1 : 0);
+			}
+			else if (value instanceof Character) {
+				writeByte('C');
+				writeChar((Character) value);
+			}
+			else if (value instanceof Short) {
+				writeByte('S');
+				writeShort((Short) value);
+			}
+			else if (value instanceof Integer) {
+				writeByte('I');
+				writeInt((Integer) value);
+			}
+			else if (value instanceof Long) {
+				writeByte('J');
+				writeLong((Long) value);
+			}
+			else if (value instanceof Float) {
+				writeByte('F');
+				writeInt(Float.floatToRawIntBits((Float) value));
+			}
+			else if (value instanceof Double) {
+				writeByte('D');
+				writeLong(Double.doubleToRawLongBits((Double) value));
+			}
+			else if (value instanceof String) {
+				writeByte('s');
+				writeString((String) value);
+			}
+			else if (value instanceof Type) {
+				writeByte('T');
+				writeString(((Type) value).getDescriptor());
+			}
+			else if (value instanceof byte[]) {
+				byte[] array = (byte[]) value;
+				writeByte('b');
+				writeInt(array.length);
+				writeBytes(array, array.length);
+			}
+			else if (value instanceof boolean[]) {
+				boolean[] array = (boolean[]) value;
+				writeByte('z');
+				writeInt(array.length);
+				for (boolean element : array) {
+					writeByte(element ? 1 : 0);
+				}
+			}
+			else if (value instanceof char[]) {
+				char[] array = (char[]) value;
+				writeByte('c');
+				writeInt(array.length);
+				for (char element : array) {
+					writeChar(element);
+				}
+			}
+			else if (value instanceof short[]) {
+				short[] array = (short[]) value;
+				writeByte('h');
+				writeInt(array.length);
+				for (short element : array) {
+					writeShort(element);
+				}
+			}
+			else if (value instanceof int[]) {
+				int[] array = (int[]) value;
+				writeByte('i');
+				writeInt(array.length);
+				for (int element : array) {
+					writeInt(element);
+				}
+			}
+			else if (value instanceof long[]) {
+				long[] array = (long[]) value;
+				writeByte('j');
+				writeInt(array.length);
+				for (long element : array) {
+					writeLong(element);
+				}
+			}
+			else if (value instanceof float[]) {
+				float[] array = (float[]) value;
+				writeByte('f');
+				writeInt(array.length);
+				for (float element : array) {
+					writeInt(Float.floatToRawIntBits(element));
+				}
+			}
+			else if (value instanceof double[]) {
+				double[] array = (double[]) value;
+				writeByte('d');
+				writeInt(array.length);
+				for (double element : array) {
+					writeLong(Double.doubleToRawLongBits(element));
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Unsupported annotation value type: " + value.getClass().getName());
+			}
+		}
+
+		private void ensureCapacity(int additional) {
+			if (this.size + additional > this.bytes.length) {
+				this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + additional));
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(this.bytes, this.size);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,6 +36,9 @@ public class SimpleMetadataReaderFactory implements MetadataReaderFactory {
 
 	private final ResourceLoader resourceLoader;
 
+	@Nullable
+	private PersistentMetadataCache persistentCache = PersistentMetadataCache.getSharedInstance();
+
 
 	/**
 	 * Create a new SimpleMetadataReaderFactory for the default class loader.
@@ -71,6 +74,27 @@ public class SimpleMetadataReaderFactory implements MetadataReaderFactory {
 		return this.resourceLoader;
 	}
 
+	/**
+	 * Specify a {@link PersistentMetadataCache} to obtain class metadata from,
+	 * avoiding the parsing of unchanged class files across application restarts.
+	 * <p>Default is the {@link PersistentMetadataCache#getSharedInstance() shared
+	 * instance}, if a cache file has been configured through the
+	 * {@value PersistentMetadataCache#CACHE_FILE_PROPERTY_NAME} property.
+	 * @since 5.3.7
+	 */
+	public void setPersistentCache(@Nullable PersistentMetadataCache persistentCache) {
+		this.persistentCache = persistentCache;
+	}
+
+	/**
+	 * Return the {@link PersistentMetadataCache} to obtain class metadata from, if any.
+	 * @since 5.3.7
+	 */
+	@Nullable
+	public PersistentMetadataCache getPersistentCache() {
+		return this.persistentCache;
+	}
+
 
 	@Override
 	public MetadataReader getMetadataReader(String className) throws IOException {
@@ -100,6 +124,10 @@ public class SimpleMetadataReaderFactory implements MetadataReaderFactory {
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		PersistentMetadataCache persistentCache = this.persistentCache;
+		if (persistentCache != null) {
+			return persistentCache.getMetadataReader(resource, this.resourceLoader.getClassLoader());
+		}
 		return new SimpleMetadataReader(resource, this.resourceLoader.getClassLoader());
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -1093,6 +1093,19 @@ class ResolvableTypeTests {
 		assertThatResolvableType(extendsStringList).isNotAssignableFrom(charSequenceCollection, charSequenceList, extendsCharSequenceList);
 	}
 
+	@Test
+	void isAssignableFromForSameGenericTypeInDifferentContexts() throws Exception {
+		ResolvableType charSequenceList = ResolvableType.forField(AssignmentBase.class.getField("listc"), Assignment.class);
+		ResolvableType unresolvedList = ResolvableType.forField(AssignmentBase.class.getField("listc"));
+		ResolvableType stringList = ResolvableType.forField(AssignmentBase.class.getField("lists"), Assignment.class);
+
+		// Repeated checks must not mix up the outcomes for the same underlying generic type
+		for (int i = 0; i < 2; i++) {
+			assertThatResolvableType(unresolvedList).isAssignableFrom(charSequenceList).isNotAssignableFrom(stringList);
+			assertThatResolvableType(charSequenceList).isAssignableFrom(charSequenceList).isNotAssignableFrom(unresolvedList, stringList);
+		}
+	}
+
 	@Test
 	void isAssignableFromForArrays() throws Exception {
 		ResolvableType object = ResolvableType.forField(AssignmentBase.class.getField("o"), Assignment.class);
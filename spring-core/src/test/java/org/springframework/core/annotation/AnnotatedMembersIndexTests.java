@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Enumeration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AnnotatedMembersIndex}.
+ */
+class AnnotatedMembersIndexTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	void noIndexConsidersEveryClassCandidate() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader());
+		assertThat(index.isEmpty()).isTrue();
+		assertThat(index.isCandidateClass(PlainBean.class, Listener.class)).isTrue();
+	}
+
+	@Test
+	void indexedClassWithoutMembers() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader(
+				PlainBean.class.getName() + "=" + Other.class.getName()));
+		assertThat(index.getMemberAnnotationTypes(PlainBean.class.getName())).containsExactly(Other.class.getName());
+		assertThat(index.isCandidateClass(PlainBean.class, Listener.class)).isFalse();
+		assertThat(index.isCandidateClass(PlainBean.class, Other.class)).isTrue();
+	}
+
+	@Test
+	void indexedClassWithMembers() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader(
+				ListenerBean.class.getName() + "=" + Listener.class.getName() + "," + Other.class.getName()));
+		assertThat(index.isCandidateClass(ListenerBean.class, Listener.class)).isTrue();
+	}
+
+	@Test
+	void classWithUnindexedSuperclass() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader(
+				SubBean.class.getName() + "="));
+		assertThat(index.isCandidateClass(SubBean.class, Listener.class)).isTrue();
+	}
+
+	@Test
+	void classWithIndexedHierarchy() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader(
+				SubBean.class.getName() + "=", PlainBean.class.getName() + "=", ListenerContract.class.getName() + "="));
+		assertThat(index.isCandidateClass(SubBean.class, Listener.class)).isFalse();
+	}
+
+	@Test
+	void classWithAnnotatedInterface() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader(
+				SubBean.class.getName() + "=", PlainBean.class.getName() + "=",
+				ListenerContract.class.getName() + "=" + Listener.class.getName()));
+		assertThat(index.isCandidateClass(SubBean.class, Listener.class)).isTrue();
+	}
+
+	@Test
+	void javaAnnotationIsNotCovered() throws IOException {
+		AnnotatedMembersIndex index = AnnotatedMembersIndex.forClassLoader(indexClassLoader(
+				PlainBean.class.getName() + "="));
+		assertThat(index.isCandidateClass(PlainBean.class, Deprecated.class)).isTrue();
+	}
+
+	private ClassLoader indexClassLoader(String... entries) throws IOException {
+		Path indexFile = this.tempDir.resolve("spring.members");
+		Files.write(indexFile, String.join("\n", entries).getBytes(StandardCharsets.ISO_8859_1));
+		URL indexUrl = indexFile.toUri().toURL();
+		boolean hasIndex = (entries.length > 0);
+		return new ClassLoader(getClass().getClassLoader()) {
+			@Override
+			public Enumeration<URL> getResources(String name) throws IOException {
+				if (AnnotatedMembersIndex.MEMBERS_RESOURCE_LOCATION.equals(name)) {
+					return (hasIndex ? Collections.enumeration(Collections.singleton(indexUrl)) :
+							Collections.emptyEnumeration());
+				}
+				return super.getResources(name);
+			}
+		};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Listener {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Other {
+	}
+
+
+	interface ListenerContract {
+	}
+
+
+	static class PlainBean {
+
+		@Other
+		public void method() {
+		}
+	}
+
+
+	static class ListenerBean {
+
+		@Listener
+		@Other
+		public void onEvent() {
+		}
+	}
+
+
+	static class SubBean extends PlainBean implements ListenerContract {
+	}
+
+}
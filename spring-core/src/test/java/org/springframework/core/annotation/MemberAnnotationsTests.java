@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Member;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MemberAnnotations}.
+ */
+class MemberAnnotationsTests {
+
+	@Test
+	void forClassCollectsDirectAndMetaAnnotations() {
+		MemberAnnotations memberAnnotations = MemberAnnotations.forClass(AnnotatedBean.class);
+		assertThat(memberAnnotations.isEmpty()).isFalse();
+		assertThat(memberAnnotations.getAnnotationTypes()).containsExactlyInAnyOrder(
+				Inject.class.getName(), Listener.class.getName(), MetaListener.class.getName(),
+				Task.class.getName(), Tasks.class.getName());
+	}
+
+	@Test
+	void forClassIsCached() {
+		MemberAnnotations memberAnnotations = MemberAnnotations.forClass(AnnotatedBean.class);
+		assertThat(MemberAnnotations.forClass(AnnotatedBean.class)).isSameAs(memberAnnotations);
+		AnnotationUtils.clearCache();
+		assertThat(MemberAnnotations.forClass(AnnotatedBean.class)).isNotSameAs(memberAnnotations);
+	}
+
+	@Test
+	void forClassWithoutAnnotatedMembers() {
+		MemberAnnotations memberAnnotations = MemberAnnotations.forClass(PlainBean.class);
+		assertThat(memberAnnotations.isEmpty()).isTrue();
+		assertThat(memberAnnotations.isPresent(Inject.class)).isFalse();
+	}
+
+	@Test
+	void getAnnotatedMembers() throws Exception {
+		MemberAnnotations memberAnnotations = MemberAnnotations.forClass(AnnotatedBean.class);
+		assertThat(memberAnnotations.getAnnotatedMembers(Listener.class)).containsExactlyInAnyOrder(
+				AnnotatedBean.class.getMethod("onEvent"), AnnotatedBean.class.getMethod("onMetaEvent"));
+		assertThat(memberAnnotations.getAnnotatedMembers(Inject.class)).containsExactly(
+				AnnotatedBean.class.getDeclaredField("dependency"), AnnotatedBean.class.getConstructor());
+		assertThat(MemberAnnotations.forClass(PlainBean.class).getAnnotatedMembers(Listener.class)).isEmpty();
+	}
+
+	@Test
+	void getAnnotatedMembersInBulk() throws Exception {
+		List<Class<? extends Annotation>> annotationTypes = Arrays.asList(Inject.class, MetaListener.class, Task.class);
+		MultiValueMap<Class<? extends Annotation>, Member> members =
+				MemberAnnotations.forClass(AnnotatedBean.class).getAnnotatedMembers(annotationTypes);
+		assertThat(members.keySet()).containsExactlyInAnyOrder(Inject.class, MetaListener.class, Task.class);
+		assertThat(members.get(MetaListener.class)).containsExactly(AnnotatedBean.class.getMethod("onMetaEvent"));
+		assertThat(members.get(Task.class)).containsExactly(AnnotatedBean.class.getMethod("run"));
+	}
+
+	@Test
+	void hasAnnotatedMembersOnClass() {
+		assertThat(MemberAnnotations.hasAnnotatedMembers(AnnotatedBean.class, Listener.class)).isTrue();
+		assertThat(MemberAnnotations.hasAnnotatedMembers(PlainBean.class, Listener.class)).isFalse();
+	}
+
+	@Test
+	void hasAnnotatedMembersOnSuperclass() {
+		assertThat(MemberAnnotations.hasAnnotatedMembers(AnnotatedSubBean.class, Inject.class)).isTrue();
+		assertThat(MemberAnnotations.hasAnnotatedMembers(AnnotatedSubBean.class, Task.class)).isTrue();
+	}
+
+	@Test
+	void hasAnnotatedMembersOnInterface() {
+		assertThat(MemberAnnotations.hasAnnotatedMembers(ListenerImpl.class, Listener.class)).isTrue();
+		assertThat(MemberAnnotations.hasAnnotatedMembers(ListenerImpl.class, Inject.class)).isFalse();
+	}
+
+	@Test
+	void hasAnnotatedMembersForPlainAnnotation() {
+		assertThat(MemberAnnotations.hasAnnotatedMembers(PlainBean.class, Deprecated.class)).isTrue();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Inject {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Listener {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Listener
+	@interface MetaListener {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Repeatable(Tasks.class)
+	@interface Task {
+
+		String value();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Tasks {
+
+		Task[] value();
+	}
+
+
+	static class PlainBean {
+
+		String name;
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
+	static class AnnotatedBean {
+
+		@Inject
+		Object dependency;
+
+		@Inject
+		public AnnotatedBean() {
+		}
+
+		@Listener
+		public void onEvent() {
+		}
+
+		@MetaListener
+		public void onMetaEvent() {
+		}
+
+		@Task("a")
+		@Task("b")
+		public void run() {
+		}
+	}
+
+
+	static class AnnotatedSubBean extends AnnotatedBean {
+	}
+
+
+	interface ListenerContract {
+
+		@Listener
+		void onEvent();
+	}
+
+
+	static class ListenerImpl extends PlainBean implements ListenerContract {
+
+		@Override
+		public void onEvent() {
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -430,6 +430,30 @@ class GenericConversionServiceTests {
 		assertThat(converter.getMatchAttempts() > 0).isTrue();
 	}
 
+	@Test
+	void conditionalConverterMatchedOncePerClassPair() {
+		MyConditionalConverter converter = new MyConditionalConverter();
+		conversionService.addConverter(new ColorConverter());
+		conversionService.addConverter(converter);
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		int matchAttempts = converter.getMatchAttempts();
+		assertThat(conversionService.convert("#FFFFFF", Color.class)).isEqualTo(Color.WHITE);
+		assertThat(converter.getMatchAttempts()).isEqualTo(matchAttempts);
+	}
+
+	@Test
+	void prepareConverters() {
+		MyConditionalConverter converter = new MyConditionalConverter();
+		conversionService.addConverter(new ColorConverter());
+		conversionService.addConverter(converter);
+		conversionService.prepareConverters(String.class, Color.class, Integer.class);
+		int matchAttempts = converter.getMatchAttempts();
+		assertThat(matchAttempts > 0).isTrue();
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		assertThat(conversionService.canConvert(String.class, Integer.class)).isFalse();
+		assertThat(converter.getMatchAttempts()).isEqualTo(matchAttempts);
+	}
+
 	@Test
 	void conditionalConverterFactory() {
 		MyConditionalConverterFactory converter = new MyConditionalConverterFactory();
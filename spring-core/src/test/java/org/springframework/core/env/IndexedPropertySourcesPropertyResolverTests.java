@@ -0,0 +1,196 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.testfixture.env.MockPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link IndexedPropertySourcesPropertyResolver}.
+ */
+class IndexedPropertySourcesPropertyResolverTests {
+
+	private final MutablePropertySources propertySources = new MutablePropertySources();
+
+	private final IndexedPropertySourcesPropertyResolver propertyResolver =
+			new IndexedPropertySourcesPropertyResolver(this.propertySources);
+
+
+	@Test
+	void getPropertyFromFirstDefiningSource() {
+		this.propertySources.addLast(new MockPropertySource("ps1").withProperty("a", "a1"));
+		this.propertySources.addLast(new MockPropertySource("ps2").withProperty("a", "a2").withProperty("b", "b2"));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+		assertThat(this.propertyResolver.getProperty("b")).isEqualTo("b2");
+		assertThat(this.propertyResolver.getProperty("c")).isNull();
+		assertThat(this.propertyResolver.getProperty("c", Integer.class, 42)).isEqualTo(42);
+	}
+
+	@Test
+	void getPropertyHonorsPrecedenceOfNonEnumerableSource() {
+		this.propertySources.addLast(new NonEnumerablePropertySource("ps1",
+				Collections.<String, Object>singletonMap("a", "a1")));
+		this.propertySources.addLast(new MockPropertySource("ps2").withProperty("a", "a2"));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+		assertThat(this.propertyResolver.containsProperty("a")).isTrue();
+	}
+
+	@Test
+	void getPropertyHonorsNameVariantsOfSystemEnvironment() {
+		this.propertySources.addLast(new SystemEnvironmentPropertySource("env",
+				Collections.<String, Object>singletonMap("FOO_BAR", "env")));
+		this.propertySources.addLast(new MockPropertySource("ps").withProperty("foo.bar", "ps"));
+		assertThat(this.propertyResolver.getProperty("foo.bar")).isEqualTo("env");
+		assertThat(this.propertyResolver.containsProperty("foo.bar")).isTrue();
+	}
+
+	@Test
+	void getPropertyHonorsNameVariantsWithinCompositeSource() {
+		CompositePropertySource composite = new CompositePropertySource("composite");
+		composite.addPropertySource(new SystemEnvironmentPropertySource("env",
+				Collections.<String, Object>singletonMap("FOO_BAR", "env")));
+		this.propertySources.addLast(composite);
+		this.propertySources.addLast(new MockPropertySource("ps").withProperty("foo.bar", "ps"));
+		assertThat(this.propertyResolver.getProperty("foo.bar")).isEqualTo("env");
+	}
+
+	@Test
+	void getPropertyWithExplicitNullValue() {
+		Map<String, Object> nullableProperties = new HashMap<>();
+		nullableProperties.put("a", null);
+		this.propertySources.addLast(new MapPropertySource("nullableProperties", nullableProperties));
+		this.propertySources.addLast(new MockPropertySource("ps").withProperty("a", "a2"));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a2");
+	}
+
+	@Test
+	void modificationOfPropertySourcesInvalidatesIndex() {
+		this.propertySources.addLast(new MockPropertySource("ps1").withProperty("a", "a1"));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+		assertThat(this.propertyResolver.getProperty("b")).isNull();
+
+		this.propertySources.addFirst(new MockPropertySource("ps2").withProperty("a", "a2").withProperty("b", "b2"));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a2");
+		assertThat(this.propertyResolver.getProperty("b")).isEqualTo("b2");
+
+		this.propertySources.replace("ps2", new MockPropertySource("ps2"));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+
+		this.propertySources.remove("ps1");
+		assertThat(this.propertyResolver.getProperty("a")).isNull();
+		assertThat(this.propertyResolver.containsProperty("a")).isFalse();
+	}
+
+	@Test
+	void modificationOfPropertySourceContentRequiresClearCache() {
+		MockPropertySource propertySource = new MockPropertySource("ps");
+		this.propertySources.addLast(propertySource);
+		assertThat(this.propertyResolver.getProperty("a")).isNull();
+
+		propertySource.setProperty("a", "a1");
+		assertThat(this.propertyResolver.getProperty("a")).isNull();
+		this.propertyResolver.clearCache();
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+	}
+
+	@Test
+	void propertiesFromNonEnumerableSourceAreNotMemoized() {
+		Map<String, Object> properties = new HashMap<>();
+		this.propertySources.addLast(new NonEnumerablePropertySource("ps1", properties));
+		this.propertySources.addLast(new MockPropertySource("ps2").withProperty("b", "b2"));
+		assertThat(this.propertyResolver.getProperty("a")).isNull();
+		assertThat(this.propertyResolver.getProperty("b")).isEqualTo("b2");
+
+		properties.put("a", "a1");
+		properties.put("b", "b1");
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+		assertThat(this.propertyResolver.getProperty("b")).isEqualTo("b1");
+
+		properties.put("a", "a3");
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a3");
+	}
+
+	@Test
+	void propertiesFromIndexedSourcePrecedingNonEnumerableSourceAreMemoized() {
+		MockPropertySource propertySource = new MockPropertySource("ps1").withProperty("a", "a1");
+		this.propertySources.addLast(propertySource);
+		this.propertySources.addLast(new NonEnumerablePropertySource("ps2",
+				Collections.<String, Object>singletonMap("b", "b2")));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+
+		propertySource.setProperty("a", "a2");
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("a1");
+	}
+
+	@Test
+	void resolvedPlaceholdersFromNonEnumerableSourceAreNotMemoized() {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("b", "b1");
+		this.propertySources.addLast(new MockPropertySource("ps1").withProperty("a", "${b}"));
+		this.propertySources.addLast(new NonEnumerablePropertySource("ps2", properties));
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("b1");
+
+		properties.put("b", "b2");
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("b2");
+	}
+
+	@Test
+	void resolvedPlaceholdersAreMemoized() {
+		MockPropertySource propertySource = new MockPropertySource("ps")
+				.withProperty("a", "${b}-${c:default}")
+				.withProperty("b", "b1");
+		this.propertySources.addLast(propertySource);
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("b1-default");
+		assertThat(this.propertyResolver.resolvePlaceholders("${a}")).isEqualTo("b1-default");
+
+		propertySource.setProperty("b", "b2");
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("b1-default");
+		this.propertyResolver.clearCache();
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("b2-default");
+	}
+
+	@Test
+	void unresolvableNestedPlaceholder() {
+		this.propertySources.addLast(new MockPropertySource("ps").withProperty("a", "${b}"));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.propertyResolver.getProperty("a"));
+
+		this.propertyResolver.setIgnoreUnresolvableNestedPlaceholders(true);
+		assertThat(this.propertyResolver.getProperty("a")).isEqualTo("${b}");
+	}
+
+
+	private static class NonEnumerablePropertySource extends PropertySource<Map<String, Object>> {
+
+		NonEnumerablePropertySource(String name, Map<String, Object> source) {
+			super(name, source);
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			return this.source.get(name);
+		}
+	}
+
+}
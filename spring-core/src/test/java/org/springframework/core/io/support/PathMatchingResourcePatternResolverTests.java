@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,15 +18,33 @@ package org.springframework.core.io.support;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.core.io.Resource;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.StringUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -116,6 +134,72 @@ class PathMatchingResourcePatternResolverTests {
 		assertProtocolAndFilenames(resources, "jar", CLASSES_IN_REACTOR_UTIL_ANNOTATIONS);
 	}
 
+	@Test
+	void classpathStarWithPatternInJarAndCachedJarEntries() throws IOException {
+		resolver.setCacheJarEntries(true);
+		Resource[] resources = resolver.getResources("classpath*:reactor/util/annotation/*.class");
+		assertProtocolAndFilenames(resources, "jar", CLASSES_IN_REACTOR_UTIL_ANNOTATIONS);
+		Resource[] cachedResources = resolver.getResources("classpath*:reactor/util/annotation/*.class");
+		assertThat(cachedResources).containsExactly(resources);
+		Resource[] otherResources = resolver.getResources("classpath*:reactor/util/**/*.class");
+		assertThat(otherResources).containsExactly(
+				new PathMatchingResourcePatternResolver().getResources("classpath*:reactor/util/**/*.class"));
+	}
+
+	@Test
+	void cachedJarEntriesDoNotReopenJarFile(@TempDir Path tempDir) throws IOException {
+		File jar = createJar(tempDir, "pkg/", "pkg/a.txt", "pkg/sub/", "pkg/sub/b.txt", "pkg/sub/c.xml");
+		AtomicInteger opened = new AtomicInteger();
+		resolver = new PathMatchingResourcePatternResolver(new JarClassLoader(jar, opened));
+		resolver.setCacheJarEntries(true);
+
+		assertThat(resolver.getResources("classpath*:pkg/**/*.txt")).hasSize(2);
+		assertThat(resolver.getResources("classpath*:pkg/**/*.txt")).hasSize(2);
+		assertThat(resolver.getResources("classpath*:pkg/sub/*.xml")).hasSize(1);
+		assertThat(opened.get()).isEqualTo(1);
+
+		resolver.clearCache();
+		assertThat(resolver.getResources("classpath*:pkg/**/*.txt")).hasSize(2);
+		assertThat(opened.get()).isEqualTo(2);
+	}
+
+	@Test
+	void jarFileIsReopenedWithoutCachedJarEntries(@TempDir Path tempDir) throws IOException {
+		File jar = createJar(tempDir, "pkg/", "pkg/a.txt");
+		AtomicInteger opened = new AtomicInteger();
+		resolver = new PathMatchingResourcePatternResolver(new JarClassLoader(jar, opened));
+
+		assertThat(resolver.getResources("classpath*:pkg/*.txt")).hasSize(1);
+		assertThat(resolver.getResources("classpath*:pkg/*.txt")).hasSize(1);
+		assertThat(opened.get()).isEqualTo(2);
+	}
+
+	@Test
+	void patternResolutionIsReportedAsStartupStep(@TempDir Path tempDir) throws IOException {
+		File jar = createJar(tempDir, "pkg/", "pkg/a.txt", "pkg/sub/", "pkg/sub/b.txt");
+		resolver = new PathMatchingResourcePatternResolver(new JarClassLoader(jar, new AtomicInteger()));
+		RecordingApplicationStartup applicationStartup = new RecordingApplicationStartup();
+		resolver.setApplicationStartup(applicationStartup);
+		resolver.getResources("classpath*:pkg/**/*.txt");
+
+		assertThat(applicationStartup.steps).hasSize(1);
+		RecordingStep step = applicationStartup.steps.get(0);
+		assertThat(step.getName()).isEqualTo("spring.core.resources.pattern-resolve");
+		assertThat(step.tags).containsEntry("locationPattern", "classpath*:pkg/**/*.txt")
+				.containsEntry("roots", "1")
+				.containsEntry("matches", "2");
+		assertThat(step.ended).isTrue();
+	}
+
+	@Test
+	void classpathStarWithPatternAndParallelRootScanning() throws IOException {
+		resolver.setParallelRootScanning(true);
+		resolver.setCacheJarEntries(true);
+		Resource[] resources = resolver.getResources("classpath*:org/springframework/core/io/**/*.*");
+		assertThat(resources).containsExactly(
+				new PathMatchingResourcePatternResolver().getResources("classpath*:org/springframework/core/io/**/*.*"));
+	}
+
 	@Test
 	void rootPatternRetrievalInJarFiles() throws IOException {
 		Resource[] resources = resolver.getResources("classpath*:*.dtd");
@@ -130,7 +214,21 @@ class PathMatchingResourcePatternResolverTests {
 	}
 
 
-	private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
+	private static File createJar(Path dir, String... entries) throws IOException {
+		File jar = dir.resolve("test.jar").toFile();
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			for (String entry : entries) {
+				out.putNextEntry(new JarEntry(entry));
+				if (!entry.endsWith("/")) {
+					out.write(entry.getBytes());
+				}
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+		private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
 			throws IOException {
 
 		// Uncomment the following if you encounter problems with matching against the file system
@@ -164,4 +262,128 @@ class PathMatchingResourcePatternResolverTests {
 		assertThat(Arrays.stream(filenames).anyMatch(filename::endsWith)).as(resource + " does not have a filename that matches any of the specified names").isTrue();
 	}
 
+
+	/**
+	 * ClassLoader exposing a single jar through {@link JarURLConnection JarURLConnections}
+	 * that count how often the jar file gets opened.
+	 */
+	private static class JarClassLoader extends ClassLoader {
+
+		private final File jar;
+
+		private final URLStreamHandler handler;
+
+		JarClassLoader(File jar, AtomicInteger opened) {
+			super(null);
+			this.jar = jar;
+			this.handler = new URLStreamHandler() {
+				@Override
+				protected URLConnection openConnection(URL url) throws IOException {
+					return new CountingJarURLConnection(url, jar, opened);
+				}
+			};
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			URL url = new URL(null, "jar:" + this.jar.toURI() + "!/" + name, this.handler);
+			return Collections.enumeration(Collections.singletonList(url));
+		}
+	}
+
+
+	private static class CountingJarURLConnection extends JarURLConnection {
+
+		private final File jar;
+
+		private final AtomicInteger opened;
+
+		private JarFile jarFile;
+
+		CountingJarURLConnection(URL url, File jar, AtomicInteger opened) throws IOException {
+			super(url);
+			this.jar = jar;
+			this.opened = opened;
+		}
+
+		@Override
+		public void connect() {
+		}
+
+		@Override
+		public JarFile getJarFile() throws IOException {
+			this.opened.incrementAndGet();
+			this.jarFile = new JarFile(this.jar);
+			return this.jarFile;
+		}
+
+		@Override
+		public JarEntry getJarEntry() {
+			return this.jarFile.getJarEntry(getEntryName());
+		}
+	}
+
+
+	private static class RecordingApplicationStartup implements ApplicationStartup {
+
+		private final List<RecordingStep> steps = new ArrayList<>();
+
+		@Override
+		public StartupStep start(String name) {
+			RecordingStep step = new RecordingStep(name);
+			this.steps.add(step);
+			return step;
+		}
+	}
+
+
+	private static class RecordingStep implements StartupStep {
+
+		private final String name;
+
+		private final Map<String, String> tags = new LinkedHashMap<>();
+
+		private boolean ended;
+
+		RecordingStep(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return 0;
+		}
+
+		@Override
+		public Long getParentId() {
+			return null;
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			this.tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			return Collections::emptyIterator;
+		}
+
+		@Override
+		public void end() {
+			this.ended = true;
+		}
+	}
+
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.AbstractAnnotationMetadataTests;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PersistentMetadataCache}, running the {@link AnnotationMetadata}
+ * tests against metadata replayed from a saved cache file.
+ */
+class PersistentMetadataCacheTests extends AbstractAnnotationMetadataTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@Override
+	protected AnnotationMetadata get(Class<?> source) {
+		try {
+			Path cacheFile = this.tempDir.resolve("metadata.cache");
+			SimpleMetadataReaderFactory factory = new SimpleMetadataReaderFactory(source.getClassLoader());
+			factory.setPersistentCache(new PersistentMetadataCache(cacheFile));
+			factory.getMetadataReader(source.getName());
+			factory.getPersistentCache().save();
+
+			factory.setPersistentCache(new PersistentMetadataCache(cacheFile));
+			return factory.getMetadataReader(source.getName()).getAnnotationMetadata();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Test
+	void replaysUnchangedClassFile() throws IOException {
+		CountingResource resource = copyClassFile(AnnotatedComponent.class);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		AnnotationMetadata parsed = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		cache.save();
+		assertThat(Files.exists(cacheFile)).isTrue();
+		assertThat(resource.reads.get()).isEqualTo(1);
+
+		cache = new PersistentMetadataCache(cacheFile);
+		AnnotationMetadata replayed = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		assertThat(resource.reads.get()).isEqualTo(1);
+		assertThat(replayed.getClassName()).isEqualTo(parsed.getClassName());
+		assertThat(replayed.getAnnotationTypes()).containsExactlyElementsOf(parsed.getAnnotationTypes());
+		assertThat(replayed.getAnnotationAttributes(Marker.class.getName()))
+				.isEqualTo(parsed.getAnnotationAttributes(Marker.class.getName()));
+		assertThat(replayed.getAnnotatedMethods(Marker.class.getName())).extracting(MethodMetadata::getMethodName)
+				.containsExactly("annotatedMethod");
+		assertThat(replayed.getMemberClassNames()).containsExactly(parsed.getMemberClassNames());
+	}
+
+	@Test
+	void parsesModifiedClassFile() throws IOException {
+		CountingResource resource = copyClassFile(AnnotatedComponent.class);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		cache.save();
+
+		Path classFile = resource.getFile().toPath();
+		Files.setLastModifiedTime(classFile,
+				FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 10_000));
+		cache = new PersistentMetadataCache(cacheFile);
+		AnnotationMetadata metadata = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		assertThat(resource.reads.get()).isEqualTo(2);
+		assertThat(metadata.hasAnnotation(Marker.class.getName())).isTrue();
+	}
+
+	@Test
+	void replaysFromMemoryAfterCacheFileHasBeenReplaced() throws IOException {
+		CountingResource resource = copyClassFile(AnnotatedComponent.class);
+		CountingResource otherResource = copyClassFile(Marker.class);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		cache.save();
+
+		cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(otherResource, getClass().getClassLoader());
+		Files.write(cacheFile, "not a metadata cache".getBytes(StandardCharsets.UTF_8));
+		AnnotationMetadata metadata = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		assertThat(resource.reads.get()).isEqualTo(1);
+		assertThat(metadata.hasAnnotation(Marker.class.getName())).isTrue();
+	}
+
+	@Test
+	void releasesLoadedEntriesOnSave() throws IOException {
+		CountingResource resource = copyClassFile(AnnotatedComponent.class);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		cache.save();
+
+		Files.write(cacheFile, "not a metadata cache".getBytes(StandardCharsets.UTF_8));
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		assertThat(resource.reads.get()).isEqualTo(2);
+	}
+
+	@Test
+	void keepsEntriesUsedBeforePreviousSave() throws IOException {
+		CountingResource resource = copyClassFile(AnnotatedComponent.class);
+		CountingResource otherResource = copyClassFile(Marker.class);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		cache.save();
+		cache.getMetadataReader(otherResource, getClass().getClassLoader());
+		cache.save();
+
+		cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		cache.getMetadataReader(otherResource, getClass().getClassLoader());
+		assertThat(resource.reads.get()).isEqualTo(1);
+		assertThat(otherResource.reads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void ignoresCorruptCacheFile() throws IOException {
+		CountingResource resource = copyClassFile(AnnotatedComponent.class);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		Files.write(cacheFile, "not a metadata cache".getBytes(StandardCharsets.UTF_8));
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		AnnotationMetadata metadata = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		assertThat(metadata.hasAnnotation(Marker.class.getName())).isTrue();
+		cache.save();
+
+		cache = new PersistentMetadataCache(cacheFile);
+		cache.getMetadataReader(resource, getClass().getClassLoader());
+		assertThat(resource.reads.get()).isEqualTo(1);
+	}
+
+	@Test
+	void replaysClassFileFromJar() throws IOException {
+		ClassPathResource resource = new ClassPathResource(
+				ClassUtils.convertClassNameToResourcePath(Test.class.getName()) + ClassUtils.CLASS_FILE_SUFFIX);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataCache cache = new PersistentMetadataCache(cacheFile);
+		AnnotationMetadata parsed = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		cache.save();
+
+		cache = new PersistentMetadataCache(cacheFile);
+		AnnotationMetadata replayed = cache.getMetadataReader(resource, getClass().getClassLoader()).getAnnotationMetadata();
+		assertThat(replayed.isAnnotation()).isTrue();
+		assertThat(replayed.getAnnotationTypes()).containsExactlyElementsOf(parsed.getAnnotationTypes());
+		assertThat(replayed.getAnnotationAttributes(Retention.class.getName()))
+				.isEqualTo(parsed.getAnnotationAttributes(Retention.class.getName()));
+	}
+
+	private CountingResource copyClassFile(Class<?> clazz) throws IOException {
+		Path classFile = this.tempDir.resolve(clazz.getSimpleName() + ClassUtils.CLASS_FILE_SUFFIX);
+		try (InputStream is = clazz.getResourceAsStream(ClassUtils.getClassFileName(clazz))) {
+			Files.write(classFile, FileCopyUtils.copyToByteArray(is));
+		}
+		return new CountingResource(classFile);
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.METHOD})
+	@interface Marker {
+
+		String value() default "";
+
+		int[] order() default {};
+
+		ElementType kind() default ElementType.TYPE;
+
+		Class<?> type() default Object.class;
+	}
+
+
+	@Marker(value = "component", order = {1, 2}, kind = ElementType.FIELD, type = String.class)
+	static class AnnotatedComponent {
+
+		@Marker
+		public void annotatedMethod() {
+		}
+
+		public void plainMethod() {
+		}
+
+		static class Member {
+		}
+	}
+
+
+	static class CountingResource extends FileSystemResource {
+
+		final AtomicInteger reads = new AtomicInteger();
+
+		CountingResource(Path filePath) {
+			super(filePath);
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			this.reads.incrementAndGet();
+			return super.getInputStream();
+		}
+	}
+
+}
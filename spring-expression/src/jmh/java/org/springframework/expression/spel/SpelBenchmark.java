@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,23 @@
 
 package org.springframework.expression.spel;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelCompiler;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
@@ -103,4 +108,115 @@ public class SpelBenchmark {
 		return data.expression.getValue(data.context);
 	}
 
+	@State(Scope.Benchmark)
+	public static class CompilationBenchmarkData {
+
+		@Param({"false", "true"})
+		public boolean compiled;
+
+		public Inventory inventory = new Inventory(100);
+
+		public Expression selection;
+
+		public Expression projection;
+
+		public Expression matches;
+
+		public Expression between;
+
+		public Expression power;
+
+		@Setup
+		public void setup() {
+			ExpressionParser parser = new SpelExpressionParser();
+			this.selection = parser.parseExpression("items.?[price > 50]");
+			this.projection = parser.parseExpression("items.![name]");
+			this.matches = parser.parseExpression("name matches '[a-z]+[0-9]*'");
+			this.between = parser.parseExpression("size between {10, 1000}");
+			this.power = parser.parseExpression("size^2.0d");
+			if (this.compiled) {
+				for (Expression expression : new Expression[] {
+						this.selection, this.projection, this.matches, this.between, this.power}) {
+					// Evaluate once so that the exit types are known before compiling
+					expression.getValue(this.inventory);
+					if (!SpelCompiler.compile(expression)) {
+						throw new IllegalStateException("Failed to compile " + expression.getExpressionString());
+					}
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public Object selection(CompilationBenchmarkData data) {
+		return data.selection.getValue(data.inventory);
+	}
+
+	@Benchmark
+	public Object projection(CompilationBenchmarkData data) {
+		return data.projection.getValue(data.inventory);
+	}
+
+	@Benchmark
+	public Object matches(CompilationBenchmarkData data) {
+		return data.matches.getValue(data.inventory);
+	}
+
+	@Benchmark
+	public Object between(CompilationBenchmarkData data) {
+		return data.between.getValue(data.inventory);
+	}
+
+	@Benchmark
+	public Object power(CompilationBenchmarkData data) {
+		return data.power.getValue(data.inventory);
+	}
+
+
+	public static class Inventory {
+
+		private final String name = "inventory1";
+
+		private final List<Item> items = new ArrayList<>();
+
+		public Inventory(int size) {
+			for (int i = 0; i < size; i++) {
+				this.items.add(new Item("item" + i, i));
+			}
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public List<Item> getItems() {
+			return this.items;
+		}
+
+		public int getSize() {
+			return this.items.size();
+		}
+	}
+
+
+	public static class Item {
+
+		private final String name;
+
+		private final int price;
+
+		public Item(String name, int price) {
+			this.name = name;
+			this.price = price;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getPrice() {
+			return this.price;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,9 +85,16 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this',
+	 * variables 1 and 2 are the target and the evaluation context).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
+
+	/**
+	 * The variable that {@link #loadTarget} loads from: the target passed to the
+	 * compiled expression method, unless a collection element is being processed.
+	 */
+	private int targetVariableId = 1;
 
 
 	/**
@@ -105,11 +112,27 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * Push the byte code to load the target (i.e. what was passed as the first argument
-	 * to CompiledExpression.getValue(target, context))
+	 * to CompiledExpression.getValue(target, context), or the collection element that
+	 * is currently being processed by a selection or projection)
 	 * @param mv the visitor into which the load instruction should be inserted
+	 * @see #setTargetVariableId
 	 */
 	public void loadTarget(MethodVisitor mv) {
-		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, this.targetVariableId);
+	}
+
+	/**
+	 * Specify the variable that {@link #loadTarget} loads from, e.g. the variable
+	 * holding the current element while a selection criteria is being generated.
+	 * @param targetVariableId the id of the variable to load the target from
+	 * @return the previous target variable id, to be restored afterwards
+	 * @since 5.3.7
+	 * @see #nextFreeVariableId()
+	 */
+	public int setTargetVariableId(int targetVariableId) {
+		int previous = this.targetVariableId;
+		this.targetVariableId = targetVariableId;
+		return previous;
 	}
 
 	/**
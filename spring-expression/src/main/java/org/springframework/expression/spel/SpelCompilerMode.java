@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,15 @@ public enum SpelCompilerMode {
 	 * type information changing) then that will be caught internally and the system switches back to
 	 * interpreted mode. It may subsequently compile it again later.
 	 */
-	MIXED
+	MIXED,
+
+	/**
+	 * In tiered mode, expressions behave as in {@link #MIXED} mode but get compiled in the
+	 * background once they turn out to be hot: callers keep interpreting the expression until
+	 * its compiled form is available, rather than waiting for the compiler. Expressions that
+	 * compile to identical bytecode share a single compiled class.
+	 * @since 5.3.7
+	 */
+	TIERED
 
 }
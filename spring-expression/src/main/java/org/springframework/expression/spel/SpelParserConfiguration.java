@@ -16,6 +16,8 @@
 
 package org.springframework.expression.spel;
 
+import java.util.concurrent.Executor;
+
 import org.springframework.core.SpringProperties;
 import org.springframework.lang.Nullable;
 
@@ -54,6 +56,9 @@ public class SpelParserConfiguration {
 
 	private final int maximumAutoGrowSize;
 
+	@Nullable
+	private final Executor compilerExecutor;
+
 
 	/**
 	 * Create a new {@code SpelParserConfiguration} instance with default settings.
@@ -71,6 +76,20 @@ public class SpelParserConfiguration {
 		this(compilerMode, compilerClassLoader, false, false, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * Create a new {@code SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode for the parser
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression compilation
+	 * @param compilerExecutor the executor to compile hot expressions with in
+	 * {@link SpelCompilerMode#TIERED} mode, or {@code null} for a shared default executor
+	 * @since 5.3.7
+	 */
+	public SpelParserConfiguration(@Nullable SpelCompilerMode compilerMode, @Nullable ClassLoader compilerClassLoader,
+			@Nullable Executor compilerExecutor) {
+
+		this(compilerMode, compilerClassLoader, false, false, Integer.MAX_VALUE, compilerExecutor);
+	}
+
 	/**
 	 * Create a new {@code SpelParserConfiguration} instance.
 	 * @param autoGrowNullReferences if null references should automatically grow
@@ -102,11 +121,30 @@ public class SpelParserConfiguration {
 	public SpelParserConfiguration(@Nullable SpelCompilerMode compilerMode, @Nullable ClassLoader compilerClassLoader,
 			boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize) {
 
+		this(compilerMode, compilerClassLoader, autoGrowNullReferences, autoGrowCollections, maximumAutoGrowSize, null);
+	}
+
+	/**
+	 * Create a new {@code SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode that parsers using this configuration object should use
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression compilation
+	 * @param autoGrowNullReferences if null references should automatically grow
+	 * @param autoGrowCollections if collections should automatically grow
+	 * @param maximumAutoGrowSize the maximum size that the collection can auto grow
+	 * @param compilerExecutor the executor to compile hot expressions with in
+	 * {@link SpelCompilerMode#TIERED} mode, or {@code null} for a shared default executor
+	 * @since 5.3.7
+	 */
+	public SpelParserConfiguration(@Nullable SpelCompilerMode compilerMode, @Nullable ClassLoader compilerClassLoader,
+			boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize,
+			@Nullable Executor compilerExecutor) {
+
 		this.compilerMode = (compilerMode != null ? compilerMode : defaultCompilerMode);
 		this.compilerClassLoader = compilerClassLoader;
 		this.autoGrowNullReferences = autoGrowNullReferences;
 		this.autoGrowCollections = autoGrowCollections;
 		this.maximumAutoGrowSize = maximumAutoGrowSize;
+		this.compilerExecutor = compilerExecutor;
 	}
 
 
@@ -146,4 +184,14 @@ public class SpelParserConfiguration {
 		return this.maximumAutoGrowSize;
 	}
 
+	/**
+	 * Return the executor to compile hot expressions with in
+	 * {@link SpelCompilerMode#TIERED} mode, if any.
+	 * @since 5.3.7
+	 */
+	@Nullable
+	public Executor getCompilerExecutor() {
+		return this.compilerExecutor;
+	}
+
 }
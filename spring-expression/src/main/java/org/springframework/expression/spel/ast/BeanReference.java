@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,15 @@
 
 package org.springframework.expression.spel.ast;
 
+import java.lang.reflect.Modifier;
+
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.BeanResolver;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -51,13 +56,37 @@ public class BeanReference extends SpelNodeImpl {
 					getStartPosition(), SpelMessage.NO_BEAN_RESOLVER_REGISTERED, this.beanName);
 		}
 
+		Object bean;
 		try {
-			return new TypedValue(beanResolver.resolve(state.getEvaluationContext(), this.beanName));
+			bean = beanResolver.resolve(state.getEvaluationContext(), this.beanName);
 		}
 		catch (AccessException ex) {
 			throw new SpelEvaluationException(getStartPosition(), ex, SpelMessage.EXCEPTION_DURING_BEAN_RESOLUTION,
 				this.beanName, ex.getMessage());
 		}
+		if (bean == null || !Modifier.isPublic(bean.getClass().getModifiers())) {
+			// A checkcast to a non-public type would fail in the compiled expression
+			this.exitTypeDescriptor = "Ljava/lang/Object";
+		}
+		else {
+			this.exitTypeDescriptor = CodeFlow.toDescriptorFromObject(bean);
+		}
+		return new TypedValue(bean);
+	}
+
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null);
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		cf.loadEvaluationContext(mv);
+		mv.visitLdcInsn(this.beanName);
+		mv.visitMethodInsn(INVOKESTATIC, "org/springframework/expression/spel/ast/BeanReference", "resolveBean",
+				"(Lorg/springframework/expression/EvaluationContext;Ljava/lang/String;)Ljava/lang/Object;", false);
+		CodeFlow.insertCheckCast(mv, this.exitTypeDescriptor);
+		cf.pushDescriptor(this.exitTypeDescriptor);
 	}
 
 	@Override
@@ -75,4 +104,30 @@ public class BeanReference extends SpelNodeImpl {
 		return sb.toString();
 	}
 
+
+	/**
+	 * Resolve the bean with the given name through the {@link BeanResolver}
+	 * of the given context.
+	 * <p>This is a helper method for compiled expressions.
+	 * @param context the evaluation context
+	 * @param beanName the name of the bean to resolve
+	 * @return the resolved bean
+	 * @throws SpelEvaluationException if no bean resolver is registered
+	 * or if the bean cannot be resolved
+	 * @since 5.3.7
+	 */
+	public static Object resolveBean(EvaluationContext context, String beanName) {
+		BeanResolver beanResolver = context.getBeanResolver();
+		if (beanResolver == null) {
+			throw new SpelEvaluationException(SpelMessage.NO_BEAN_RESOLVER_REGISTERED, beanName);
+		}
+		try {
+			return beanResolver.resolve(context, beanName);
+		}
+		catch (AccessException ex) {
+			throw new SpelEvaluationException(ex, SpelMessage.EXCEPTION_DURING_BEAN_RESOLUTION,
+				beanName, ex.getMessage());
+		}
+	}
+
 }
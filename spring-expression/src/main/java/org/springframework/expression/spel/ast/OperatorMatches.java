@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,11 +22,14 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.support.BooleanTypedValue;
+import org.springframework.lang.Nullable;
 
 /**
  * Implements the matches operator. Matches takes two operands:
@@ -82,7 +85,9 @@ public class OperatorMatches extends Operator {
 				this.patternCache.putIfAbsent(rightString, pattern);
 			}
 			Matcher matcher = pattern.matcher(new MatcherInput(left, new AccessCount()));
-			return BooleanTypedValue.forValue(matcher.matches());
+			boolean result = matcher.matches();
+			this.exitTypeDescriptor = "Z";
+			return BooleanTypedValue.forValue(result);
 		}
 		catch (PatternSyntaxException ex) {
 			throw new SpelEvaluationException(
@@ -94,6 +99,65 @@ public class OperatorMatches extends Operator {
 		}
 	}
 
+	/**
+	 * The operator is compilable for a literal regex: the pattern is then compiled
+	 * once into a constant of the generated class.
+	 */
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl left = getLeftOperand();
+		return (this.exitTypeDescriptor != null && getRightOperand() instanceof StringLiteral &&
+				left.isCompilable() && "Ljava/lang/String".equals(left.exitTypeDescriptor));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String regex = (String) ((StringLiteral) getRightOperand()).getLiteralValue().getValue();
+		String patternFieldName = "pattern$" + cf.nextFieldId();
+		String className = cf.getClassName();
+
+		cf.registerNewField((cw, cflow) ->
+				cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, patternFieldName, "Ljava/util/regex/Pattern;", null, null));
+		cf.registerNewClinit((mVisitor, cflow) -> {
+			mVisitor.visitLdcInsn(regex);
+			mVisitor.visitMethodInsn(INVOKESTATIC, "java/util/regex/Pattern", "compile",
+					"(Ljava/lang/String;)Ljava/util/regex/Pattern;", false);
+			mVisitor.visitFieldInsn(PUTSTATIC, className, patternFieldName, "Ljava/util/regex/Pattern;");
+		});
+
+		cf.enterCompilationScope();
+		getLeftOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		mv.visitFieldInsn(GETSTATIC, className, patternFieldName, "Ljava/util/regex/Pattern;");
+		mv.visitMethodInsn(INVOKESTATIC, "org/springframework/expression/spel/ast/OperatorMatches",
+				"matchesPattern", "(Ljava/lang/String;Ljava/util/regex/Pattern;)Z", false);
+		cf.pushDescriptor("Z");
+	}
+
+
+	/**
+	 * Check whether the given input matches the given precompiled pattern,
+	 * applying the same safeguards as the interpreted operator.
+	 * <p>This is a helper method for compiled expressions.
+	 * @param input the first operand
+	 * @param pattern the pattern specified as second operand
+	 * @return {@code true} if the input matches the pattern
+	 * @throws SpelEvaluationException if the input is {@code null} or
+	 * the pattern turns out to be too expensive to evaluate
+	 * @since 5.3.7
+	 */
+	public static boolean matchesPattern(@Nullable String input, Pattern pattern) {
+		if (input == null) {
+			throw new SpelEvaluationException(SpelMessage.INVALID_FIRST_OPERAND_FOR_MATCHES_OPERATOR, (Object) null);
+		}
+		try {
+			return pattern.matcher(new MatcherInput(input, new AccessCount())).matches();
+		}
+		catch (IllegalStateException ex) {
+			throw new SpelEvaluationException(ex, SpelMessage.FLAWED_PATTERN, pattern.pattern());
+		}
+	}
+
 
 	private static class AccessCount {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,10 +19,13 @@ package org.springframework.expression.spel.ast;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.lang.Nullable;
 import org.springframework.util.NumberUtils;
 
 /**
@@ -60,9 +63,11 @@ public class OperatorPower extends Operator {
 				return new TypedValue(leftBigInteger.pow(rightNumber.intValue()));
 			}
 			else if (leftNumber instanceof Double || rightNumber instanceof Double) {
+				this.exitTypeDescriptor = "D";
 				return new TypedValue(Math.pow(leftNumber.doubleValue(), rightNumber.doubleValue()));
 			}
 			else if (leftNumber instanceof Float || rightNumber instanceof Float) {
+				this.exitTypeDescriptor = "D";
 				return new TypedValue(Math.pow(leftNumber.floatValue(), rightNumber.floatValue()));
 			}
 
@@ -78,4 +83,65 @@ public class OperatorPower extends Operator {
 		return state.operate(Operation.POWER, leftOperand, rightOperand);
 	}
 
+	/**
+	 * The operator is compilable for floating point operands, with the
+	 * result computed through {@link Math#pow} in both cases.
+	 */
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl left = getLeftOperand();
+		SpelNodeImpl right = getRightOperand();
+		if (this.exitTypeDescriptor == null || !left.isCompilable() || !right.isCompilable()) {
+			return false;
+		}
+		String leftDesc = left.exitTypeDescriptor;
+		String rightDesc = right.exitTypeDescriptor;
+		if (!CodeFlow.isPrimitiveOrUnboxableSupportedNumber(leftDesc) ||
+				!CodeFlow.isPrimitiveOrUnboxableSupportedNumber(rightDesc)) {
+			return false;
+		}
+		char targetDesc = getTargetDescriptor(leftDesc, rightDesc);
+		return (targetDesc == 'D' || targetDesc == 'F');
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String leftDesc = getLeftOperand().exitTypeDescriptor;
+		String rightDesc = getRightOperand().exitTypeDescriptor;
+		char targetDesc = getTargetDescriptor(leftDesc, rightDesc);
+
+		cf.enterCompilationScope();
+		getLeftOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		CodeFlow.insertNumericUnboxOrPrimitiveTypeCoercion(mv, leftDesc, targetDesc);
+		if (targetDesc == 'F') {
+			mv.visitInsn(F2D);
+		}
+		cf.enterCompilationScope();
+		getRightOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		CodeFlow.insertNumericUnboxOrPrimitiveTypeCoercion(mv, rightDesc, targetDesc);
+		if (targetDesc == 'F') {
+			mv.visitInsn(F2D);
+		}
+		mv.visitMethodInsn(INVOKESTATIC, "java/lang/Math", "pow", "(DD)D", false);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
+	/**
+	 * Determine the primitive type that both operands are converted to before
+	 * calling {@link Math#pow}, mirroring the precedence in {@link #getValueInternal}.
+	 */
+	private static char getTargetDescriptor(@Nullable String leftDesc, @Nullable String rightDesc) {
+		char left = (leftDesc != null ? CodeFlow.toPrimitiveTargetDesc(leftDesc) : ' ');
+		char right = (rightDesc != null ? CodeFlow.toPrimitiveTargetDesc(rightDesc) : ' ');
+		if (left == 'D' || right == 'D') {
+			return 'D';
+		}
+		if (left == 'F' || right == 'F') {
+			return 'F';
+		}
+		return ' ';
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,16 @@ package org.springframework.expression.spel.standard;
 
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.asm.ClassReader;
 import org.springframework.asm.ClassWriter;
 import org.springframework.asm.MethodVisitor;
 import org.springframework.asm.Opcodes;
@@ -62,6 +66,12 @@ import org.springframework.util.StringUtils;
  *
  * <p>Individual expressions can be compiled by calling {@code SpelCompiler.compile(expression)}.
  *
+ * <p>Expressions that compile to identical bytecode, e.g. the same expression string
+ * parsed by several parsers and evaluated against the same types, share a single
+ * compiled class per child class loader. This keeps the number of classes defined, and
+ * with it the rate at which child class loaders are replaced, independent of the number
+ * of expression instances.
+ *
  * @author Andy Clement
  * @author Juergen Hoeller
  * @since 4.1
@@ -70,6 +80,9 @@ public final class SpelCompiler implements Opcodes {
 
 	private static final int CLASSES_DEFINED_LIMIT = 100;
 
+	// Name under which classes are generated for identifying identical bytecode
+	private static final String CANONICAL_CLASS_NAME = "spel/Ex";
+
 	private static final Log logger = LogFactory.getLog(SpelCompiler.class);
 
 	// A compiler is created for each classloader, it manages a child class loader of that
@@ -83,6 +96,12 @@ public final class SpelCompiler implements Opcodes {
 	// Counter suffix for generated classes within this SpelCompiler instance
 	private final AtomicInteger suffixId = new AtomicInteger(1);
 
+	// Number of expression classes defined by this SpelCompiler instance
+	private final AtomicInteger definedClassCount = new AtomicInteger();
+
+	// Number of compilations that reused a previously defined expression class
+	private final AtomicInteger sharedClassCount = new AtomicInteger();
+
 
 	private SpelCompiler(@Nullable ClassLoader classloader) {
 		this.childClassLoader = new ChildClassLoader(classloader);
@@ -126,7 +145,25 @@ public final class SpelCompiler implements Opcodes {
 	}
 
 	/**
-	 * Generate the class that encapsulates the compiled expression and define it.
+	 * Return the number of expression classes that this compiler has defined.
+	 * @since 5.3.7
+	 */
+	public int getDefinedClassCount() {
+		return this.definedClassCount.get();
+	}
+
+	/**
+	 * Return the number of compilations that reused an expression class
+	 * previously defined for identical bytecode, instead of defining a new one.
+	 * @since 5.3.7
+	 */
+	public int getSharedClassCount() {
+		return this.sharedClassCount.get();
+	}
+
+	/**
+	 * Generate the class that encapsulates the compiled expression and define it,
+	 * unless a class with identical bytecode has been defined before.
 	 * The generated class will be a subtype of CompiledExpression.
 	 * @param expressionToCompile the expression to be compiled
 	 * @return the expression call, or {@code null} if the decision was to opt out of
@@ -134,8 +171,59 @@ public final class SpelCompiler implements Opcodes {
 	 */
 	@Nullable
 	private Class<? extends CompiledExpression> createExpressionClass(SpelNodeImpl expressionToCompile) {
+		byte[] canonicalData = generateExpressionClass(expressionToCompile, CANONICAL_CLASS_NAME);
+		if (canonicalData == null) {
+			return null;
+		}
+		ByteBuffer key = ByteBuffer.wrap(canonicalData);
+		Class<? extends CompiledExpression> clazz = this.childClassLoader.getCompiledClass(key);
+		if (clazz != null) {
+			this.sharedClassCount.incrementAndGet();
+			return clazz;
+		}
+
+		String className = CANONICAL_CLASS_NAME + getNextSuffix();
+		byte[] data = renameClass(canonicalData, className);
+		// TODO need to make this conditionally occur based on a debug flag
+		// dump(expressionToCompile.toStringAST(), clazzName, data);
+		return loadClass(StringUtils.replace(className, "/", "."), data, key);
+	}
+
+	/**
+	 * Rename the class defined by the given bytecode, replacing the constant pool
+	 * entry for its name. Since generated code refers to its own class through that
+	 * entry only, this is equivalent to generating the class under the new name.
+	 * @param data the bytecode of the class
+	 * @param className the new internal name of the class
+	 * @return the bytecode of the renamed class
+	 */
+	private static byte[] renameClass(byte[] data, String className) {
+		ClassReader reader = new ClassReader(data);
+		int nameIndex = reader.readUnsignedShort(reader.getItem(reader.readUnsignedShort(reader.header + 2)));
+		int nameOffset = reader.getItem(nameIndex);
+		int oldLength = reader.readUnsignedShort(nameOffset);
+		// Generated class names are plain ASCII, so their modified UTF-8 form is trivial
+		byte[] name = className.getBytes(StandardCharsets.US_ASCII);
+		byte[] result = new byte[data.length - oldLength + name.length];
+		System.arraycopy(data, 0, result, 0, nameOffset);
+		result[nameOffset] = (byte) (name.length >>> 8);
+		result[nameOffset + 1] = (byte) name.length;
+		System.arraycopy(name, 0, result, nameOffset + 2, name.length);
+		int tailOffset = nameOffset + 2 + oldLength;
+		System.arraycopy(data, tailOffset, result, nameOffset + 2 + name.length, data.length - tailOffset);
+		return result;
+	}
+
+	/**
+	 * Generate the bytecode of the class that encapsulates the compiled expression.
+	 * @param expressionToCompile the expression to be compiled
+	 * @param className the internal name of the class to generate
+	 * @return the bytecode, or {@code null} if the decision was to opt out of
+	 * compilation during code generation
+	 */
+	@Nullable
+	private byte[] generateExpressionClass(SpelNodeImpl expressionToCompile, String className) {
 		// Create class outline 'spel/ExNNN extends org.springframework.expression.spel.CompiledExpression'
-		String className = "spel/Ex" + getNextSuffix();
 		String evaluationContextClass = "org/springframework/expression/EvaluationContext";
 		ClassWriter cw = new ExpressionClassWriter();
 		cw.visit(V1_8, ACC_PUBLIC, className, null, "org/springframework/expression/spel/CompiledExpression", null);
@@ -182,10 +270,7 @@ public final class SpelCompiler implements Opcodes {
 
 		cf.finish();
 
-		byte[] data = cw.toByteArray();
-		// TODO need to make this conditionally occur based on a debug flag
-		// dump(expressionToCompile.toStringAST(), clazzName, data);
-		return loadClass(StringUtils.replace(className, "/", "."), data);
+		return cw.toByteArray();
 	}
 
 	/**
@@ -195,10 +280,12 @@ public final class SpelCompiler implements Opcodes {
 	 * at least some of the older variants can be garbage collected.
 	 * @param name the name of the class
 	 * @param bytes the bytecode for the class
+	 * @param key the bytecode as generated under the canonical name, for sharing
+	 * the class with expressions compiled to identical bytecode later on
 	 * @return the Class object for the compiled expression
 	 */
 	@SuppressWarnings("unchecked")
-	private Class<? extends CompiledExpression> loadClass(String name, byte[] bytes) {
+	private Class<? extends CompiledExpression> loadClass(String name, byte[] bytes, ByteBuffer key) {
 		ChildClassLoader ccl = this.childClassLoader;
 		if (ccl.getClassesDefinedCount() >= CLASSES_DEFINED_LIMIT) {
 			synchronized (this) {
@@ -214,7 +301,10 @@ public final class SpelCompiler implements Opcodes {
 				}
 			}
 		}
-		return (Class<? extends CompiledExpression>) ccl.defineClass(name, bytes);
+		Class<? extends CompiledExpression> clazz = (Class<? extends CompiledExpression>) ccl.defineClass(name, bytes);
+		ccl.registerCompiledClass(key, clazz);
+		this.definedClassCount.incrementAndGet();
+		return clazz;
 	}
 
 
@@ -275,6 +365,11 @@ public final class SpelCompiler implements Opcodes {
 
 		private final AtomicInteger classesDefinedCount = new AtomicInteger(0);
 
+		// Defined classes by their bytecode as generated under the canonical name,
+		// shared between all expressions compiled while this ClassLoader is current
+		private final Map<ByteBuffer, Class<? extends CompiledExpression>> compiledClasses =
+				new ConcurrentHashMap<>();
+
 		public ChildClassLoader(@Nullable ClassLoader classLoader) {
 			super(NO_URLS, classLoader);
 		}
@@ -288,6 +383,15 @@ public final class SpelCompiler implements Opcodes {
 		public int getClassesDefinedCount() {
 			return this.classesDefinedCount.get();
 		}
+
+		@Nullable
+		public Class<? extends CompiledExpression> getCompiledClass(ByteBuffer key) {
+			return this.compiledClasses.get(key);
+		}
+
+		public void registerCompiledClass(ByteBuffer key, Class<? extends CompiledExpression> clazz) {
+			this.compiledClasses.put(key, clazz);
+		}
 	}
 
 
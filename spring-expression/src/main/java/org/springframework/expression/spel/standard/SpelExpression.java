@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,14 @@
 
 package org.springframework.expression.spel.standard;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationContext;
@@ -54,6 +61,10 @@ public class SpelExpression implements Expression {
 	// Number of times to try compiling an expression before giving up
 	private static final int FAILED_ATTEMPTS_THRESHOLD = 100;
 
+	// Shared executor for tiered compilation, lazily created on first use
+	@Nullable
+	private static volatile Executor defaultCompilerExecutor;
+
 
 	private final String expression;
 
@@ -77,6 +88,16 @@ public class SpelExpression implements Expression {
 	// give up trying to compile it when it just doesn't seem to be possible.
 	private final AtomicInteger failedAttempts = new AtomicInteger();
 
+	// Total number of evaluations through the compiled and the interpreted form,
+	// kept in LongAdders to avoid contention on the compiled fast path
+	private final LongAdder compiledEvaluationCount = new LongAdder();
+
+	private final LongAdder interpretedEvaluationCount = new LongAdder();
+
+	// Whether a background compilation has been scheduled - in tiered mode, at most one
+	// compilation is in progress for each expression at any time.
+	private final AtomicBoolean compilationScheduled = new AtomicBoolean();
+
 
 	/**
 	 * Construct an expression, only used by the parser.
@@ -122,11 +143,13 @@ public class SpelExpression implements Expression {
 		if (compiledAst != null) {
 			try {
 				EvaluationContext context = getEvaluationContext();
-				return compiledAst.getValue(context.getRootObject().getValue(), context);
+				Object result = compiledAst.getValue(context.getRootObject().getValue(), context);
+				this.compiledEvaluationCount.increment();
+				return result;
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -152,6 +175,7 @@ public class SpelExpression implements Expression {
 			try {
 				EvaluationContext context = getEvaluationContext();
 				Object result = compiledAst.getValue(context.getRootObject().getValue(), context);
+				this.compiledEvaluationCount.increment();
 				if (expectedResultType == null) {
 					return (T) result;
 				}
@@ -161,8 +185,8 @@ public class SpelExpression implements Expression {
 				}
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -186,11 +210,13 @@ public class SpelExpression implements Expression {
 		CompiledExpression compiledAst = this.compiledAst;
 		if (compiledAst != null) {
 			try {
-				return compiledAst.getValue(rootObject, getEvaluationContext());
+				Object result = compiledAst.getValue(rootObject, getEvaluationContext());
+				this.compiledEvaluationCount.increment();
+				return result;
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -216,6 +242,7 @@ public class SpelExpression implements Expression {
 		if (compiledAst != null) {
 			try {
 				Object result = compiledAst.getValue(rootObject, getEvaluationContext());
+				this.compiledEvaluationCount.increment();
 				if (expectedResultType == null) {
 					return (T)result;
 				}
@@ -225,8 +252,8 @@ public class SpelExpression implements Expression {
 				}
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -253,11 +280,13 @@ public class SpelExpression implements Expression {
 		CompiledExpression compiledAst = this.compiledAst;
 		if (compiledAst != null) {
 			try {
-				return compiledAst.getValue(context.getRootObject().getValue(), context);
+				Object result = compiledAst.getValue(context.getRootObject().getValue(), context);
+				this.compiledEvaluationCount.increment();
+				return result;
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -284,6 +313,7 @@ public class SpelExpression implements Expression {
 		if (compiledAst != null) {
 			try {
 				Object result = compiledAst.getValue(context.getRootObject().getValue(), context);
+				this.compiledEvaluationCount.increment();
 				if (expectedResultType != null) {
 					return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
 				}
@@ -292,8 +322,8 @@ public class SpelExpression implements Expression {
 				}
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -318,11 +348,13 @@ public class SpelExpression implements Expression {
 		CompiledExpression compiledAst = this.compiledAst;
 		if (compiledAst != null) {
 			try {
-				return compiledAst.getValue(rootObject, context);
+				Object result = compiledAst.getValue(rootObject, context);
+				this.compiledEvaluationCount.increment();
+				return result;
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -351,6 +383,7 @@ public class SpelExpression implements Expression {
 		if (compiledAst != null) {
 			try {
 				Object result = compiledAst.getValue(rootObject, context);
+				this.compiledEvaluationCount.increment();
 				if (expectedResultType != null) {
 					return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
 				}
@@ -359,8 +392,8 @@ public class SpelExpression implements Expression {
 				}
 			}
 			catch (Throwable ex) {
-				// If running in mixed mode, revert to interpreted
-				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+				// If running in mixed or tiered mode, revert to interpreted
+				if (isRevertingToInterpreted()) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
 				}
@@ -483,6 +516,7 @@ public class SpelExpression implements Expression {
 	 * @param expressionState the expression state used to determine compilation mode
 	 */
 	private void checkCompile(ExpressionState expressionState) {
+		this.interpretedEvaluationCount.increment();
 		this.interpretedCount.incrementAndGet();
 		SpelCompilerMode compilerMode = expressionState.getConfiguration().getCompilerMode();
 		if (compilerMode != SpelCompilerMode.OFF) {
@@ -491,6 +525,11 @@ public class SpelExpression implements Expression {
 					compileExpression();
 				}
 			}
+			else if (compilerMode == SpelCompilerMode.TIERED) {
+				if (this.interpretedCount.get() > INTERPRETED_COUNT_THRESHOLD) {
+					scheduleCompilation();
+				}
+			}
 			else {
 				// compilerMode = SpelCompilerMode.MIXED
 				if (this.interpretedCount.get() > INTERPRETED_COUNT_THRESHOLD) {
@@ -500,6 +539,74 @@ public class SpelExpression implements Expression {
 		}
 	}
 
+	/**
+	 * Compile the expression in the background, unless it has been compiled already,
+	 * it has turned out not to be compilable, or its compilation is in progress.
+	 * The calling thread continues to interpret the expression in the meantime.
+	 */
+	private void scheduleCompilation() {
+		if (this.compiledAst != null || this.failedAttempts.get() > FAILED_ATTEMPTS_THRESHOLD ||
+				!this.compilationScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		// Resolve the compiler on the calling thread: a default ClassLoader derived
+		// from the executor thread might not see the types used by the expression
+		SpelCompiler compiler = SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader());
+		Executor executor = this.configuration.getCompilerExecutor();
+		try {
+			(executor != null ? executor : getDefaultCompilerExecutor()).execute(() -> {
+				try {
+					compileExpression(compiler);
+				}
+				catch (RuntimeException ex) {
+					// Treat like any other failed attempt - no caller to propagate it to
+					this.failedAttempts.incrementAndGet();
+				}
+				finally {
+					this.compilationScheduled.set(false);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			this.compilationScheduled.set(false);
+		}
+	}
+
+	/**
+	 * Return the executor shared by all expressions for tiered compilation,
+	 * unless configured otherwise: a single daemon thread that is only kept
+	 * around while there are expressions to compile.
+	 */
+	private static Executor getDefaultCompilerExecutor() {
+		Executor executor = defaultCompilerExecutor;
+		if (executor == null) {
+			synchronized (SpelExpression.class) {
+				executor = defaultCompilerExecutor;
+				if (executor == null) {
+					ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(), runnable -> {
+								Thread thread = new Thread(runnable, "spel-compiler");
+								thread.setDaemon(true);
+								return thread;
+							});
+					threadPool.allowCoreThreadTimeOut(true);
+					executor = threadPool;
+					defaultCompilerExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Determine whether a failure of the compiled expression leads to a silent
+	 * switch back to interpreted mode, as opposed to an exception for the caller.
+	 */
+	private boolean isRevertingToInterpreted() {
+		SpelCompilerMode compilerMode = this.configuration.getCompilerMode();
+		return (compilerMode == SpelCompilerMode.MIXED || compilerMode == SpelCompilerMode.TIERED);
+	}
+
 	/**
 	 * Perform expression compilation. This will only succeed once exit descriptors for
 	 * all nodes have been determined. If the compilation fails and has failed more than
@@ -517,13 +624,20 @@ public class SpelExpression implements Expression {
 			return false;
 		}
 
+		return compileExpression(SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader()));
+	}
+
+	/**
+	 * Perform expression compilation with the given compiler.
+	 * @see #compileExpression()
+	 */
+	private boolean compileExpression(SpelCompiler compiler) {
 		synchronized (this) {
 			if (this.compiledAst != null) {
 				// Compiled by another thread before this thread got into the sync block
 				return true;
 			}
-			SpelCompiler compiler = SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader());
-			compiledAst = compiler.compile(this.ast);
+			CompiledExpression compiledAst = compiler.compile(this.ast);
 			if (compiledAst != null) {
 				// Successfully compiled
 				this.compiledAst = compiledAst;
@@ -548,6 +662,27 @@ public class SpelExpression implements Expression {
 		this.failedAttempts.set(0);
 	}
 
+	/**
+	 * Return the number of {@code getValue} calls that have been served by the
+	 * compiled form of this expression.
+	 * @since 5.3.7
+	 * @see #getInterpretedEvaluationCount()
+	 */
+	public long getCompiledEvaluationCount() {
+		return this.compiledEvaluationCount.sum();
+	}
+
+	/**
+	 * Return the number of {@code getValue} calls that have been served by
+	 * interpreting this expression, including those after a compiled form
+	 * failed and the expression reverted to being interpreted.
+	 * @since 5.3.7
+	 * @see #getCompiledEvaluationCount()
+	 */
+	public long getInterpretedEvaluationCount() {
+		return this.interpretedEvaluationCount.sum();
+	}
+
 	/**
 	 * Return the Abstract Syntax Tree for the expression.
 	 */
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -3146,6 +3147,161 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertThat(expression.getValue()).isEqualTo(-2.0f);
 	}
 
+	@Test
+	public void opMatches() throws Exception {
+		expression = parse("'abc' matches 'a.c'");
+		assertThat(expression.getValue()).isEqualTo(true);
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(true);
+
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setVariable("input", "123");
+		expression = parse("#input matches '[0-9]+'");
+		assertThat(expression.getValue(context)).isEqualTo(true);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo(true);
+		context.setVariable("input", "12a");
+		assertThat(expression.getValue(context)).isEqualTo(false);
+		context.setVariable("input", null);
+		assertThatExceptionOfType(SpelEvaluationException.class).isThrownBy(() -> expression.getValue(context));
+
+		// Only literal patterns are compiled
+		context.setVariable("regex", "a.c");
+		expression = parse("'abc' matches #regex");
+		assertThat(expression.getValue(context)).isEqualTo(true);
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void opBetween() throws Exception {
+		expression = parse("5 between {1, 10}");
+		assertThat(expression.getValue()).isEqualTo(true);
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(true);
+
+		expression = parse("'efg' between {'abc', 'xyz'}");
+		assertThat(expression.getValue()).isEqualTo(true);
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(true);
+
+		expression = parse("3.5d between {4, 5}");
+		assertThat(expression.getValue()).isEqualTo(false);
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(false);
+	}
+
+	@Test
+	public void opPower() throws Exception {
+		expression = parse("2.0d^3");
+		assertThat(expression.getValue()).isEqualTo(8.0d);
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(8.0d);
+
+		expression = parse("T(Float).valueOf(1.5f)^2");
+		assertThat(expression.getValue()).isEqualTo(2.25d);
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(2.25d);
+
+		expression = parse("2^T(Double).valueOf(0.5d)");
+		assertThat(expression.getValue()).isEqualTo(Math.sqrt(2));
+		assertCanCompile(expression);
+		assertThat(expression.getValue()).isEqualTo(Math.sqrt(2));
+
+		// Integral results depend on the magnitude of the value
+		expression = parse("2^3");
+		assertThat(expression.getValue()).isEqualTo(8);
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void beanReference() throws Exception {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setBeanResolver((ctx, beanName) -> "bean:" + beanName);
+
+		expression = parse("@foo");
+		assertThat(expression.getValue(context)).isEqualTo("bean:foo");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo("bean:foo");
+
+		expression = parse("@foo.length()");
+		assertThat(expression.getValue(context)).isEqualTo(8);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo(8);
+
+		StandardEvaluationContext contextWithoutResolver = new StandardEvaluationContext();
+		assertThatExceptionOfType(SpelEvaluationException.class).isThrownBy(() -> expression.getValue(contextWithoutResolver));
+	}
+
+	@Test
+	public void selection() throws Exception {
+		Inventory inventory = new Inventory();
+
+		expression = parse("items.?[price > 10].![name]");
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList("b", "c"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList("b", "c"));
+
+		expression = parse("items.^[price > 10].name");
+		assertThat(expression.getValue(inventory)).isEqualTo("b");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isEqualTo("b");
+
+		expression = parse("items.$[price > 10].name");
+		assertThat(expression.getValue(inventory)).isEqualTo("c");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isEqualTo("c");
+
+		expression = parse("items.^[price > 100]");
+		assertThat(expression.getValue(inventory)).isNull();
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isNull();
+
+		expression = parse("items?.?[price > 10].size()");
+		assertThat(expression.getValue(inventory)).isEqualTo(2);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isEqualTo(2);
+
+		expression = parse("items?.?[price > 10]");
+		assertThat(expression.getValue(inventory)).isEqualTo(inventory.items.subList(1, 3));
+		assertCanCompile(expression);
+		inventory.items = null;
+		assertThat(expression.getValue(inventory)).isNull();
+
+		// Selections on maps and arrays are not compiled
+		expression = parse("prices.?[value > 10].size()");
+		assertThat(expression.getValue(new Inventory())).isEqualTo(2);
+		assertCantCompile(expression);
+		expression = parse("itemArray.?[price > 10].length");
+		assertThat(expression.getValue(new Inventory())).isEqualTo(2);
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void projection() throws Exception {
+		Inventory inventory = new Inventory();
+
+		expression = parse("items.![name]");
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList("a", "b", "c"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList("a", "b", "c"));
+
+		expression = parse("items.![price * 2]");
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList(10, 30, 50));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList(10, 30, 50));
+
+		expression = parse("items?.![name]");
+		assertThat(expression.getValue(inventory)).isEqualTo(Arrays.asList("a", "b", "c"));
+		assertCanCompile(expression);
+		inventory.items = null;
+		assertThat(expression.getValue(inventory)).isNull();
+
+		// Projections of arrays are not compiled
+		expression = parse("itemArray.![name]");
+		assertThat(expression.getValue(new Inventory())).isEqualTo(new String[] {"a", "b", "c"});
+		assertCantCompile(expression);
+	}
+
 	@Test
 	public void opModulus_12041() throws Exception {
 		expression = parse("2%2");
@@ -6189,6 +6345,45 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	}
 
 
+	public static class Inventory {
+
+		public List<Item> items = Arrays.asList(new Item("a", 5), new Item("b", 15), new Item("c", 25));
+
+		public List<Item> missing;
+
+		public Map<String, Integer> prices = new HashMap<>();
+
+		public Item[] itemArray = this.items.toArray(new Item[0]);
+
+		public Inventory() {
+			for (Item item : this.items) {
+				this.prices.put(item.getName(), item.getPrice());
+			}
+		}
+	}
+
+
+	public static class Item {
+
+		private final String name;
+
+		private final int price;
+
+		public Item(String name, int price) {
+			this.name = name;
+			this.price = price;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getPrice() {
+			return this.price;
+		}
+	}
+
+
 	public static class LongHolder {
 
 		public Long someLong = 3L;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.expression.spel.standard;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
@@ -76,6 +80,112 @@ class SpelCompilerTests {
 	}
 
 
+	@Test
+	void identicalExpressionsShareCompiledClass() {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		SpelParserConfiguration config = new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, classLoader);
+		OrderedComponent component = new OrderedComponent();
+
+		Expression expression1 = new SpelExpressionParser(config).parseExpression("order + 1");
+		Expression expression2 = new SpelExpressionParser(config).parseExpression("order + 1");
+		assertThat(expression1.getValue(component)).isEqualTo(43);
+		assertThat(expression2.getValue(component)).isEqualTo(43);
+		assertThat(SpelCompiler.compile(expression1)).isTrue();
+		assertThat(SpelCompiler.compile(expression2)).isTrue();
+		assertThat(expression1.getValue(component)).isEqualTo(43);
+		assertThat(expression2.getValue(component)).isEqualTo(43);
+
+		SpelCompiler compiler = SpelCompiler.getCompiler(classLoader);
+		assertThat(compiler.getDefinedClassCount()).isEqualTo(1);
+		assertThat(compiler.getSharedClassCount()).isEqualTo(1);
+	}
+
+	@Test
+	void compiledClassesAreNotSharedAcrossReplacedClassLoaders() {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		SpelParserConfiguration config = new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, classLoader);
+		SpelCompiler compiler = SpelCompiler.getCompiler(classLoader);
+		OrderedComponent component = new OrderedComponent();
+
+		// Fill up the first child ClassLoader and define one more class, replacing it
+		for (int i = 0; i <= 100; i++) {
+			Expression expression = new SpelExpressionParser(config).parseExpression("order + " + i);
+			expression.getValue(component);
+			assertThat(SpelCompiler.compile(expression)).isTrue();
+		}
+		assertThat(compiler.getDefinedClassCount()).isEqualTo(101);
+
+		// Defined again by the replacement ClassLoader, then shared from there
+		for (int i = 0; i < 2; i++) {
+			Expression expression = new SpelExpressionParser(config).parseExpression("order + 0");
+			expression.getValue(component);
+			assertThat(SpelCompiler.compile(expression)).isTrue();
+			assertThat(expression.getValue(component)).isEqualTo(42);
+		}
+		assertThat(compiler.getDefinedClassCount()).isEqualTo(102);
+		assertThat(compiler.getSharedClassCount()).isEqualTo(1);
+	}
+
+	@Test
+	void evaluationCounts() {
+		SpelParserConfiguration config = new SpelParserConfiguration(SpelCompilerMode.MIXED, null);
+		SpelExpression expression = new SpelExpressionParser(config).parseRaw("order");
+		OrderedComponent component = new OrderedComponent();
+
+		IntStream.rangeClosed(1, 3).forEach(i -> expression.getValue(component));
+		assertThat(expression.getInterpretedEvaluationCount()).isEqualTo(3);
+		assertThat(expression.getCompiledEvaluationCount()).isEqualTo(0);
+
+		assertThat(expression.compileExpression()).isTrue();
+		IntStream.rangeClosed(1, 2).forEach(i -> expression.getValue(component));
+		assertThat(expression.getInterpretedEvaluationCount()).isEqualTo(3);
+		assertThat(expression.getCompiledEvaluationCount()).isEqualTo(2);
+	}
+
+	@Test
+	void tieredCompilationHappensInBackground() {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		List<Runnable> compilations = new ArrayList<>();
+		SpelParserConfiguration config = new SpelParserConfiguration(SpelCompilerMode.TIERED, classLoader, compilations::add);
+		SpelCompiler compiler = SpelCompiler.getCompiler(classLoader);
+		OrderedComponent component = new OrderedComponent();
+
+		Expression expression = new SpelExpressionParser(config).parseExpression("order");
+		IntStream.rangeClosed(1, 200).forEach(i -> assertThat(expression.getValue(component)).isEqualTo(42));
+		assertThat(compilations).hasSize(1);
+		assertThat(compiler.getDefinedClassCount()).isEqualTo(0);
+
+		compilations.get(0).run();
+		assertThat(compiler.getDefinedClassCount()).isEqualTo(1);
+		SpelCompilationCoverageTests.assertIsCompiled(expression);
+		assertThat(expression.getValue(component)).isEqualTo(42);
+	}
+
+	@Test
+	void tieredCompilationUsesClassLoaderOfEvaluatingThread() {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		List<Runnable> compilations = new ArrayList<>();
+		SpelParserConfiguration config = new SpelParserConfiguration(SpelCompilerMode.TIERED, null, compilations::add);
+		OrderedComponent component = new OrderedComponent();
+
+		Expression expression = new SpelExpressionParser(config).parseExpression("order");
+		Thread currentThread = Thread.currentThread();
+		ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+		currentThread.setContextClassLoader(classLoader);
+		try {
+			IntStream.rangeClosed(1, 200).forEach(i -> assertThat(expression.getValue(component)).isEqualTo(42));
+		}
+		finally {
+			currentThread.setContextClassLoader(originalClassLoader);
+		}
+
+		assertThat(compilations).hasSize(1);
+		compilations.get(0).run();
+		assertThat(SpelCompiler.getCompiler(classLoader).getDefinedClassCount()).isEqualTo(1);
+		SpelCompilationCoverageTests.assertIsCompiled(expression);
+	}
+
+
 	static class OrderedComponent implements Ordered {
 
 		@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.Constants;
 import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Proxy for a target DataSource, fetching actual JDBC Connections lazily,
@@ -69,6 +70,14 @@ import org.springframework.lang.Nullable;
  * You will get the same effect with non-transactional reads, but lazy fetching
  * of JDBC Connections allows you to still perform reads in transactions.
  *
+ * <p>A separate {@link #setReadOnlyDataSource read-only DataSource} may be
+ * specified, e.g. pointing to read replicas of the target database. Since the
+ * actual Connection is only fetched on first use, the read-only flag applied
+ * by {@link DataSourceTransactionManager} for a read-only transaction is known
+ * at that point, and the physical Connection will be fetched from the read-only
+ * DataSource instead of the target DataSource. A {@link LoadBalancingDataSource}
+ * may serve as read-only DataSource for spreading reads across several replicas.
+ *
  * <p><b>NOTE:</b> This DataSource proxy needs to return wrapped Connections
  * (which implement the {@link ConnectionProxy} interface) in order to handle
  * lazy fetching of an actual JDBC Connection. Use {@link Connection#unwrap}
@@ -77,6 +86,7 @@ import org.springframework.lang.Nullable;
  * @author Juergen Hoeller
  * @since 1.1.4
  * @see DataSourceTransactionManager
+ * @see #setReadOnlyDataSource
  */
 public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 
@@ -91,6 +101,9 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 	@Nullable
 	private Integer defaultTransactionIsolation;
 
+	@Nullable
+	private DataSource readOnlyDataSource;
+
 
 	/**
 	 * Create a new LazyConnectionDataSourceProxy.
@@ -152,6 +165,34 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 		setDefaultTransactionIsolation(constants.asNumber(constantName).intValue());
 	}
 
+	/**
+	 * Specify a variant of the target DataSource to use for read-only Connections,
+	 * typically pointing to one or more read replicas of the target database.
+	 * <p>A physical Connection will be fetched from this DataSource instead of the
+	 * target DataSource if the Connection handle has been marked as read-only
+	 * before its first actual use (as done by {@link DataSourceTransactionManager}
+	 * for a read-only transaction), or if the current transaction scope has been
+	 * declared as read-only (e.g. a non-transactional {@code SUPPORTS} scope).
+	 * <p>The read-only DataSource is expected to expose the same default
+	 * auto-commit and transaction isolation settings as the target DataSource.
+	 * @since 5.3.7
+	 * @see Connection#setReadOnly
+	 * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+	 * @see LoadBalancingDataSource
+	 */
+	public void setReadOnlyDataSource(@Nullable DataSource readOnlyDataSource) {
+		this.readOnlyDataSource = readOnlyDataSource;
+	}
+
+	/**
+	 * Return the variant of the target DataSource to use for read-only Connections, if any.
+	 * @since 5.3.7
+	 */
+	@Nullable
+	public DataSource getReadOnlyDataSource() {
+		return this.readOnlyDataSource;
+	}
+
 
 	@Override
 	public void afterPropertiesSet() {
@@ -399,10 +440,16 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 					logger.trace("Connecting to database for operation '" + operation.getName() + "'");
 				}
 
-				// Fetch physical Connection from DataSource.
+				// Fetch physical Connection from DataSource, preferring the
+				// read-only DataSource (if any) for a read-only Connection.
+				DataSource dataSource = obtainTargetDataSource();
+				if (readOnlyDataSource != null &&
+						(this.readOnly || TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+					dataSource = readOnlyDataSource;
+				}
 				this.target = (this.username != null) ?
-						obtainTargetDataSource().getConnection(this.username, this.password) :
-						obtainTargetDataSource().getConnection();
+						dataSource.getConnection(this.username, this.password) :
+						dataSource.getConnection();
 
 				// If we still lack default connection properties, check them now.
 				checkDefaultConnectionProperties(this.target);
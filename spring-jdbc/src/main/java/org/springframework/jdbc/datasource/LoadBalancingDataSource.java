@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link javax.sql.DataSource} implementation that spreads {@link #getConnection()}
+ * calls across several equivalent target DataSources, typically connection pools
+ * for the read replicas of a database.
+ *
+ * <p>For each Connection request, one of the available targets is picked at random,
+ * weighted inversely to its average Connection acquisition time. This steers load
+ * away from slow or saturated targets without starving any of them. A target
+ * that fails to provide a Connection is considered unavailable for the configured
+ * {@link #setRetryInterval retry interval}, with the request moving on to the
+ * remaining targets. If no target is able to provide a Connection, the
+ * {@link #setFallbackDataSource fallback DataSource} (if any) will be used.
+ *
+ * <p>Usually configured as {@link LazyConnectionDataSourceProxy#setReadOnlyDataSource
+ * read-only DataSource} of a {@link LazyConnectionDataSourceProxy} for the primary
+ * database, routing read-only transactions to the replicas:
+ *
+ * <pre class="code">
+ * LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+ * LoadBalancingDataSource replicas = new LoadBalancingDataSource(replica1, replica2);
+ * replicas.setFallbackDataSource(primary);
+ * dataSource.setReadOnlyDataSource(replicas);</pre>
+ *
+ * @since 5.3.7
+ * @see LazyConnectionDataSourceProxy#setReadOnlyDataSource
+ */
+public class LoadBalancingDataSource extends AbstractDataSource implements InitializingBean {
+
+	/** Weight of the latest sample in the average acquisition time, as right shift. */
+	private static final int LATENCY_DECAY_SHIFT = 2;
+
+	/** Latency added to each average before weighting, damping differences in the sub-millisecond range. */
+	private static final long LATENCY_BASELINE_NANOS = 500_000;
+
+
+	private TargetDataSource[] targetDataSources = new TargetDataSource[0];
+
+	@Nullable
+	private DataSource fallbackDataSource;
+
+	private long retryInterval = 5000;
+
+
+	/**
+	 * Create a new LoadBalancingDataSource.
+	 * @see #setTargetDataSources
+	 */
+	public LoadBalancingDataSource() {
+	}
+
+	/**
+	 * Create a new LoadBalancingDataSource for the given target DataSources.
+	 * @param targetDataSources the target DataSources to balance across
+	 */
+	public LoadBalancingDataSource(DataSource... targetDataSources) {
+		setTargetDataSources(Arrays.asList(targetDataSources));
+		afterPropertiesSet();
+	}
+
+
+	/**
+	 * Specify the target DataSources to balance Connection requests across.
+	 */
+	public void setTargetDataSources(List<DataSource> targetDataSources) {
+		Assert.notNull(targetDataSources, "Target DataSources must not be null");
+		TargetDataSource[] targets = new TargetDataSource[targetDataSources.size()];
+		for (int i = 0; i < targets.length; i++) {
+			DataSource targetDataSource = targetDataSources.get(i);
+			Assert.notNull(targetDataSource, "Target DataSources must not contain null elements");
+			targets[i] = new TargetDataSource(targetDataSource);
+		}
+		this.targetDataSources = targets;
+	}
+
+	/**
+	 * Return the target DataSources to balance Connection requests across.
+	 */
+	public List<DataSource> getTargetDataSources() {
+		List<DataSource> result = new ArrayList<>(this.targetDataSources.length);
+		for (TargetDataSource target : this.targetDataSources) {
+			result.add(target.dataSource);
+		}
+		return result;
+	}
+
+	/**
+	 * Specify a DataSource to fall back to if none of the target DataSources
+	 * is able to provide a Connection, typically the primary database.
+	 * <p>Default is none, propagating the last Connection failure instead.
+	 */
+	public void setFallbackDataSource(@Nullable DataSource fallbackDataSource) {
+		this.fallbackDataSource = fallbackDataSource;
+	}
+
+	/**
+	 * Return the DataSource to fall back to, if any.
+	 */
+	@Nullable
+	public DataSource getFallbackDataSource() {
+		return this.fallbackDataSource;
+	}
+
+	/**
+	 * Specify the time (in milliseconds) for which a target DataSource that failed
+	 * to provide a Connection will be skipped. Default is 5000 ms.
+	 * <p>Once that interval has elapsed, the target will be considered again.
+	 * If all targets are unavailable and no fallback DataSource has been specified,
+	 * the unavailable targets will be tried nevertheless.
+	 */
+	public void setRetryInterval(long retryInterval) {
+		Assert.isTrue(retryInterval >= 0, "Retry interval must not be negative");
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Return the time (in milliseconds) for which a failed target DataSource will be skipped.
+	 */
+	public long getRetryInterval() {
+		return this.retryInterval;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.targetDataSources.length == 0) {
+			throw new IllegalArgumentException("At least one target DataSource is required");
+		}
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return doGetConnection(DataSource::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return doGetConnection(dataSource -> dataSource.getConnection(username, password));
+	}
+
+	/**
+	 * Obtain a Connection from one of the target DataSources, moving on to the
+	 * remaining targets (and eventually to the fallback DataSource) in case of failure.
+	 */
+	private Connection doGetConnection(ConnectionCallback callback) throws SQLException {
+		TargetDataSource[] targets = this.targetDataSources;
+		long now = System.currentTimeMillis();
+		List<TargetDataSource> candidates = new ArrayList<>(targets.length);
+		for (TargetDataSource target : targets) {
+			if (target.isAvailable(now)) {
+				candidates.add(target);
+			}
+		}
+		if (candidates.isEmpty() && this.fallbackDataSource == null) {
+			// No target known to be available: try them all rather than giving up right away.
+			candidates.addAll(Arrays.asList(targets));
+		}
+
+		SQLException failure = null;
+		while (!candidates.isEmpty()) {
+			TargetDataSource target = candidates.remove(selectCandidate(candidates));
+			long start = System.nanoTime();
+			try {
+				Connection con = callback.getConnection(target.dataSource);
+				target.connectionObtained(System.nanoTime() - start);
+				return con;
+			}
+			catch (SQLException ex) {
+				target.connectionFailed(System.currentTimeMillis() + this.retryInterval);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not obtain JDBC Connection from target DataSource [" +
+							target.dataSource + "] - skipping it for " + this.retryInterval + " ms", ex);
+				}
+				if (failure != null) {
+					ex.addSuppressed(failure);
+				}
+				failure = ex;
+			}
+		}
+
+		if (this.fallbackDataSource != null) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("No target DataSource available - using fallback DataSource [" +
+						this.fallbackDataSource + "]");
+			}
+			return callback.getConnection(this.fallbackDataSource);
+		}
+		Assert.state(failure != null, "No SQLException recorded");
+		throw failure;
+	}
+
+	/**
+	 * Pick a random candidate, weighted inversely to its average Connection
+	 * acquisition time: slower targets receive proportionally less requests
+	 * but are never starved, so that their average keeps being refreshed.
+	 * @return the index of the chosen candidate
+	 */
+	private int selectCandidate(List<TargetDataSource> candidates) {
+		int size = candidates.size();
+		if (size == 1) {
+			return 0;
+		}
+		double[] weights = new double[size];
+		double totalWeight = 0;
+		for (int i = 0; i < size; i++) {
+			weights[i] = 1.0 / (candidates.get(i).averageNanos + LATENCY_BASELINE_NANOS);
+			totalWeight += weights[i];
+		}
+		double point = ThreadLocalRandom.current().nextDouble(totalWeight);
+		for (int i = 0; i < size - 1; i++) {
+			point -= weights[i];
+			if (point < 0) {
+				return i;
+			}
+		}
+		return size - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "LoadBalancingDataSource with targets " + getTargetDataSources();
+	}
+
+
+	/**
+	 * Callback for obtaining a Connection from a given DataSource.
+	 */
+	@FunctionalInterface
+	private interface ConnectionCallback {
+
+		Connection getConnection(DataSource dataSource) throws SQLException;
+	}
+
+
+	/**
+	 * Holder for a target DataSource along with its observed health and latency.
+	 */
+	private static final class TargetDataSource {
+
+		final DataSource dataSource;
+
+		volatile long averageNanos;
+
+		volatile long unavailableUntil;
+
+		TargetDataSource(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		boolean isAvailable(long now) {
+			return (this.unavailableUntil <= now);
+		}
+
+		void connectionObtained(long nanos) {
+			// Benign race: concurrent updates may lose a sample, which is fine for an average.
+			long average = this.averageNanos;
+			this.averageNanos = (average == 0 ? nanos : average + ((nanos - average) >> LATENCY_DECAY_SHIFT));
+			this.unavailableUntil = 0;
+		}
+
+		void connectionFailed(long retryTime) {
+			this.unavailableUntil = retryTime;
+		}
+	}
+
+}
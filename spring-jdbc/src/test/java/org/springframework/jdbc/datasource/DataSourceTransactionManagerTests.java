@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -930,6 +930,57 @@ public class DataSourceTransactionManagerTests  {
 		verify(con).close();
 	}
 
+	@Test
+	public void testTransactionWithReadOnlyDataSourceAndLazyConnection() throws Exception {
+		given(con.getTransactionIsolation()).willReturn(Connection.TRANSACTION_READ_COMMITTED);
+		given(con.getAutoCommit()).willReturn(true);
+		DataSource readOnlyDs = mock(DataSource.class);
+		Connection readOnlyCon = mock(Connection.class);
+		given(readOnlyDs.getConnection()).willReturn(readOnlyCon);
+
+		LazyConnectionDataSourceProxy dsProxy = new LazyConnectionDataSourceProxy(ds);
+		dsProxy.setReadOnlyDataSource(readOnlyDs);
+		tm = new DataSourceTransactionManager(dsProxy);
+		TransactionTemplate tt = new TransactionTemplate(tm);
+		tt.setReadOnly(true);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+				try {
+					DataSourceUtils.getConnection(dsProxy).createStatement();
+				}
+				catch (SQLException ex) {
+					throw new UncategorizedSQLException("", "", ex);
+				}
+			}
+		});
+
+		tt.setReadOnly(false);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				try {
+					DataSourceUtils.getConnection(dsProxy).createStatement();
+				}
+				catch (SQLException ex) {
+					throw new UncategorizedSQLException("", "", ex);
+				}
+			}
+		});
+
+		InOrder ordered = inOrder(readOnlyCon);
+		ordered.verify(readOnlyCon).setReadOnly(true);
+		ordered.verify(readOnlyCon).createStatement();
+		ordered.verify(readOnlyCon).commit();
+		ordered.verify(readOnlyCon).setReadOnly(false);
+		ordered.verify(readOnlyCon).close();
+		verify(readOnlyDs).getConnection();
+		verify(con).createStatement();
+		verify(con).commit();
+		verify(con, times(2)).close();
+	}
+
 	@Test
 	public void testTransactionWithEnforceReadOnly() throws Exception {
 		tm.setEnforceReadOnly(true);
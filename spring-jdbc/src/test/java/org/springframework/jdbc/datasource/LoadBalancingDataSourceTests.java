@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link LoadBalancingDataSource}.
+ */
+public class LoadBalancingDataSourceTests {
+
+	private final DataSource ds1 = mock(DataSource.class);
+
+	private final DataSource ds2 = mock(DataSource.class);
+
+	private final Connection con1 = mock(Connection.class);
+
+	private final Connection con2 = mock(Connection.class);
+
+
+	@Test
+	public void spreadsConnectionRequestsAcrossTargets() throws Exception {
+		given(ds1.getConnection()).willReturn(con1);
+		given(ds2.getConnection()).willReturn(con2);
+		LoadBalancingDataSource dataSource = new LoadBalancingDataSource(ds1, ds2);
+
+		for (int i = 0; i < 200; i++) {
+			assertThat(dataSource.getConnection()).isIn(con1, con2);
+		}
+		verify(ds1, atLeastOnce()).getConnection();
+		verify(ds2, atLeastOnce()).getConnection();
+	}
+
+	@Test
+	public void passesCredentialsToTarget() throws Exception {
+		given(ds1.getConnection("user", "pw")).willReturn(con1);
+		LoadBalancingDataSource dataSource = new LoadBalancingDataSource(ds1);
+
+		assertThat(dataSource.getConnection("user", "pw")).isSameAs(con1);
+	}
+
+	@Test
+	public void skipsFailedTargetWithinRetryInterval() throws Exception {
+		given(ds1.getConnection()).willThrow(new SQLException("down"));
+		given(ds2.getConnection()).willReturn(con2);
+		LoadBalancingDataSource dataSource = new LoadBalancingDataSource(ds1, ds2);
+		dataSource.setRetryInterval(60000);
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(dataSource.getConnection()).isSameAs(con2);
+		}
+		verify(ds1, times(1)).getConnection();
+	}
+
+	@Test
+	public void retriesFailedTargetAfterRetryInterval() throws Exception {
+		given(ds1.getConnection()).willThrow(new SQLException("down")).willReturn(con1);
+		LoadBalancingDataSource dataSource = new LoadBalancingDataSource(ds1);
+		dataSource.setRetryInterval(0);
+
+		assertThatExceptionOfType(SQLException.class).isThrownBy(dataSource::getConnection);
+		assertThat(dataSource.getConnection()).isSameAs(con1);
+	}
+
+	@Test
+	public void usesFallbackDataSourceIfAllTargetsFail() throws Exception {
+		given(ds1.getConnection()).willThrow(new SQLException("down"));
+		given(ds2.getConnection()).willReturn(con2);
+		LoadBalancingDataSource dataSource = new LoadBalancingDataSource(ds1);
+		dataSource.setFallbackDataSource(ds2);
+		dataSource.setRetryInterval(60000);
+
+		assertThat(dataSource.getConnection()).isSameAs(con2);
+		assertThat(dataSource.getConnection()).isSameAs(con2);
+		verify(ds1, times(1)).getConnection();
+	}
+
+	@Test
+	public void triesUnavailableTargetsWithoutFallback() throws Exception {
+		SQLException ex1 = new SQLException("down1");
+		SQLException ex2 = new SQLException("down2");
+		given(ds1.getConnection()).willThrow(ex1);
+		given(ds2.getConnection()).willThrow(ex2);
+		LoadBalancingDataSource dataSource = new LoadBalancingDataSource(ds1, ds2);
+		dataSource.setRetryInterval(60000);
+
+		assertThatExceptionOfType(SQLException.class).isThrownBy(dataSource::getConnection)
+				.satisfies(ex -> assertThat(ex.getSuppressed()).hasSize(1));
+		assertThatExceptionOfType(SQLException.class).isThrownBy(dataSource::getConnection);
+		verify(ds1, times(2)).getConnection();
+		verify(ds2, times(2)).getConnection();
+	}
+
+	@Test
+	public void requiresTargetDataSources() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new LoadBalancingDataSource().afterPropertiesSet());
+	}
+
+}
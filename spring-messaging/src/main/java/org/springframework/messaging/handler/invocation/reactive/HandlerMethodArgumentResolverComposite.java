@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.core.MethodParameter;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Resolves method parameters by delegating to a list of registered
@@ -47,12 +48,20 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 	private final Map<MethodParameter, HandlerMethodArgumentResolver> argumentResolverCache =
 			new ConcurrentHashMap<>(256);
 
+	// Keyed by the parameter array of a handler method, shared by all of its copies
+	private final Map<MethodParameter[], HandlerMethodArgumentResolver[]> handlerMethodResolverCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+	// Subclasses may customize supportsParameter/resolveArgument: no direct binding then
+	private final boolean bindResolvers = (getClass() == HandlerMethodArgumentResolverComposite.class);
+
 
 	/**
 	 * Add the given {@link HandlerMethodArgumentResolver}.
 	 */
 	public HandlerMethodArgumentResolverComposite addResolver(HandlerMethodArgumentResolver resolver) {
 		this.argumentResolvers.add(resolver);
+		this.handlerMethodResolverCache.clear();
 		return this;
 	}
 
@@ -62,6 +71,7 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 	public HandlerMethodArgumentResolverComposite addResolvers(@Nullable HandlerMethodArgumentResolver... resolvers) {
 		if (resolvers != null) {
 			Collections.addAll(this.argumentResolvers, resolvers);
+			this.handlerMethodResolverCache.clear();
 		}
 		return this;
 	}
@@ -74,6 +84,7 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 
 		if (resolvers != null) {
 			this.argumentResolvers.addAll(resolvers);
+			this.handlerMethodResolverCache.clear();
 		}
 		return this;
 	}
@@ -90,6 +101,7 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 	 */
 	public void clear() {
 		this.argumentResolvers.clear();
+		this.handlerMethodResolverCache.clear();
 	}
 
 
@@ -119,6 +131,37 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 		return resolver.resolveArgument(parameter, message);
 	}
 
+	/**
+	 * Find the resolver for the parameter at the given index of a handler method.
+	 * <p>The resolver gets bound to the parameter array of the handler method on
+	 * first use: as that array is shared by all per-request copies of a handler
+	 * method, subsequent invocations skip the per-parameter lookup. Parameters
+	 * satisfied by provided argument values are never looked up.
+	 * <p>If a subclass overrides {@link #supportsParameter} or {@link #resolveArgument},
+	 * this composite itself is returned for supported parameters, so that argument
+	 * resolution keeps going through those methods.
+	 * @param parameters the method parameters of a handler method
+	 * @param index the index of the parameter to find a resolver for
+	 * @return the resolver to use, or {@code null} if the parameter is not supported
+	 */
+	@Nullable
+	HandlerMethodArgumentResolver getArgumentResolver(MethodParameter[] parameters, int index) {
+		if (!this.bindResolvers) {
+			return (supportsParameter(parameters[index]) ? this : null);
+		}
+		HandlerMethodArgumentResolver[] resolvers = this.handlerMethodResolverCache.get(parameters);
+		if (resolvers == null) {
+			resolvers = new HandlerMethodArgumentResolver[parameters.length];
+			this.handlerMethodResolverCache.put(parameters, resolvers);
+		}
+		HandlerMethodArgumentResolver resolver = resolvers[index];
+		if (resolver == null) {
+			resolver = getArgumentResolver(parameters[index]);
+			resolvers[index] = resolver;
+		}
+		return resolver;
+	}
+
 	/**
 	 * Find a registered {@link HandlerMethodArgumentResolver} that supports
 	 * the given method parameter.
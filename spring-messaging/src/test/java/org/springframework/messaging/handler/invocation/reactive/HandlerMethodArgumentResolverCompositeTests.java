@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.handler.invocation.reactive;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test fixture with {@link HandlerMethodArgumentResolverComposite}.
+ */
+public class HandlerMethodArgumentResolverCompositeTests {
+
+	private final Message<?> message = MessageBuilder.withPayload("payload").build();
+
+	private HandlerMethodArgumentResolverComposite resolverComposite;
+
+	private MethodParameter paramInt;
+
+	private MethodParameter paramStr;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		this.resolverComposite = new HandlerMethodArgumentResolverComposite();
+
+		Method method = getClass().getDeclaredMethod("handle", Integer.class, String.class);
+		this.paramInt = new MethodParameter(method, 0);
+		this.paramStr = new MethodParameter(method, 1);
+	}
+
+	@Test
+	public void resolveArgument() throws Exception {
+		this.resolverComposite.addResolver(new StubArgumentResolver(55));
+		Object resolvedValue = this.resolverComposite.resolveArgument(paramInt, this.message).block();
+
+		assertThat(resolvedValue).isEqualTo(55);
+	}
+
+	@Test
+	public void getArgumentResolverForHandlerMethod() {
+		StubArgumentResolver resolver = new StubArgumentResolver(Integer.class);
+		this.resolverComposite.addResolver(resolver);
+		MethodParameter[] parameters = new MethodParameter[] {this.paramInt, this.paramStr};
+
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 0)).isSameAs(resolver);
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 1)).isNull();
+
+		StubArgumentResolver otherResolver = new StubArgumentResolver(String.class);
+		this.resolverComposite.addResolver(otherResolver);
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 0)).isSameAs(resolver);
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 1)).isSameAs(otherResolver);
+	}
+
+	@Test
+	public void getArgumentResolverForHandlerMethodWithSubclass() {
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite() {
+			@Override
+			public Mono<Object> resolveArgument(MethodParameter parameter, Message<?> message) {
+				return Mono.just("custom");
+			}
+		};
+		composite.addResolver(new StubArgumentResolver(Integer.class));
+		MethodParameter[] parameters = new MethodParameter[] {this.paramInt, this.paramStr};
+
+		assertThat(composite.getArgumentResolver(parameters, 0)).isSameAs(composite);
+		assertThat(composite.getArgumentResolver(parameters, 1)).isNull();
+	}
+
+	@SuppressWarnings("unused")
+	private void handle(Integer arg1, String arg2) {
+	}
+
+}
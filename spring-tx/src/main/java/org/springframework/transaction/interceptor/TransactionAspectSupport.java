@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,7 @@ import org.springframework.transaction.support.CallbackPreferringPlatformTransac
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -185,6 +186,11 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	private final ConcurrentMap<Method, ReactiveTransactionSupport> transactionSupportCache =
 			new ConcurrentReferenceHashMap<>(1024);
 
+	private final ConcurrentMap<Method, TransactionInvocationDescriptor> invocationDescriptorCache =
+			new ConcurrentReferenceHashMap<>(1024);
+
+	private final boolean transactionManagerCacheable;
+
 
 	protected TransactionAspectSupport() {
 		if (reactiveStreamsPresent) {
@@ -193,6 +199,15 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		else {
 			this.reactiveAdapterRegistry = null;
 		}
+		// Custom transaction manager lookups need to be called for every invocation
+		this.transactionManagerCacheable =
+				(isNotOverridden("determineTransactionManager", TransactionAttribute.class) &&
+						isNotOverridden("getTransactionManager"));
+	}
+
+	private boolean isNotOverridden(String methodName, Class<?>... paramTypes) {
+		Method method = ReflectionUtils.findMethod(getClass(), methodName, paramTypes);
+		return (method != null && method.getDeclaringClass() == TransactionAspectSupport.class);
 	}
 
 
@@ -203,6 +218,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionManagerBeanName(@Nullable String transactionManagerBeanName) {
 		this.transactionManagerBeanName = transactionManagerBeanName;
+		this.invocationDescriptorCache.clear();
 	}
 
 	/**
@@ -224,6 +240,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionManager(@Nullable TransactionManager transactionManager) {
 		this.transactionManager = transactionManager;
+		this.invocationDescriptorCache.clear();
 	}
 
 	/**
@@ -252,6 +269,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource();
 		tas.setProperties(transactionAttributes);
 		this.transactionAttributeSource = tas;
+		this.invocationDescriptorCache.clear();
 	}
 
 	/**
@@ -264,6 +282,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionAttributeSources(TransactionAttributeSource... transactionAttributeSources) {
 		this.transactionAttributeSource = new CompositeTransactionAttributeSource(transactionAttributeSources);
+		this.invocationDescriptorCache.clear();
 	}
 
 	/**
@@ -277,6 +296,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionAttributeSource(@Nullable TransactionAttributeSource transactionAttributeSource) {
 		this.transactionAttributeSource = transactionAttributeSource;
+		this.invocationDescriptorCache.clear();
 	}
 
 	/**
@@ -293,6 +313,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	@Override
 	public void setBeanFactory(@Nullable BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
+		this.invocationDescriptorCache.clear();
 	}
 
 	/**
@@ -337,9 +358,10 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 			final InvocationCallback invocation) throws Throwable {
 
 		// If the transaction attribute is null, the method is non-transactional.
-		TransactionAttributeSource tas = getTransactionAttributeSource();
-		final TransactionAttribute txAttr = (tas != null ? tas.getTransactionAttribute(method, targetClass) : null);
-		final TransactionManager tm = determineTransactionManager(txAttr);
+		TransactionInvocationDescriptor descriptor = getInvocationDescriptor(method, targetClass);
+		final TransactionAttribute txAttr = descriptor.transactionAttribute;
+		final TransactionManager tm = (descriptor.transactionManagerResolved ?
+				descriptor.transactionManager : determineTransactionManager(txAttr));
 
 		if (this.reactiveAdapterRegistry != null && tm instanceof ReactiveTransactionManager) {
 			boolean isSuspendingFunction = KotlinDetector.isSuspendingFunction(method);
@@ -375,11 +397,13 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 
 		PlatformTransactionManager ptm = asPlatformTransactionManager(tm);
-		final String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+		final String joinpointIdentification = descriptor.joinpointIdentification;
 
 		if (txAttr == null || !(ptm instanceof CallbackPreferringPlatformTransactionManager)) {
-			// Standard transaction demarcation with getTransaction and commit/rollback calls.
-			TransactionInfo txInfo = createTransactionIfNecessary(ptm, txAttr, joinpointIdentification);
+			// Standard transaction demarcation with getTransaction and commit/rollback calls,
+			// using the pre-built named attribute for a lightweight participation in an existing transaction
+			TransactionInfo txInfo = createTransactionIfNecessary(ptm, descriptor.namedTransactionAttribute,
+					joinpointIdentification);
 
 			Object retVal;
 			try {
@@ -470,11 +494,34 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 	}
 
+	/**
+	 * Obtain the invocation descriptor for the given method and target class,
+	 * resolving the transaction attribute, the joinpoint identification and,
+	 * where possible, the transaction manager once for all invocations.
+	 */
+	private TransactionInvocationDescriptor getInvocationDescriptor(Method method, @Nullable Class<?> targetClass) {
+		TransactionInvocationDescriptor head = this.invocationDescriptorCache.get(method);
+		for (TransactionInvocationDescriptor descriptor = head; descriptor != null; descriptor = descriptor.next) {
+			if (descriptor.targetClass == targetClass) {
+				return descriptor;
+			}
+		}
+		TransactionAttributeSource tas = getTransactionAttributeSource();
+		TransactionAttribute txAttr = (tas != null ? tas.getTransactionAttribute(method, targetClass) : null);
+		TransactionManager tm = (this.transactionManagerCacheable ? determineTransactionManager(txAttr) : null);
+		TransactionInvocationDescriptor descriptor = new TransactionInvocationDescriptor(targetClass, txAttr,
+				methodIdentification(method, targetClass, txAttr), this.transactionManagerCacheable, tm, head);
+		// Concurrent registrations may drop a descriptor, which simply gets rebuilt on next access
+		this.invocationDescriptorCache.put(method, descriptor);
+		return descriptor;
+	}
+
 	/**
 	 * Clear the transaction manager cache.
 	 */
 	protected void clearTransactionManagerCache() {
 		this.transactionManagerCache.clear();
+		this.invocationDescriptorCache.clear();
 		this.beanFactory = null;
 	}
 
@@ -712,6 +759,55 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	}
 
 
+	/**
+	 * Immutable descriptor for transactional invocations of a specific method on
+	 * a specific target class. Descriptors for the same method but different target
+	 * classes are chained, with the most recently resolved one first.
+	 */
+	private static final class TransactionInvocationDescriptor {
+
+		@Nullable
+		final Class<?> targetClass;
+
+		@Nullable
+		final TransactionAttribute transactionAttribute;
+
+		@Nullable
+		final TransactionAttribute namedTransactionAttribute;
+
+		final String joinpointIdentification;
+
+		final boolean transactionManagerResolved;
+
+		@Nullable
+		final TransactionManager transactionManager;
+
+		@Nullable
+		final TransactionInvocationDescriptor next;
+
+		@SuppressWarnings("serial")
+		TransactionInvocationDescriptor(@Nullable Class<?> targetClass, @Nullable TransactionAttribute txAttr,
+				String joinpointIdentification, boolean transactionManagerResolved,
+				@Nullable TransactionManager transactionManager, @Nullable TransactionInvocationDescriptor next) {
+
+			this.targetClass = targetClass;
+			this.transactionAttribute = txAttr;
+			// If no name specified, apply method identification as transaction name.
+			this.namedTransactionAttribute = (txAttr != null && txAttr.getName() == null ?
+					new DelegatingTransactionAttribute(txAttr) {
+						@Override
+						public String getName() {
+							return joinpointIdentification;
+						}
+					} : txAttr);
+			this.joinpointIdentification = joinpointIdentification;
+			this.transactionManagerResolved = transactionManagerResolved;
+			this.transactionManager = transactionManager;
+			this.next = next;
+		}
+	}
+
+
 	/**
 	 * Opaque object used to hold transaction information. Subclasses
 	 * must pass it back to methods on this class, but not see its internals.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.transaction.support;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -78,23 +79,34 @@ public abstract class TransactionSynchronizationManager {
 
 	private static final Log logger = LogFactory.getLog(TransactionSynchronizationManager.class);
 
-	private static final ThreadLocal<Map<Object, Object>> resources =
-			new NamedThreadLocal<>("Transactional resources");
-
-	private static final ThreadLocal<Set<TransactionSynchronization>> synchronizations =
-			new NamedThreadLocal<>("Transaction synchronizations");
-
-	private static final ThreadLocal<String> currentTransactionName =
-			new NamedThreadLocal<>("Current transaction name");
+	/**
+	 * Holder for all transaction state of the current thread, present only
+	 * while some of that state is actually set.
+	 */
+	private static final ThreadLocal<ThreadTransactionState> transactionState =
+			new NamedThreadLocal<>("Transaction synchronization state");
 
-	private static final ThreadLocal<Boolean> currentTransactionReadOnly =
-			new NamedThreadLocal<>("Current transaction read-only status");
 
-	private static final ThreadLocal<Integer> currentTransactionIsolationLevel =
-			new NamedThreadLocal<>("Current transaction isolation level");
+	/**
+	 * Return the transaction state for the current thread, creating it if necessary.
+	 */
+	private static ThreadTransactionState obtainState() {
+		ThreadTransactionState state = transactionState.get();
+		if (state == null) {
+			state = new ThreadTransactionState();
+			transactionState.set(state);
+		}
+		return state;
+	}
 
-	private static final ThreadLocal<Boolean> actualTransactionActive =
-			new NamedThreadLocal<>("Actual transaction active");
+	/**
+	 * Remove the given state from the current thread if it does not hold anything anymore.
+	 */
+	private static void removeStateIfEmpty(ThreadTransactionState state) {
+		if (state.isEmpty()) {
+			transactionState.remove();
+		}
+	}
 
 
 	//-------------------------------------------------------------------------
@@ -105,14 +117,14 @@ public abstract class TransactionSynchronizationManager {
 	 * Return all resources that are bound to the current thread.
 	 * <p>Mainly for debugging purposes. Resource managers should always invoke
 	 * {@code hasResource} for a specific resource key that they are interested in.
-	 * @return a Map with resource keys (usually the resource factory) and resource
-	 * values (usually the active resource object), or an empty Map if there are
-	 * currently no resources bound
+	 * @return a snapshot Map with resource keys (usually the resource factory) and
+	 * resource values (usually the active resource object), or an empty Map if there
+	 * are currently no resources bound
 	 * @see #hasResource
 	 */
 	public static Map<Object, Object> getResourceMap() {
-		Map<Object, Object> map = resources.get();
-		return (map != null ? Collections.unmodifiableMap(map) : Collections.emptyMap());
+		ThreadTransactionState state = transactionState.get();
+		return (state != null ? Collections.unmodifiableMap(state.getResourceMap()) : Collections.emptyMap());
 	}
 
 	/**
@@ -150,18 +162,16 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	private static Object doGetResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
-		if (map == null) {
+		ThreadTransactionState state = transactionState.get();
+		if (state == null) {
 			return null;
 		}
-		Object value = map.get(actualKey);
+		Object value = state.getResource(actualKey);
 		// Transparently remove ResourceHolder that was marked as void...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
-			map.remove(actualKey);
+			state.removeResource(actualKey);
 			// Remove entire ThreadLocal if empty...
-			if (map.isEmpty()) {
-				resources.remove();
-			}
+			removeStateIfEmpty(state);
 			value = null;
 		}
 		return value;
@@ -177,13 +187,7 @@ public abstract class TransactionSynchronizationManager {
 	public static void bindResource(Object key, Object value) throws IllegalStateException {
 		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
 		Assert.notNull(value, "Value must not be null");
-		Map<Object, Object> map = resources.get();
-		// set ThreadLocal Map if none found
-		if (map == null) {
-			map = new HashMap<>();
-			resources.set(map);
-		}
-		Object oldValue = map.put(actualKey, value);
+		Object oldValue = obtainState().putResource(actualKey, value);
 		// Transparently suppress a ResourceHolder that was marked as void...
 		if (oldValue instanceof ResourceHolder && ((ResourceHolder) oldValue).isVoid()) {
 			oldValue = null;
@@ -231,15 +235,13 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	private static Object doUnbindResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
-		if (map == null) {
+		ThreadTransactionState state = transactionState.get();
+		if (state == null) {
 			return null;
 		}
-		Object value = map.remove(actualKey);
+		Object value = state.removeResource(actualKey);
 		// Remove entire ThreadLocal if empty...
-		if (map.isEmpty()) {
-			resources.remove();
-		}
+		removeStateIfEmpty(state);
 		// Transparently suppress a ResourceHolder that was marked as void...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
 			value = null;
@@ -262,7 +264,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #registerSynchronization
 	 */
 	public static boolean isSynchronizationActive() {
-		return (synchronizations.get() != null);
+		ThreadTransactionState state = transactionState.get();
+		return (state != null && state.synchronizationActive);
 	}
 
 	/**
@@ -275,7 +278,7 @@ public abstract class TransactionSynchronizationManager {
 			throw new IllegalStateException("Cannot activate transaction synchronization - already active");
 		}
 		logger.trace("Initializing transaction synchronization");
-		synchronizations.set(new LinkedHashSet<>());
+		obtainState().synchronizationActive = true;
 	}
 
 	/**
@@ -292,11 +295,14 @@ public abstract class TransactionSynchronizationManager {
 			throws IllegalStateException {
 
 		Assert.notNull(synchronization, "TransactionSynchronization must not be null");
-		Set<TransactionSynchronization> synchs = synchronizations.get();
-		if (synchs == null) {
+		ThreadTransactionState state = transactionState.get();
+		if (state == null || !state.synchronizationActive) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
-		synchs.add(synchronization);
+		if (state.synchronizations == null) {
+			state.synchronizations = new LinkedHashSet<>();
+		}
+		state.synchronizations.add(synchronization);
 	}
 
 	/**
@@ -307,14 +313,15 @@ public abstract class TransactionSynchronizationManager {
 	 * @see TransactionSynchronization
 	 */
 	public static List<TransactionSynchronization> getSynchronizations() throws IllegalStateException {
-		Set<TransactionSynchronization> synchs = synchronizations.get();
-		if (synchs == null) {
+		ThreadTransactionState state = transactionState.get();
+		if (state == null || !state.synchronizationActive) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
+		Set<TransactionSynchronization> synchs = state.synchronizations;
 		// Return unmodifiable snapshot, to avoid ConcurrentModificationExceptions
 		// while iterating and invoking synchronization callbacks that in turn
 		// might register further synchronizations.
-		if (synchs.isEmpty()) {
+		if (synchs == null || synchs.isEmpty()) {
 			return Collections.emptyList();
 		}
 		else {
@@ -331,11 +338,14 @@ public abstract class TransactionSynchronizationManager {
 	 * @throws IllegalStateException if synchronization is not active
 	 */
 	public static void clearSynchronization() throws IllegalStateException {
-		if (!isSynchronizationActive()) {
+		ThreadTransactionState state = transactionState.get();
+		if (state == null || !state.synchronizationActive) {
 			throw new IllegalStateException("Cannot deactivate transaction synchronization - not active");
 		}
 		logger.trace("Clearing transaction synchronization");
-		synchronizations.remove();
+		state.synchronizationActive = false;
+		state.synchronizations = null;
+		removeStateIfEmpty(state);
 	}
 
 
@@ -350,7 +360,16 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getName()
 	 */
 	public static void setCurrentTransactionName(@Nullable String name) {
-		currentTransactionName.set(name);
+		if (name != null) {
+			obtainState().transactionName = name;
+		}
+		else {
+			ThreadTransactionState state = transactionState.get();
+			if (state != null) {
+				state.transactionName = null;
+				removeStateIfEmpty(state);
+			}
+		}
 	}
 
 	/**
@@ -361,7 +380,8 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	public static String getCurrentTransactionName() {
-		return currentTransactionName.get();
+		ThreadTransactionState state = transactionState.get();
+		return (state != null ? state.transactionName : null);
 	}
 
 	/**
@@ -372,7 +392,16 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#isReadOnly()
 	 */
 	public static void setCurrentTransactionReadOnly(boolean readOnly) {
-		currentTransactionReadOnly.set(readOnly ? Boolean.TRUE : null);
+		if (readOnly) {
+			obtainState().transactionReadOnly = true;
+		}
+		else {
+			ThreadTransactionState state = transactionState.get();
+			if (state != null) {
+				state.transactionReadOnly = false;
+				removeStateIfEmpty(state);
+			}
+		}
 	}
 
 	/**
@@ -388,7 +417,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see TransactionSynchronization#beforeCommit(boolean)
 	 */
 	public static boolean isCurrentTransactionReadOnly() {
-		return (currentTransactionReadOnly.get() != null);
+		ThreadTransactionState state = transactionState.get();
+		return (state != null && state.transactionReadOnly);
 	}
 
 	/**
@@ -408,7 +438,16 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getIsolationLevel()
 	 */
 	public static void setCurrentTransactionIsolationLevel(@Nullable Integer isolationLevel) {
-		currentTransactionIsolationLevel.set(isolationLevel);
+		if (isolationLevel != null) {
+			obtainState().transactionIsolationLevel = isolationLevel;
+		}
+		else {
+			ThreadTransactionState state = transactionState.get();
+			if (state != null) {
+				state.transactionIsolationLevel = null;
+				removeStateIfEmpty(state);
+			}
+		}
 	}
 
 	/**
@@ -430,7 +469,8 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	public static Integer getCurrentTransactionIsolationLevel() {
-		return currentTransactionIsolationLevel.get();
+		ThreadTransactionState state = transactionState.get();
+		return (state != null ? state.transactionIsolationLevel : null);
 	}
 
 	/**
@@ -440,7 +480,16 @@ public abstract class TransactionSynchronizationManager {
 	 * with an actual transaction; {@code false} to reset that marker
 	 */
 	public static void setActualTransactionActive(boolean active) {
-		actualTransactionActive.set(active ? Boolean.TRUE : null);
+		if (active) {
+			obtainState().actualTransactionActive = true;
+		}
+		else {
+			ThreadTransactionState state = transactionState.get();
+			if (state != null) {
+				state.actualTransactionActive = false;
+				removeStateIfEmpty(state);
+			}
+		}
 	}
 
 	/**
@@ -455,7 +504,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #isSynchronizationActive()
 	 */
 	public static boolean isActualTransactionActive() {
-		return (actualTransactionActive.get() != null);
+		ThreadTransactionState state = transactionState.get();
+		return (state != null && state.actualTransactionActive);
 	}
 
 
@@ -469,11 +519,113 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #setActualTransactionActive
 	 */
 	public static void clear() {
-		synchronizations.remove();
-		currentTransactionName.remove();
-		currentTransactionReadOnly.remove();
-		currentTransactionIsolationLevel.remove();
-		actualTransactionActive.remove();
+		ThreadTransactionState state = transactionState.get();
+		if (state != null) {
+			state.synchronizationActive = false;
+			state.synchronizations = null;
+			state.transactionName = null;
+			state.transactionReadOnly = false;
+			state.transactionIsolationLevel = null;
+			state.actualTransactionActive = false;
+			removeStateIfEmpty(state);
+		}
+	}
+
+
+
+	/**
+	 * Per-thread transaction state: bound resources, registered synchronizations
+	 * and the current transaction characteristics, in a single object. The first
+	 * bound resource is held inline, since there typically is only one.
+	 */
+	private static final class ThreadTransactionState {
+
+		@Nullable
+		private Object resourceKey;
+
+		@Nullable
+		private Object resourceValue;
+
+		@Nullable
+		private Map<Object, Object> moreResources;
+
+		boolean synchronizationActive;
+
+		@Nullable
+		Set<TransactionSynchronization> synchronizations;
+
+		@Nullable
+		String transactionName;
+
+		boolean transactionReadOnly;
+
+		@Nullable
+		Integer transactionIsolationLevel;
+
+		boolean actualTransactionActive;
+
+		@Nullable
+		Object getResource(Object key) {
+			if (this.resourceKey != null && (this.resourceKey == key || this.resourceKey.equals(key))) {
+				return this.resourceValue;
+			}
+			return (this.moreResources != null ? this.moreResources.get(key) : null);
+		}
+
+		@Nullable
+		Object putResource(Object key, Object value) {
+			if (this.resourceKey != null && (this.resourceKey == key || this.resourceKey.equals(key))) {
+				Object oldValue = this.resourceValue;
+				this.resourceValue = value;
+				return oldValue;
+			}
+			if (this.resourceKey == null && (this.moreResources == null || !this.moreResources.containsKey(key))) {
+				this.resourceKey = key;
+				this.resourceValue = value;
+				return null;
+			}
+			if (this.moreResources == null) {
+				this.moreResources = new HashMap<>(4);
+			}
+			return this.moreResources.put(key, value);
+		}
+
+		@Nullable
+		Object removeResource(Object key) {
+			if (this.resourceKey != null && (this.resourceKey == key || this.resourceKey.equals(key))) {
+				Object oldValue = this.resourceValue;
+				this.resourceKey = null;
+				this.resourceValue = null;
+				return oldValue;
+			}
+			if (this.moreResources == null) {
+				return null;
+			}
+			Object oldValue = this.moreResources.remove(key);
+			if (this.moreResources.isEmpty()) {
+				this.moreResources = null;
+			}
+			return oldValue;
+		}
+
+		Map<Object, Object> getResourceMap() {
+			if (this.moreResources == null) {
+				return (this.resourceKey != null ?
+						Collections.singletonMap(this.resourceKey, this.resourceValue) : Collections.emptyMap());
+			}
+			Map<Object, Object> map = new LinkedHashMap<>(this.moreResources.size() * 2 + 2);
+			if (this.resourceKey != null) {
+				map.put(this.resourceKey, this.resourceValue);
+			}
+			map.putAll(this.moreResources);
+			return map;
+		}
+
+		boolean isEmpty() {
+			return (this.resourceKey == null && this.moreResources == null && !this.synchronizationActive &&
+					this.transactionName == null && !this.transactionReadOnly &&
+					this.transactionIsolationLevel == null && !this.actualTransactionActive);
+		}
 	}
 
 }
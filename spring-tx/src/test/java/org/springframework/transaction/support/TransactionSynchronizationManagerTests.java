@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link TransactionSynchronizationManager}.
+ */
+class TransactionSynchronizationManagerTests {
+
+	@AfterEach
+	void cleanup() {
+		TransactionSynchronizationManager.clear();
+		TransactionSynchronizationManager.getResourceMap().keySet().forEach(
+				TransactionSynchronizationManager::unbindResourceIfPossible);
+	}
+
+
+	@Test
+	void bindAndUnbindSeveralResources() {
+		TransactionSynchronizationManager.bindResource("key1", "value1");
+		TransactionSynchronizationManager.bindResource("key2", "value2");
+		TransactionSynchronizationManager.bindResource("key3", "value3");
+		assertThat(TransactionSynchronizationManager.getResourceMap()).containsOnly(
+				entry("key1", "value1"), entry("key2", "value2"), entry("key3", "value3"));
+
+		assertThat(TransactionSynchronizationManager.unbindResource("key1")).isEqualTo("value1");
+		assertThat(TransactionSynchronizationManager.hasResource("key1")).isFalse();
+		assertThat(TransactionSynchronizationManager.getResource("key2")).isEqualTo("value2");
+		TransactionSynchronizationManager.bindResource("key1", "value1");
+		assertThatIllegalStateException().isThrownBy(() ->
+				TransactionSynchronizationManager.bindResource("key3", "other"));
+
+		TransactionSynchronizationManager.unbindResource("key1");
+		TransactionSynchronizationManager.unbindResource("key2");
+		TransactionSynchronizationManager.unbindResource("key3");
+		assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+		assertThat(TransactionSynchronizationManager.unbindResourceIfPossible("key1")).isNull();
+		assertThatIllegalStateException().isThrownBy(() ->
+				TransactionSynchronizationManager.unbindResource("key1"));
+	}
+
+	@Test
+	void voidResourceHolderIsRemovedTransparently() {
+		ResourceHolderSupport holder = new ResourceHolderSupport() {};
+		TransactionSynchronizationManager.bindResource("key", holder);
+		holder.unbound();
+		assertThat(TransactionSynchronizationManager.getResource("key")).isNull();
+		assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+	}
+
+	@Test
+	void synchronizationLifecycle() {
+		assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isFalse();
+		assertThatIllegalStateException().isThrownBy(TransactionSynchronizationManager::getSynchronizations);
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+		TransactionSynchronization synchronization = new TransactionSynchronization() {};
+		TransactionSynchronizationManager.registerSynchronization(synchronization);
+		TransactionSynchronizationManager.registerSynchronization(synchronization);
+		assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(synchronization);
+		assertThatIllegalStateException().isThrownBy(TransactionSynchronizationManager::initSynchronization);
+
+		TransactionSynchronizationManager.clearSynchronization();
+		assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isFalse();
+		assertThatIllegalStateException().isThrownBy(TransactionSynchronizationManager::clearSynchronization);
+	}
+
+	@Test
+	void transactionCharacteristics() {
+		TransactionSynchronizationManager.setCurrentTransactionName("tx");
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(2);
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionName()).isEqualTo("tx");
+		assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel()).isEqualTo(2);
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+
+		TransactionSynchronizationManager.clear();
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionName()).isNull();
+		assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isFalse();
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel()).isNull();
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -75,6 +77,37 @@ public class HandlerMethodArgumentResolverCompositeTests {
 		assertThat(resolvedValue).as("Didn't use the first registered resolver").isEqualTo(1);
 	}
 
+	@Test
+	public void getArgumentResolverForHandlerMethod() throws Exception {
+		StubArgumentResolver resolver = new StubArgumentResolver(Integer.class);
+		this.resolverComposite.addResolver(resolver);
+		MethodParameter[] parameters = new MethodParameter[] {paramInt, paramStr};
+
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 0)).isSameAs(resolver);
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 1)).isNull();
+
+		StubArgumentResolver otherResolver = new StubArgumentResolver(String.class);
+		this.resolverComposite.addResolver(otherResolver);
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 0)).isSameAs(resolver);
+		assertThat(this.resolverComposite.getArgumentResolver(parameters, 1)).isSameAs(otherResolver);
+	}
+
+	@Test
+	public void getArgumentResolverForHandlerMethodWithSubclass() throws Exception {
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite() {
+			@Override
+			public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+					NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+				return "custom";
+			}
+		};
+		composite.addResolver(new StubArgumentResolver(Integer.class));
+		MethodParameter[] parameters = new MethodParameter[] {paramInt, paramStr};
+
+		assertThat(composite.getArgumentResolver(parameters, 0)).isSameAs(composite);
+		assertThat(composite.getArgumentResolver(parameters, 1)).isNull();
+	}
+
 	@Test
 	public void noSuitableArgumentResolver() throws Exception {
 		assertThatIllegalArgumentException().isThrownBy(() ->